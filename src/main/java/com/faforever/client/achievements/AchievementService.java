@@ -57,7 +57,6 @@ public class AchievementService {
     return fafApiAccessor.getMany(navigator).cache();
   }
 
-  @Cacheable(value = CacheNames.ACHIEVEMENT_IMAGES, sync = true)
   public Image getImage(AchievementDefinition achievementDefinition, AchievementState achievementState) {
     try {
       URL url = switch (achievementState) {
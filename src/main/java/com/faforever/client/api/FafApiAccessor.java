@@ -2,7 +2,6 @@ package com.faforever.client.api;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.config.ClientProperties.Api;
-import com.faforever.client.io.CountingFileSystemResource;
 import com.faforever.client.login.TokenRetrievalException;
 import com.faforever.commons.api.dto.ApiException;
 import com.faforever.commons.api.dto.Clan;
@@ -31,7 +30,6 @@ import com.faforever.commons.api.elide.ElideEndpointBuilder;
 import com.faforever.commons.api.elide.ElideEntity;
 import com.faforever.commons.api.elide.ElideNavigatorOnCollection;
 import com.faforever.commons.api.elide.ElideNavigatorOnId;
-import com.faforever.commons.io.ByteCountListener;
 import com.github.jasminb.jsonapi.JSONAPIDocument;
 import com.github.jasminb.jsonapi.exceptions.ResourceParseException;
 import com.github.rutledgepaulv.qbuilders.builders.QBuilder;
@@ -40,16 +38,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.VisibleForTesting;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.RequestHeadersSpec;
@@ -62,7 +62,6 @@ import reactor.util.function.Tuple2;
 import reactor.util.retry.Retry;
 
 import java.io.Serializable;
-import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map.Entry;
@@ -171,21 +170,15 @@ public class FafApiAccessor implements InitializingBean {
     return retrieveFluxWithErrorHandling(clazz, requestSpec).doOnNext(object -> log.trace("Retrieved {} from {} with type {}", object, path, clazz));
   }
 
-  public Mono<Void> uploadFile(String endpoint, Path file, ByteCountListener listener,
+  public Mono<Void> uploadFile(String endpoint, String fileName, Publisher<DataBuffer> content,
                                java.util.Map<String, java.util.Map<String, ?>> params) {
-    MultiValueMap<String, Object> multipartContent = createFileMultipart(file, listener);
-    params.forEach(multipartContent::add);
-    return postMultipartForm(endpoint, multipartContent);
+    MultipartBodyBuilder multipartBodyBuilder = new MultipartBodyBuilder();
+    multipartBodyBuilder.asyncPart("file", content, DataBuffer.class).filename(fileName);
+    params.forEach(multipartBodyBuilder::part);
+    return postMultipartForm(endpoint, multipartBodyBuilder.build());
   }
 
-  @NotNull
-  private MultiValueMap<String, Object> createFileMultipart(Path file, ByteCountListener listener) {
-    MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
-    form.add("file", new CountingFileSystemResource(file, listener));
-    return form;
-  }
-
-  public Mono<Void> postMultipartForm(String endpointPath, MultiValueMap<String, Object> request) {
+  public Mono<Void> postMultipartForm(String endpointPath, MultiValueMap<String, ?> request) {
     return retrieveMonoWithErrorHandling(Void.class, apiWebClient.post()
         .uri(endpointPath)
         .contentType(MediaType.MULTIPART_FORM_DATA)
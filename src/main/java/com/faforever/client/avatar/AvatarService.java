@@ -6,7 +6,6 @@ import com.faforever.client.remote.AssetService;
 import com.faforever.client.remote.FafServerAccessor;
 import javafx.scene.image.Image;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -14,8 +13,6 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
-import static com.faforever.client.config.CacheNames.AVATARS;
-
 @Lazy
 @Service
 @RequiredArgsConstructor
@@ -26,7 +23,6 @@ public class AvatarService {
   private final PlayerService playerService;
   private final AvatarMapper avatarMapper;
 
-  @Cacheable(value = AVATARS, sync = true)
   public Image loadAvatar(Avatar avatar) {
     if (avatar == null) {
       return null;
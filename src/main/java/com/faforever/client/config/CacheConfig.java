@@ -16,14 +16,11 @@ import org.springframework.context.annotation.Configuration;
 import java.util.List;
 
 import static com.faforever.client.config.CacheNames.ACHIEVEMENTS;
-import static com.faforever.client.config.CacheNames.ACHIEVEMENT_IMAGES;
 import static com.faforever.client.config.CacheNames.AVAILABLE_AVATARS;
-import static com.faforever.client.config.CacheNames.AVATARS;
 import static com.faforever.client.config.CacheNames.CLAN;
 import static com.faforever.client.config.CacheNames.COOP_LEADERBOARD;
 import static com.faforever.client.config.CacheNames.COOP_MAPS;
 import static com.faforever.client.config.CacheNames.COTURN;
-import static com.faforever.client.config.CacheNames.COUNTRY_FLAGS;
 import static com.faforever.client.config.CacheNames.COUNTRY_NAMES;
 import static com.faforever.client.config.CacheNames.DIVISIONS;
 import static com.faforever.client.config.CacheNames.FEATURED_MODS;
@@ -37,12 +34,10 @@ import static com.faforever.client.config.CacheNames.LEAGUE_ENTRIES;
 import static com.faforever.client.config.CacheNames.MAPS;
 import static com.faforever.client.config.CacheNames.MAP_GENERATOR;
 import static com.faforever.client.config.CacheNames.MAP_GENERATOR_STYLES;
-import static com.faforever.client.config.CacheNames.MAP_PREVIEW;
 import static com.faforever.client.config.CacheNames.MATCHMAKER_POOLS;
 import static com.faforever.client.config.CacheNames.MATCHMAKER_QUEUES;
 import static com.faforever.client.config.CacheNames.MODERATION_REPORTS;
 import static com.faforever.client.config.CacheNames.MODS;
-import static com.faforever.client.config.CacheNames.MOD_THUMBNAIL;
 import static com.faforever.client.config.CacheNames.NEWS;
 import static com.faforever.client.config.CacheNames.PERMISSION;
 import static com.faforever.client.config.CacheNames.PLAYER_EVENTS;
@@ -104,17 +99,13 @@ public class CacheConfig implements CachingConfigurer {
                 new CaffeineCache(THEME_URLS, newBuilder().expireAfterWrite(10, MINUTES).build()),
 
                 // Images should only be cached as long as they are in use. This avoids loading an image multiple times, while
-                // at the same time it doesn't prevent unused images from being garbage collected.
-                new CaffeineCache(ACHIEVEMENT_IMAGES, newBuilder().weakValues().build(), true),
-                new CaffeineCache(AVATARS, newBuilder().weakValues().build(), true),
+                // at the same time it doesn't prevent unused images from being garbage collected. Images loaded from
+                // the web are cached by the AssetService instead.
                 new CaffeineCache(URL_PREVIEW, newBuilder().weakValues().expireAfterAccess(30, MINUTES).build(), true),
-                new CaffeineCache(MAP_PREVIEW, newBuilder().weakValues().build(), true),
-                new CaffeineCache(COUNTRY_FLAGS, newBuilder().weakValues().build(), true),
                 new CaffeineCache(COUNTRY_NAMES, newBuilder().weakValues().build(), true),
                 new CaffeineCache(THEME_IMAGES, newBuilder().weakValues().build(), true),
-                new CaffeineCache(IMAGES, newBuilder().weakValues().build(), true),
-                new CaffeineCache(MOD_THUMBNAIL, newBuilder().weakValues().build(), true
-        )));
+                new CaffeineCache(IMAGES, newBuilder().weakValues().build(), true)
+        ));
     return cacheManager;
   }
 
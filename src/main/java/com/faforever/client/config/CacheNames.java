@@ -2,14 +2,10 @@ package com.faforever.client.config;
 
 public final class CacheNames {
 
-  public static final String AVATARS = "avatars";
-  public static final String COUNTRY_FLAGS = "countryFlags";
   public static final String COUNTRY_NAMES = "countryNames";
   public static final String PERMISSION = "permission";
-  public static final String MAP_PREVIEW = "mapPreview";
   public static final String URL_PREVIEW = "urlPreview";
   public static final String STATISTICS = "statistics";
-  public static final String ACHIEVEMENT_IMAGES = "achievementImages";
   public static final String ACHIEVEMENTS = "achievements";
   public static final String PLAYER_EVENTS = "playerEvents";
   public static final String MODS = "mods";
@@ -29,7 +25,6 @@ public final class CacheNames {
   public static final String THEME_IMAGES = "themeImages";
   public static final String THEME_URLS = "themeURLs";
   public static final String IMAGES = "images";
-  public static final String MOD_THUMBNAIL = "modThumbnail";
   public static final String COOP_MAPS = "coopMaps";
   public static final String AVAILABLE_AVATARS = "availableAvatars";
   public static final String NEWS = "news";
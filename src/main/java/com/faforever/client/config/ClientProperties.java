@@ -24,6 +24,7 @@ public class ClientProperties {
   private Server server = new Server();
   private Vault vault = new Vault();
   private Replay replay = new Replay();
+  private AssetCache assetCache = new AssetCache();
   private Imgur imgur = new Imgur();
   private TrueSkill trueSkill = new TrueSkill();
   private Api api = new Api();
@@ -102,10 +103,24 @@ public class ClientProperties {
     private int remotePort;
     private String replayFileFormat = "%d-%s.fafreplay";
     private String replayFileGlob = "*.fafreplay";
+    /** Maximum number of chunks of the live replay stream that may wait to be relayed to the replay server. */
+    private int relayQueueCapacity = 8192;
+    /** Size budget of the cache for downloaded online replays, least recently watched replays are evicted first. */
+    private long cacheSizeBytes = 256L * 1024 * 1024;
     // TODO this should acutally be reported by the server
     private int watchDelaySeconds = 300;
   }
 
+  @Data
+  public static class AssetCache {
+    /** Size budget of the cached images, least recently used images are evicted first. */
+    private long cacheSizeBytes = 200L * 1024 * 1024;
+    /** How long a cached image is used before it is revalidated with the server. */
+    private Duration revalidateAfter = Duration.ofDays(1);
+    /** Memory budget of decoded images, least recently used images are dropped first. */
+    private long memoryCacheSizeBytes = 150L * 1024 * 1024;
+  }
+
   @Data
   public static class Imgur {
     private Upload upload = new Upload();
@@ -2,6 +2,7 @@ package com.faforever.client.domain.api;
 
 import com.faforever.client.domain.server.PlayerInfo;
 import com.faforever.client.replay.ReplayDetails;
+import com.faforever.client.replay.ReplayStatistics;
 import com.faforever.client.util.RatingUtil;
 import com.faforever.commons.api.dto.Validity;
 
@@ -22,6 +23,7 @@ public record Replay(
     OffsetDateTime endTime, FeaturedMod featuredMod, MapVersion mapVersion,
     Path replayFile,
     Integer replayTicks,
+    ReplayStatistics statistics,
     List<ChatMessage> chatMessages,
     List<GameOption> gameOptions, Validity validity, ReviewsSummary reviewsSummary,
     boolean local
@@ -51,8 +53,10 @@ public record Replay(
   }
 
   public Replay withReplayDetails(ReplayDetails replayDetails, Path replayFile) {
+    ReplayStatistics statistics = replayDetails.statistics();
+    Integer replayTicks = replayTicks() == null && statistics != null ? statistics.ticks() : replayTicks();
     return new Replay(id(), title(), replayAvailable(), teams(), teamPlayerStats(), host(), startTime(), endTime(),
-                      featuredMod(), replayDetails.mapVersion(), replayFile, replayTicks(),
+                      featuredMod(), replayDetails.mapVersion(), replayFile, replayTicks, statistics,
                       replayDetails.chatMessages(), replayDetails.gameOptions(), validity(), reviewsSummary(),
                       local());
   }
@@ -21,7 +21,6 @@ import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import javafx.collections.ObservableSet;
 import javafx.collections.SetChangeListener;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -29,7 +28,6 @@ import javafx.scene.control.Labeled;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.paint.Color;
@@ -37,27 +35,19 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import javafx.util.converter.NumberStringConverter;
-import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.controlsfx.control.RangeSlider;
 import org.springframework.util.Assert;
 
-import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-
-import static java.nio.file.Files.createDirectories;
-import static javax.imageio.ImageIO.write;
 
 /**
  * Utility class to fix some annoying JavaFX shortcomings.
  */
-@Slf4j
 public final class JavaFxUtil {
 
   public static final StringConverter<Path> PATH_STRING_CONVERTER = new StringConverter<>() {
@@ -206,44 +196,6 @@ public final class JavaFxUtil {
     return FXCollections.unmodifiableObservableSet(set);
   }
 
-  public static void persistImage(Image image, Path path, String format) {
-    if (image == null) {
-      return;
-    }
-
-    JavaFxUtil.addAndTriggerListener(image.progressProperty(), new ChangeListener<>() {
-      @Override
-      public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
-        if (newValue.intValue() >= 1) {
-          writeImageLater(image, path, format);
-          observable.removeListener(this);
-        }
-      }
-    });
-  }
-
-  private static void writeImageLater(Image image, Path path, String format) {
-    CompletableFuture.runAsync(() -> {
-      try {
-        if (image == null) {
-          return;
-        }
-        if (path.getParent() != null) {
-          createDirectories(path.getParent());
-        }
-        BufferedImage bufferedImage = SwingFXUtils.fromFXImage(image, null);
-        if (bufferedImage == null) {
-          log.warn("Could not read image from {} for {}", image.getUrl(), path);
-          return;
-        }
-        write(bufferedImage, format, path.toFile());
-        log.trace("Image written to {}", path);
-      } catch (IOException e) {
-        log.warn("Could not write image to {}", path, e);
-      }
-    });
-  }
-
   public static void setAnchors(Node node, double value) {
     AnchorPane.setBottomAnchor(node, value);
     AnchorPane.setLeftAnchor(node, value);
@@ -3,72 +3,321 @@ package com.faforever.client.io;
 import com.faforever.client.task.ResourceLocks;
 import com.faforever.commons.io.ByteCopier;
 import com.faforever.commons.io.ByteCountListener;
+import com.google.common.util.concurrent.Striped;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
 
+/**
+ * Downloads files so that interrupted downloads can be resumed. The bytes are written to a partial file next to the
+ * target file, which is kept if the download fails. The next attempt, or the next download of the same file, continues
+ * where the previous one stopped by requesting the missing range, as long as the server confirms that the file did not
+ * change in the meantime. Failed attempts are retried with an exponential backoff.
+ * <p>
+ * Downloads to the same target file are serialized, since they share the partial file. Partial files that haven't been
+ * touched for a while are deleted the first time a download goes to their directory.
+ */
 @Service
 @Lazy
 @Slf4j
 @RequiredArgsConstructor
 public class DownloadService {
 
+  private static final String PARTIAL_FILE_SUFFIX = ".part";
+  private static final String VALIDATOR_FILE_SUFFIX = ".validator";
+  private static final int MAX_ATTEMPTS = 5;
+  private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+  private static final Duration PARTIAL_FILE_MAX_AGE = Duration.ofDays(7);
+
+  private final Striped<Lock> targetLocks = Striped.lazyWeakLock(1024);
+  private final Set<Path> prunedDirectories = ConcurrentHashMap.newKeySet();
+
   /*
-   * Download a file from a URL using a temporary path and copy it to targetFile if it downloaded and the checksum
+   * Download a file from a URL using a partial file and move it to targetFile if it downloaded and the checksum
    * matched.
    */
   public void downloadFile(URL url, Map<String, String> requestProperties, Path targetFile, ByteCountListener progressListener, String md5sum) throws IOException, NoSuchAlgorithmException, ChecksumMismatchException {
-    Path tempFile = Files.createTempFile(targetFile.getParent(), "download", null);
+    Lock targetLock = lockTarget(targetFile);
+    try {
+      Path partialFile = getPartialFile(targetFile);
+      download(url, requestProperties, partialFile, progressListener);
+
+      // NOTE: It is crucial that we verify the checksum before using the file when downloading from mirrors! We don't
+      // want to be running unverified executables!
+      String checksum = md5(partialFile);
+      if (!Objects.equals(md5sum, checksum)) {
+        deletePartialFile(partialFile);
+        throw new ChecksumMismatchException(url, checksum, md5sum);
+      }
+
+      moveToTarget(partialFile, targetFile);
+    } finally {
+      targetLock.unlock();
+    }
+  }
+
+  /**
+   * Downloads a file from a URL to targetFile. The target file only appears once the download is complete, that is
+   * once as many bytes have been received as the server announced.
+   */
+  public void downloadFile(URL url, Map<String, String> requestProperties, Path targetFile, ByteCountListener progressListener) throws IOException {
+    Lock targetLock = lockTarget(targetFile);
+    try {
+      Path partialFile = getPartialFile(targetFile);
+      download(url, requestProperties, partialFile, progressListener);
+      moveToTarget(partialFile, targetFile);
+    } finally {
+      targetLock.unlock();
+    }
+  }
+
+  /**
+   * Downloads a file like {@link #downloadFile(URL, Map, Path, ByteCountListener)}, passes it to the handler and
+   * deletes it afterwards. Other downloads to the same target file wait until the handler is done, so the file can't be
+   * replaced or deleted while it is in use.
+   */
+  public <E extends Exception> void downloadTemporaryFile(URL url, Map<String, String> requestProperties, Path targetFile, ByteCountListener progressListener, DownloadedFileHandler<E> handler) throws IOException, E {
+    Lock targetLock = lockTarget(targetFile);
+    try {
+      downloadFile(url, requestProperties, targetFile, progressListener);
+      try {
+        handler.handle(targetFile);
+      } finally {
+        try {
+          Files.deleteIfExists(targetFile);
+        } catch (IOException e) {
+          log.warn("Could not delete downloaded file: `{}`", targetFile.toAbsolutePath(), e);
+        }
+      }
+    } finally {
+      targetLock.unlock();
+    }
+  }
+
+  private Lock lockTarget(Path targetFile) throws InterruptedIOException {
+    Lock targetLock = targetLocks.get(targetFile.toAbsolutePath().normalize());
+    try {
+      targetLock.lockInterruptibly();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for another download of `" + targetFile + "`");
+    }
+    return targetLock;
+  }
+
+  private void download(URL url, Map<String, String> requestProperties, Path partialFile, ByteCountListener progressListener) throws IOException {
+    Files.createDirectories(partialFile.getParent());
+    pruneAbandonedPartialFiles(partialFile.getParent());
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        transfer(url, requestProperties, partialFile, progressListener);
+        return;
+      } catch (UnrecoverableDownloadException | FileNotFoundException e) {
+        throw e;
+      } catch (IOException e) {
+        if (attempt >= MAX_ATTEMPTS) {
+          throw e;
+        }
+        Duration delay = INITIAL_RETRY_DELAY.multipliedBy(1L << (attempt - 1));
+        log.warn("Download from `{}` failed (attempt {} of {}), retrying in {}", url, attempt, MAX_ATTEMPTS, delay, e);
+        sleep(delay);
+      }
+    }
+  }
 
+  /**
+   * Downloads the bytes that are missing from the partial file. The range is only requested if a validator (ETag or
+   * Last-Modified) of the previous response is known; if the server answers with the full file instead, because it
+   * changed or doesn't support ranges, the partial file is overwritten.
+   */
+  private void transfer(URL url, Map<String, String> requestProperties, Path partialFile, ByteCountListener progressListener) throws IOException {
+    Path validatorFile = getValidatorFile(partialFile);
+    long offset = Files.exists(partialFile) ? Files.size(partialFile) : 0;
+    String validator = offset > 0 && Files.exists(validatorFile) ? Files.readString(validatorFile) : null;
 
     URLConnection urlConnection = url.openConnection();
     requestProperties.forEach(urlConnection::setRequestProperty);
 
-    log.info("Downloading file from `{}` to `{}`", url, tempFile);
+    if (urlConnection instanceof HttpURLConnection httpConnection) {
+      if (validator != null) {
+        httpConnection.setRequestProperty("Range", "bytes=" + offset + "-");
+        httpConnection.setRequestProperty("If-Range", validator);
+      }
+
+      int responseCode = httpConnection.getResponseCode();
+      if (responseCode == 416) {
+        // The partial file doesn't match the file on the server anymore, so start over with the next attempt
+        deletePartialFile(partialFile);
+        throw new IOException("Requested range of `" + url + "` is not satisfiable");
+      }
+      if (responseCode >= 400 && responseCode < 500 && responseCode != 408 && responseCode != 429) {
+        throw new UnrecoverableDownloadException("Server responded with " + responseCode + " for `" + url + "`");
+      }
+      if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+        offset = 0;
+        writeValidator(validatorFile, httpConnection);
+      }
+    } else {
+      offset = 0;
+    }
+
+    if (offset > 0) {
+      log.info("Resuming download from `{}` to `{}` at byte {}", url, partialFile, offset);
+    } else {
+      log.info("Downloading file from `{}` to `{}`", url, partialFile);
+    }
+
+    long contentLength = urlConnection.getContentLengthLong();
+    long totalBytes = contentLength < 0 ? -1 : offset + contentLength;
+    long bytesBefore = offset;
+    OpenOption[] openOptions = offset > 0
+        ? new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.APPEND}
+        : new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
 
     ResourceLocks.acquireDownloadLock();
-    MessageDigest messageDigest = MessageDigest.getInstance("MD5");
     try (InputStream inputStream = urlConnection.getInputStream();
-         DigestInputStream digestInputStream = new DigestInputStream(inputStream, messageDigest);
-         OutputStream outputStream = Files.newOutputStream(tempFile)) {
-
-      ByteCopier.from(digestInputStream)
+         OutputStream outputStream = Files.newOutputStream(partialFile, openOptions)) {
+      ByteCopier.from(inputStream)
           .to(outputStream)
-          .totalBytes(urlConnection.getContentLength())
-          .listener(progressListener)
+          .totalBytes(totalBytes)
+          .listener((written, total) -> progressListener.updateBytesProcessed(bytesBefore + written, totalBytes))
           .copy();
-
-      // NOTE: It is crucial that we verify the checksum before using the file when downloading from mirrors! We don't
-      // want to be running unverified executables!
-      String checksum = HexFormat.of().formatHex(messageDigest.digest()).toLowerCase();
-      if (!Objects.equals(md5sum, checksum)) {
-        throw new ChecksumMismatchException(url, checksum, md5sum);
-      }
-
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
     } finally {
       ResourceLocks.freeDownloadLock();
-      try {
-        Files.deleteIfExists(tempFile);
-      } catch (IOException e) {
-        log.warn("Could not delete temporary file: `{}`", tempFile.toAbsolutePath(), e);
-      }
+    }
+
+    long size = Files.size(partialFile);
+    if (totalBytes >= 0 && size != totalBytes) {
+      throw new IOException("Download from `" + url + "` is incomplete, received " + size + " of " + totalBytes + " bytes");
+    }
+  }
+
+  private void writeValidator(Path validatorFile, HttpURLConnection httpConnection) throws IOException {
+    String eTag = httpConnection.getHeaderField("ETag");
+    // Weak validators can't be used to request ranges
+    String validator = eTag != null && !eTag.startsWith("W/") ? eTag : httpConnection.getHeaderField("Last-Modified");
+    if (validator == null) {
+      Files.deleteIfExists(validatorFile);
+    } else {
+      Files.writeString(validatorFile, validator);
+    }
+  }
+
+  private void moveToTarget(Path partialFile, Path targetFile) throws IOException {
+    try {
+      Files.move(partialFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(partialFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    Files.deleteIfExists(getValidatorFile(partialFile));
+  }
+
+  /**
+   * Deletes partial files of downloads that have not been retried for a while. Each directory is only pruned once per
+   * session.
+   */
+  private void pruneAbandonedPartialFiles(Path directory) {
+    if (!prunedDirectories.add(directory.toAbsolutePath().normalize())) {
+      return;
+    }
+
+    Instant threshold = Instant.now().minus(PARTIAL_FILE_MAX_AGE);
+    try (Stream<Path> files = Files.list(directory)) {
+      files.filter(file -> {
+        String fileName = file.getFileName().toString();
+        return fileName.endsWith(PARTIAL_FILE_SUFFIX) || fileName.endsWith(PARTIAL_FILE_SUFFIX + VALIDATOR_FILE_SUFFIX);
+      }).forEach(file -> {
+        try {
+          if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold)) {
+            log.debug("Deleting abandoned partial download `{}`", file);
+            Files.deleteIfExists(file);
+          }
+        } catch (IOException e) {
+          log.warn("Could not delete abandoned partial download `{}`", file, e);
+        }
+      });
+    } catch (IOException e) {
+      log.warn("Could not prune partial downloads in `{}`", directory, e);
+    }
+  }
+
+  private void deletePartialFile(Path partialFile) {
+    try {
+      Files.deleteIfExists(partialFile);
+      Files.deleteIfExists(getValidatorFile(partialFile));
+    } catch (IOException e) {
+      log.warn("Could not delete partial file: `{}`", partialFile.toAbsolutePath(), e);
+    }
+  }
+
+  private String md5(Path file) throws IOException, NoSuchAlgorithmException {
+    MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+    try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), messageDigest)) {
+      inputStream.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(messageDigest.digest()).toLowerCase();
+  }
+
+  private void sleep(Duration delay) throws InterruptedIOException {
+    try {
+      Thread.sleep(delay.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry download");
+    }
+  }
+
+  private static Path getPartialFile(Path targetFile) {
+    return targetFile.resolveSibling(targetFile.getFileName() + PARTIAL_FILE_SUFFIX);
+  }
+
+  private static Path getValidatorFile(Path partialFile) {
+    return partialFile.resolveSibling(partialFile.getFileName() + VALIDATOR_FILE_SUFFIX);
+  }
+
+  /**
+   * Processes a downloaded file before it is deleted.
+   */
+  @FunctionalInterface
+  public interface DownloadedFileHandler<E extends Exception> {
+    void handle(Path file) throws IOException, E;
+  }
+
+  /**
+   * Signals a download that will not succeed by retrying, like one of a file the server doesn't have.
+   */
+  private static class UnrecoverableDownloadException extends IOException {
+    UnrecoverableDownloadException(String message) {
+      super(message);
     }
   }
 }
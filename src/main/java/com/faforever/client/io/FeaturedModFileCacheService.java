@@ -20,6 +20,7 @@ import java.nio.file.attribute.FileTime;
 import java.text.MessageFormat;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static com.google.common.io.Files.hash;
@@ -31,13 +32,31 @@ import static com.google.common.io.Files.hash;
 public class FeaturedModFileCacheService implements InitializingBean {
   private final DataPrefs dataPrefs;
   private final Preferences preferences;
+  private final FileHashCache fileHashCache;
 
   public boolean isCached(FeaturedModFile featuredModFile) throws IOException {
     return Files.exists(getCachedFilePath(featuredModFile));
   }
 
+  /**
+   * Returns the MD5 hash of the file, which is only computed if the file changed since it was last hashed.
+   */
   public String readHashFromFile(Path filePath) throws IOException {
-    return hash(filePath.toFile(), Hashing.md5()).toString();
+    BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+    Optional<String> cachedHash = fileHashCache.get(filePath, attributes);
+    if (cachedHash.isPresent()) {
+      return cachedHash.get();
+    }
+    String hash = hash(filePath.toFile(), Hashing.md5()).toString();
+    fileHashCache.put(filePath, attributes, hash);
+    return hash;
+  }
+
+  /**
+   * Writes the hashes computed by {@link #readHashFromFile(Path)} so they can be reused on the next start.
+   */
+  public void saveHashes() {
+    fileHashCache.save();
   }
 
   private Path getCachedFilePath(String hash, String group) {
@@ -63,7 +82,11 @@ public class FeaturedModFileCacheService implements InitializingBean {
         //We want to keep the old file for now in case it is needed again for example for old replays
         moveFeaturedModFileToCache(targetPath);
       }
+      fileHashCache.invalidate(targetPath);
       Files.copy(getCachedFilePath(featuredModFile), targetPath, StandardCopyOption.REPLACE_EXISTING);
+      // Cached files are named after their verified hash, so the copy doesn't need to be hashed again
+      fileHashCache.put(targetPath, Files.readAttributes(targetPath, BasicFileAttributes.class),
+                        featuredModFile.getMd5());
       UpdaterUtil.extractMoviesAndSoundsIfPresent(targetPath, dataPrefs.getBaseDataDirectory());
     } finally {
       ResourceLocks.freeDiskLock();
@@ -0,0 +1,58 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.DataPrefs;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Persistent cache of file hashes, so large files don't need to be read completely to check whether they are up to
+ * date. Code that writes a file whose hash may be cached has to {@link #invalidate(Path)} it or
+ * {@link #put(Path, BasicFileAttributes, String)} the new hash.
+ */
+@Lazy
+@Component
+public class FileHashCache extends PersistentFileCache<String> {
+
+  /**
+   * Increase whenever the format of the cached hashes changes, so old caches get discarded.
+   */
+  private static final int CACHE_VERSION = 1;
+
+  private final DataPrefs dataPrefs;
+
+  public FileHashCache(DataPrefs dataPrefs) {
+    super(CACHE_VERSION, String.class);
+    this.dataPrefs = dataPrefs;
+  }
+
+  @Override
+  protected Path getCacheFile() {
+    return dataPrefs.getFileHashCacheFile();
+  }
+
+  /**
+   * Returns the cached hash of the specified file, unless the file changed since it has been hashed.
+   */
+  public Optional<String> get(Path file, BasicFileAttributes attributes) {
+    return getValue(file, attributes);
+  }
+
+  /**
+   * Caches the hash of the specified file. The cache is only written by {@link #save()}.
+   */
+  public void put(Path file, BasicFileAttributes attributes, String hash) {
+    putValue(file, attributes, hash);
+  }
+
+  /**
+   * Drops the entries of files that no longer exist and writes the cache if anything changed.
+   */
+  public void save() {
+    save(Files::exists);
+  }
+}
@@ -0,0 +1,170 @@
+package com.faforever.client.io;
+
+import com.faforever.commons.io.ByteCountListener;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Zips a directory into a stream like {@link com.faforever.commons.io.Zipper}, but deflates the files of large
+ * directories on several threads. Files are compressed into memory ahead of the writer, within a window of a few
+ * files, and are written in their original order. Files too large to be kept in memory are deflated while they are
+ * written, during which the following files are compressed in the background.
+ */
+@Slf4j
+class ParallelZipper {
+
+  private static final long PARALLEL_THRESHOLD = 16 * 1024 * 1024;
+  private static final int MAX_BUFFERED_FILE_SIZE = 4 * 1024 * 1024;
+
+  private final Path directory;
+  private final Executor executor;
+  private final long parallelThreshold;
+  private final long maxBufferedFileSize;
+  private final int windowSize;
+
+  ParallelZipper(Path directory, Executor executor) {
+    this(directory, executor, PARALLEL_THRESHOLD, MAX_BUFFERED_FILE_SIZE);
+  }
+
+  ParallelZipper(Path directory, Executor executor, long parallelThreshold, long maxBufferedFileSize) {
+    this.directory = directory;
+    this.executor = executor;
+    this.parallelThreshold = parallelThreshold;
+    this.maxBufferedFileSize = maxBufferedFileSize;
+    this.windowSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Writes the zip archive to the output stream, which is not closed. Like the {@code Zipper}, entries are named
+   * relative to the parent of the directory so that the directory itself is the top level entry. The listener is
+   * called with the number of uncompressed bytes that have been written to the archive.
+   */
+  void zip(OutputStream outputStream, ByteCountListener listener) throws IOException {
+    List<Path> paths;
+    try (Stream<Path> stream = Files.walk(directory)) {
+      paths = stream.toList();
+    }
+    long totalBytes = 0;
+    for (Path path : paths) {
+      if (Files.isRegularFile(path)) {
+        totalBytes += Files.size(path);
+      }
+    }
+    boolean parallel = totalBytes >= parallelThreshold;
+    log.debug("Zipping `{}` ({} bytes) {}", directory, totalBytes, parallel ? "in parallel" : "sequentially");
+
+    ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(outputStream);
+    Deque<CompletableFuture<PendingEntry>> window = new ArrayDeque<>();
+    long bytesDone = 0;
+    try {
+      for (Path path : paths) {
+        window.add(prepare(path, parallel));
+        if (window.size() >= windowSize) {
+          bytesDone += write(zipOutputStream, join(window.poll()));
+          listener.updateBytesProcessed(bytesDone, totalBytes);
+        }
+      }
+      while (!window.isEmpty()) {
+        bytesDone += write(zipOutputStream, join(window.poll()));
+        listener.updateBytesProcessed(bytesDone, totalBytes);
+      }
+      zipOutputStream.finish();
+    } finally {
+      window.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private CompletableFuture<PendingEntry> prepare(Path path, boolean parallel) throws IOException {
+    String name = directory.getParent().relativize(path).toString().replace(File.separatorChar, '/');
+    ZipArchiveEntry entry = new ZipArchiveEntry(path.toFile(), name);
+    if (!parallel || !Files.isRegularFile(path) || Files.size(path) > maxBufferedFileSize) {
+      return CompletableFuture.completedFuture(new PendingEntry(path, entry, null));
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return new PendingEntry(path, entry, deflate(path, entry));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Deflates the file into memory and sets the checksum and sizes of the entry, so that it can be added to the archive
+   * as is.
+   */
+  private byte[] deflate(Path file, ZipArchiveEntry entry) throws IOException {
+    CRC32 crc = new CRC32();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    long size;
+    try (InputStream inputStream = new CheckedInputStream(Files.newInputStream(file), crc);
+         OutputStream deflaterOutputStream = new DeflaterOutputStream(compressed, deflater)) {
+      size = inputStream.transferTo(deflaterOutputStream);
+    } finally {
+      deflater.end();
+    }
+    entry.setMethod(ZipEntry.DEFLATED);
+    entry.setCrc(crc.getValue());
+    entry.setSize(size);
+    entry.setCompressedSize(compressed.size());
+    return compressed.toByteArray();
+  }
+
+  private long write(ZipArchiveOutputStream zipOutputStream, PendingEntry pendingEntry) throws IOException {
+    ZipArchiveEntry entry = pendingEntry.entry();
+    if (pendingEntry.compressedData() != null) {
+      zipOutputStream.addRawArchiveEntry(entry, new ByteArrayInputStream(pendingEntry.compressedData()));
+      return entry.getSize();
+    }
+
+    zipOutputStream.putArchiveEntry(entry);
+    long size = 0;
+    if (Files.isRegularFile(pendingEntry.path())) {
+      try (InputStream inputStream = Files.newInputStream(pendingEntry.path())) {
+        size = inputStream.transferTo(zipOutputStream);
+      }
+    }
+    zipOutputStream.closeArchiveEntry();
+    return size;
+  }
+
+  private static PendingEntry join(CompletableFuture<PendingEntry> future) throws IOException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+        throw uncheckedIOException.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * An entry to be written to the archive, with its already deflated content if it was compressed in advance.
+   */
+  private record PendingEntry(Path path, ZipArchiveEntry entry, byte[] compressedData) {}
+}
@@ -0,0 +1,158 @@
+package com.faforever.client.io;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Base class of persistent caches of values read from files, so the files don't need to be read again on every start.
+ * Entries are keyed by the absolute path of the file and are only used as long as its size, last modification time and
+ * file key (the inode, where the file system provides one) didn't change. The cache is loaded on first use and only
+ * written by {@link #save(Predicate)}.
+ *
+ * @param <T> the type of the cached values, which must be serializable by Jackson
+ */
+@Slf4j
+public abstract class PersistentFileCache<T> {
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final int version;
+  private final JavaType cacheFileType;
+
+  private final Map<String, Entry<T>> entriesByFile = new HashMap<>();
+  private boolean loaded;
+  private boolean changed;
+
+  /**
+   * @param version the format version of the cached values. Increase whenever it changes, so old caches get discarded.
+   */
+  protected PersistentFileCache(int version, Class<T> valueType) {
+    this.version = version;
+    this.cacheFileType = objectMapper.getTypeFactory().constructParametricType(CacheFile.class, valueType);
+  }
+
+  /**
+   * Returns the file the cache is persisted in.
+   */
+  protected abstract Path getCacheFile();
+
+  /**
+   * Returns the cached value of the specified file, unless the file changed since the value has been cached.
+   */
+  protected synchronized Optional<T> getValue(Path file, BasicFileAttributes attributes) {
+    loadIfNecessary();
+    Entry<T> entry = entriesByFile.get(file.toAbsolutePath().toString());
+    if (entry == null || !entry.matches(attributes)) {
+      return Optional.empty();
+    }
+    return Optional.of(entry.value());
+  }
+
+  protected synchronized void putValue(Path file, BasicFileAttributes attributes, T value) {
+    loadIfNecessary();
+    String key = file.toAbsolutePath().toString();
+    entriesByFile.put(key, Entry.of(key, attributes, value));
+    changed = true;
+  }
+
+  public synchronized void invalidate(Path file) {
+    loadIfNecessary();
+    changed |= entriesByFile.remove(file.toAbsolutePath().toString()) != null;
+  }
+
+  /**
+   * Drops the entries of all files that are not retained and writes the cache if anything changed.
+   */
+  protected synchronized void save(Predicate<Path> retainedFiles) {
+    loadIfNecessary();
+    changed |= entriesByFile.values().removeIf(entry -> !retainedFiles.test(Path.of(entry.file())));
+    if (!changed) {
+      return;
+    }
+
+    Path cacheFile = getCacheFile();
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      Path temporaryCacheFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(),
+                                                     ".tmp");
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryCacheFile))) {
+        objectMapper.writeValue(outputStream, new CacheFile<>(version, List.copyOf(entriesByFile.values())));
+      }
+      Files.move(temporaryCacheFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      changed = false;
+    } catch (IOException e) {
+      log.warn("Could not write cache to `{}`", cacheFile, e);
+    }
+  }
+
+  private void loadIfNecessary() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+
+    Path cacheFile = getCacheFile();
+    if (Files.notExists(cacheFile)) {
+      return;
+    }
+
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(cacheFile))) {
+      CacheFile<T> cache = objectMapper.readValue(inputStream, cacheFileType);
+      if (cache.version() != version) {
+        log.info("Cache `{}` has outdated version {}, discarding it", cacheFile, cache.version());
+        return;
+      }
+      cache.entries().forEach(entry -> entriesByFile.put(entry.file(), entry));
+      log.debug("Loaded {} entries from cache `{}`", entriesByFile.size(), cacheFile);
+    } catch (IOException e) {
+      log.warn("Could not read cache `{}`, discarding it", cacheFile, e);
+      entriesByFile.clear();
+    }
+  }
+
+  record CacheFile<T>(int version, List<Entry<T>> entries) {
+
+    CacheFile {
+      entries = entries == null ? List.of() : entries;
+    }
+  }
+
+  record Entry<T>(String file, long fileSize, long lastModifiedNanos, String fileKey, T value) {
+
+    static <T> Entry<T> of(String file, BasicFileAttributes attributes, T value) {
+      return new Entry<>(file, attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                         fileKey(attributes), value);
+    }
+
+    boolean matches(BasicFileAttributes attributes) {
+      return fileSize == attributes.size()
+          && lastModifiedNanos == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+          && Objects.equals(fileKey, fileKey(attributes));
+    }
+
+    private static String fileKey(BasicFileAttributes attributes) {
+      Object fileKey = attributes.fileKey();
+      return fileKey == null ? null : fileKey.toString();
+    }
+  }
+}
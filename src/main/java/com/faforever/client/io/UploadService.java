@@ -0,0 +1,99 @@
+package com.faforever.client.io;
+
+import com.faforever.client.api.FafApiAccessor;
+import com.faforever.commons.io.ByteCountListener;
+import com.google.common.io.CountingOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads folders as zip archives without writing the archive to disk. The folder is zipped on a separate thread into
+ * a bounded pipe from which the request body is sent, so compressing and sending happen at the same time and the
+ * zipper is held back while the connection is slower than the compression.
+ */
+@Service
+@Lazy
+@Slf4j
+@RequiredArgsConstructor
+public class UploadService {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final FafApiAccessor fafApiAccessor;
+  private final ExecutorService taskExecutor;
+
+  /**
+   * Zips the folder and uploads it to the endpoint. The listener is called with the number of bytes sent and the
+   * expected size of the archive, which is extrapolated from the compression ratio so far until the archive is
+   * complete, or {@code -1} if nothing has been compressed yet. Every subscription to the content, e.g. when the
+   * upload is retried, zips the folder again and reports its progress from the start.
+   */
+  public Mono<Void> uploadFolder(String endpoint, Path folder, ByteCountListener listener,
+                                 Map<String, Map<String, ?>> params) {
+    Flux<DataBuffer> content = Flux.defer(() -> zipFolder(endpoint, folder, listener));
+    return fafApiAccessor.uploadFile(endpoint, folder.getFileName() + ".zip", content, params);
+  }
+
+  private Flux<DataBuffer> zipFolder(String endpoint, Path folder, ByteCountListener listener) {
+    UploadProgress progress = new UploadProgress();
+    Flux<DataBuffer> content = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+      CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+      try {
+        log.debug("Zipping and uploading `{}` to `{}`", folder, endpoint);
+        new ParallelZipper(folder, taskExecutor).zip(countingOutputStream,
+            (written, total) -> progress.zipped(written, total, countingOutputStream.getCount()));
+        progress.complete(countingOutputStream.getCount());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, DefaultDataBufferFactory.sharedInstance, taskExecutor, CHUNK_SIZE));
+
+    AtomicLong bytesSent = new AtomicLong();
+    return content.doOnNext(dataBuffer -> {
+      long sent = bytesSent.addAndGet(dataBuffer.readableByteCount());
+      listener.updateBytesProcessed(sent, progress.estimateTotalBytes(sent));
+    });
+  }
+
+  private static class UploadProgress {
+    private volatile long uncompressedTotal = -1;
+    private volatile long uncompressedBytes;
+    private volatile long compressedBytes;
+    private volatile long archiveSize = -1;
+
+    void zipped(long uncompressedBytes, long uncompressedTotal, long compressedBytes) {
+      this.uncompressedTotal = uncompressedTotal;
+      this.uncompressedBytes = uncompressedBytes;
+      this.compressedBytes = compressedBytes;
+    }
+
+    void complete(long archiveSize) {
+      this.archiveSize = archiveSize;
+    }
+
+    long estimateTotalBytes(long bytesSent) {
+      if (archiveSize >= 0) {
+        return archiveSize;
+      }
+      if (uncompressedBytes <= 0 || compressedBytes <= 0) {
+        return -1;
+      }
+      double compressionRatio = (double) compressedBytes / uncompressedBytes;
+      return Math.max(bytesSent, (long) (uncompressedTotal * compressionRatio));
+    }
+  }
+}
@@ -230,7 +230,6 @@ public class LeaderboardService {
                          .cache();
   }
 
-  @Cacheable(value = CacheNames.DIVISIONS, sync = true)
   public Image loadDivisionImage(URL url) {
     return assetService.loadAndCacheImage(url, Path.of("divisions"));
   }
@@ -1,6 +1,8 @@
 package com.faforever.client.map;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.commons.io.Unzipper;
@@ -12,8 +14,9 @@ import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -22,17 +25,22 @@ import java.util.Objects;
 public class DownloadMapTask extends CompletableTask<Void> {
 
   private final I18n i18n;
+  private final DataPrefs dataPrefs;
   private final ForgedAlliancePrefs forgedAlliancePrefs;
+  private final DownloadService downloadService;
 
   private URL mapUrl;
   private String folderName;
 
   @Autowired
-  public DownloadMapTask(I18n i18n, ForgedAlliancePrefs forgedAlliancePrefs) {
+  public DownloadMapTask(I18n i18n, DataPrefs dataPrefs, ForgedAlliancePrefs forgedAlliancePrefs,
+                         DownloadService downloadService) {
     super(Priority.HIGH);
 
     this.forgedAlliancePrefs = forgedAlliancePrefs;
     this.i18n = i18n;
+    this.dataPrefs = dataPrefs;
+    this.downloadService = downloadService;
   }
 
   @Override
@@ -43,19 +51,20 @@ public class DownloadMapTask extends CompletableTask<Void> {
     updateTitle(i18n.get("mapDownloadTask.title", folderName));
     log.info("Downloading map `{}` from `{}`", folderName, mapUrl);
 
-    URLConnection urlConnection = mapUrl.openConnection();
-    int bytesToRead = urlConnection.getContentLength();
-
+    Path archive = dataPrefs.getDownloadCacheDirectory().resolve(folderName + ".zip");
     Path targetDirectory = forgedAlliancePrefs.getMapsDirectory();
 
-    try (InputStream inputStream = urlConnection.getInputStream()) {
-      Unzipper.from(inputStream)
-          .zipBombByteCountThreshold(100_000_000)
-          .to(targetDirectory)
-          .totalBytes(bytesToRead)
-          .listener(this::updateProgress)
-          .unzip();
-    }
+    // The archive is not needed once it has been extracted, and a broken one has to be downloaded again anyway
+    downloadService.downloadTemporaryFile(mapUrl, Map.of(), archive, this::updateProgress, downloadedArchive -> {
+      try (InputStream inputStream = Files.newInputStream(downloadedArchive)) {
+        Unzipper.from(inputStream)
+            .zipBombByteCountThreshold(100_000_000)
+            .to(targetDirectory)
+            .totalBytes(Files.size(downloadedArchive))
+            .listener(this::updateProgress)
+            .unzip();
+      }
+    });
 
     return null;
   }
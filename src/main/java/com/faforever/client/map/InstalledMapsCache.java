@@ -0,0 +1,91 @@
+package com.faforever.client.map;
+
+import com.faforever.client.domain.api.Map;
+import com.faforever.client.domain.api.MapType;
+import com.faforever.client.domain.api.MapVersion;
+import com.faforever.client.io.PersistentFileCache;
+import com.faforever.client.preferences.DataPrefs;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent cache of the maps read from {@code _scenario.lua} files, so installed maps don't need to be interpreted
+ * with LuaJ on every start. Entries are keyed by the path of the scenario file.
+ */
+@Lazy
+@Component
+public class InstalledMapsCache extends PersistentFileCache<InstalledMapsCache.CachedMap> {
+
+  /**
+   * Increase whenever the format of {@link CachedMap} changes, so old caches get discarded.
+   */
+  private static final int CACHE_VERSION = 2;
+
+  private final DataPrefs dataPrefs;
+
+  public InstalledMapsCache(DataPrefs dataPrefs) {
+    super(CACHE_VERSION, CachedMap.class);
+    this.dataPrefs = dataPrefs;
+  }
+
+  @Override
+  protected Path getCacheFile() {
+    return dataPrefs.getInstalledMapsCacheFile();
+  }
+
+  /**
+   * Returns the cached map of the specified scenario file, unless the file changed since it has been cached.
+   */
+  public Optional<MapVersion> get(Path scenarioFile, BasicFileAttributes attributes) {
+    return getValue(scenarioFile, attributes).map(CachedMap::toMapVersion);
+  }
+
+  /**
+   * Caches the map read from the specified scenario file. The cache is only written by {@link #save(Collection)}.
+   */
+  public void put(Path scenarioFile, BasicFileAttributes attributes, MapVersion mapVersion) {
+    putValue(scenarioFile, attributes, CachedMap.of(mapVersion));
+  }
+
+  /**
+   * Drops the entries of all map folders but the specified ones and writes the cache if anything changed.
+   */
+  public void save(Collection<Path> mapFolders) {
+    Set<Path> retainedMapFolders = mapFolders.stream().map(Path::toAbsolutePath).collect(Collectors.toSet());
+    save(scenarioFile -> retainedMapFolders.contains(scenarioFile.getParent()));
+  }
+
+  record CachedMap(
+      String folderName,
+      String displayName,
+      MapType mapType,
+      String description,
+      int maxPlayers,
+      int widthInPixels,
+      int heightInPixels,
+      String version
+  ) {
+
+    static CachedMap of(MapVersion mapVersion) {
+      return new CachedMap(mapVersion.folderName(), mapVersion.map().displayName(), mapVersion.map().mapType(),
+                           mapVersion.description(), mapVersion.maxPlayers(), mapVersion.size().widthInPixels(),
+                           mapVersion.size().heightInPixels(),
+                           mapVersion.version() == null ? null : mapVersion.version().toString());
+    }
+
+    MapVersion toMapVersion() {
+      Map map = new Map(null, displayName, 0, null, false, mapType, null);
+      return new MapVersion(null, folderName, 0, description, maxPlayers, new MapSize(widthInPixels, heightInPixels),
+                            version == null ? null : new ComparableVersion(version), false, false, null, null, null,
+                            map, null);
+    }
+  }
+}
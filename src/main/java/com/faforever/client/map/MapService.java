@@ -27,6 +27,7 @@ import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.theme.ThemeService;
+import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.FileSizeReader;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.faforever.client.vault.search.SearchController.SortConfig;
@@ -63,31 +64,33 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.retry.Retry;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.faforever.client.util.LuaUtil.loadFile;
+import static com.faforever.client.util.LuaUtil.loadData;
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
 import static com.google.common.net.UrlEscapers.urlFragmentEscaper;
 import static java.lang.String.format;
@@ -104,7 +107,22 @@ import static java.util.stream.Collectors.toCollection;
 public class MapService implements InitializingBean, DisposableBean {
 
   public static final String DEBUG = "debug";
+  /**
+   * Number of maps read during startup that are added to the installed maps at once.
+   */
+  private static final int INSTALLED_MAPS_BATCH_SIZE = 100;
+  /**
+   * Number of matchmaker maps that are downloaded at the same time.
+   */
+  private static final int MATCHMAKER_MAP_DOWNLOAD_CONCURRENCY = 3;
   private static final String MAP_VERSION_REGEX = ".*[.v](\\d{4})$"; // Matches to an string like 'adaptive_twin_rivers.v0031'
+  private static final Set<String> OFFICIAL_MAPS = Set.of(
+      "SCMP_001", "SCMP_002", "SCMP_003", "SCMP_004", "SCMP_005", "SCMP_006", "SCMP_007", "SCMP_008", "SCMP_009", "SCMP_010",
+      "SCMP_011", "SCMP_012", "SCMP_013", "SCMP_014", "SCMP_015", "SCMP_016", "SCMP_017", "SCMP_018", "SCMP_019", "SCMP_020",
+      "SCMP_021", "SCMP_022", "SCMP_023", "SCMP_024", "SCMP_025", "SCMP_026", "SCMP_027", "SCMP_028", "SCMP_029", "SCMP_030",
+      "SCMP_031", "SCMP_032", "SCMP_033", "SCMP_034", "SCMP_035", "SCMP_036", "SCMP_037", "SCMP_038", "SCMP_039", "SCMP_040",
+      "X1MP_001", "X1MP_002", "X1MP_003", "X1MP_004", "X1MP_005", "X1MP_006", "X1MP_007", "X1MP_008", "X1MP_009", "X1MP_010",
+      "X1MP_011", "X1MP_012", "X1MP_014", "X1MP_017");
 
   private final NotificationService notificationService;
   private final TaskService taskService;
@@ -124,6 +142,7 @@ public class MapService implements InitializingBean, DisposableBean {
   private final ObjectFactory<DownloadMapTask> downloadMapTaskFactory;
   private final ObjectFactory<UninstallMapTask> uninstallMapTaskFactory;
   private final FxApplicationThreadExecutor fxApplicationThreadExecutor;
+  private final InstalledMapsCache installedMapsCache;
 
   private final ObservableMap<String, MapVersion> mapsByFolderName = FXCollections.observableHashMap();
   @Getter
@@ -132,15 +151,21 @@ public class MapService implements InitializingBean, DisposableBean {
   private final InvalidationListener mapsDirectoryInvalidationListener = observable -> tryLoadMaps();
   private String mapDownloadUrlFormat;
   private String mapPreviewUrlFormat;
-  @VisibleForTesting
-  Set<String> officialMaps = Set.of("SCMP_001", "SCMP_002", "SCMP_003", "SCMP_004", "SCMP_005", "SCMP_006", "SCMP_007",
-                                    "SCMP_008", "SCMP_009", "SCMP_010", "SCMP_011", "SCMP_012", "SCMP_013", "SCMP_014",
-                                    "SCMP_015", "SCMP_016", "SCMP_017", "SCMP_018", "SCMP_019", "SCMP_020", "SCMP_021",
-                                    "SCMP_022", "SCMP_023", "SCMP_024", "SCMP_025", "SCMP_026", "SCMP_027", "SCMP_028",
-                                    "SCMP_029", "SCMP_030", "SCMP_031", "SCMP_032", "SCMP_033", "SCMP_034", "SCMP_035",
-                                    "SCMP_036", "SCMP_037", "SCMP_038", "SCMP_039", "SCMP_040", "X1MP_001", "X1MP_002",
-                                    "X1MP_003", "X1MP_004", "X1MP_005", "X1MP_006", "X1MP_007", "X1MP_008", "X1MP_009",
-                                    "X1MP_010", "X1MP_011", "X1MP_012", "X1MP_014", "X1MP_017");
+  private Set<String> officialMaps = OFFICIAL_MAPS;
+  /**
+   * Official map folder names by their lower case name.
+   */
+  private java.util.Map<String, String> officialMapsByLowerCaseName = indexByLowerCaseName(OFFICIAL_MAPS);
+  /**
+   * Paths of the entries of the custom maps directory by their lower case name, kept up to date by the directory
+   * watcher.
+   */
+  private final java.util.Map<String, Path> customMapPathsByLowerCaseName = new ConcurrentHashMap<>();
+  /**
+   * Paths of the official map folders in the installation directory by their lower case name, as their case may differ
+   * from the known official map names.
+   */
+  private final java.util.Map<String, Path> officialMapPathsByLowerCaseName = new ConcurrentHashMap<>();
   private Thread directoryWatcherThread;
 
   private static URL getDownloadUrl(String mapName, String baseUrl) throws MalformedURLException {
@@ -153,6 +178,16 @@ public class MapService implements InitializingBean, DisposableBean {
         format(baseUrl, previewSize.folderName, urlFragmentEscaper().escape(mapName).toLowerCase(Locale.US)));
   }
 
+  private static java.util.Map<String, String> indexByLowerCaseName(Set<String> names) {
+    return names.stream().collect(Collectors.toUnmodifiableMap(name -> name.toLowerCase(Locale.ROOT), name -> name));
+  }
+
+  @VisibleForTesting
+  void setOfficialMaps(Set<String> officialMaps) {
+    this.officialMaps = officialMaps;
+    this.officialMapsByLowerCaseName = indexByLowerCaseName(officialMaps);
+  }
+
   @Override
   public void afterPropertiesSet() {
     Vault vault = clientProperties.getVault();
@@ -184,6 +219,8 @@ public class MapService implements InitializingBean, DisposableBean {
     }
 
     mapsByFolderName.clear();
+    customMapPathsByLowerCaseName.clear();
+    officialMapPathsByLowerCaseName.clear();
     loadInstalledMaps();
   }
 
@@ -199,8 +236,10 @@ public class MapService implements InitializingBean, DisposableBean {
              .forEach(event -> {
                Path mapPath = mapsDirectory.resolve((Path) event.context());
                if (event.kind() == ENTRY_DELETE) {
+                 customMapPathsByLowerCaseName.remove(getLowerCaseName(mapPath), mapPath);
                  removeMap(mapPath);
                } else if (event.kind() == ENTRY_CREATE) {
+                 customMapPathsByLowerCaseName.put(getLowerCaseName(mapPath), mapPath);
                  Mono.just(mapPath)
                      .filter(Files::exists)
                      .doOnNext(this::addInstalledMap)
@@ -225,27 +264,29 @@ public class MapService implements InitializingBean, DisposableBean {
     taskService.submitTask(new CompletableTask<Void>(Priority.LOW) {
 
       @Override
-      protected Void call() {
+      protected Void call() throws InterruptedException {
         updateTitle(i18n.get("mapVault.loadingMaps"));
         Path officialMapsPath = forgedAlliancePrefs.getInstallationPath().resolve("maps");
+        indexOfficialMaps(officialMapsPath);
         try (Stream<Path> customMapsDirectoryStream = list(forgedAlliancePrefs.getMapsDirectory())) {
           List<Path> mapPaths = new ArrayList<>();
           customMapsDirectoryStream.collect(toCollection(() -> mapPaths));
-          officialMaps.stream().map(officialMapsPath::resolve).collect(toCollection(() -> mapPaths));
-
-          long totalMaps = mapPaths.size();
-          long mapsRead = 0;
-          for (Path mapPath : mapPaths) {
-            if (mapPath.getFileName().toString().equals(DEBUG)) {
-              continue;
-            }
-            updateProgress(++mapsRead, totalMaps);
+          mapPaths.forEach(mapPath -> customMapPathsByLowerCaseName.putIfAbsent(getLowerCaseName(mapPath), mapPath));
+          mapPaths.removeIf(mapPath -> mapPath.getFileName().toString().equals(DEBUG));
+          officialMaps.stream()
+                      .map(officialMap -> officialMapPathsByLowerCaseName.getOrDefault(
+                          officialMap.toLowerCase(Locale.ROOT), officialMapsPath.resolve(officialMap)))
+                      .collect(toCollection(() -> mapPaths));
+
+          ConcurrentUtil.processInParallel(mapPaths, mapPath -> {
             try {
-              addInstalledMap(mapPath);
+              return readMap(mapPath);
             } catch (MapLoadException exception) {
               log.error("Map could not be read: `{}`", mapPath, exception);
+              return null;
             }
-          }
+          }, INSTALLED_MAPS_BATCH_SIZE, MapService.this::addInstalledMaps, this::updateProgress);
+          installedMapsCache.save(mapPaths);
         } catch (IOException e) {
           log.error("Maps could not be read from: `{}`", forgedAlliancePrefs.getMapsDirectory(), e);
         }
@@ -254,8 +295,31 @@ public class MapService implements InitializingBean, DisposableBean {
     });
   }
 
+  private void indexOfficialMaps(Path officialMapsPath) {
+    if (!Files.isDirectory(officialMapsPath)) {
+      return;
+    }
+    try (Stream<Path> officialMapsDirectoryStream = list(officialMapsPath)) {
+      officialMapsDirectoryStream.filter(mapPath -> officialMapsByLowerCaseName.containsKey(getLowerCaseName(mapPath)))
+                                 .forEach(mapPath -> officialMapPathsByLowerCaseName.putIfAbsent(
+                                     getLowerCaseName(mapPath), mapPath));
+    } catch (IOException e) {
+      log.warn("Official maps could not be listed in: `{}`", officialMapsPath, e);
+    }
+  }
+
+  private static String getLowerCaseName(Path mapFolder) {
+    return mapFolder.getFileName().toString().toLowerCase(Locale.ROOT);
+  }
+
   private void removeMap(Path mapFolder) {
-    mapsByFolderName.remove(mapFolder.getFileName().toString().toLowerCase(Locale.ROOT));
+    mapsByFolderName.remove(getLowerCaseName(mapFolder));
+  }
+
+  private void addInstalledMaps(List<MapVersion> mapVersions) {
+    fxApplicationThreadExecutor.execute(() -> mapVersions.forEach(
+        mapVersion -> mapsByFolderName.putIfAbsent(mapVersion.folderName().toLowerCase(Locale.ROOT), mapVersion)));
+    log.debug("Added {} installed maps", mapVersions.size());
   }
 
   private void addInstalledMap(Path mapFolder) throws MapLoadException {
@@ -282,7 +346,13 @@ public class MapService implements InitializingBean, DisposableBean {
                                                      "Map folder does not contain a *_scenario.lua: " + mapFolder.toAbsolutePath(),
                                                      null, "map.load.noScenario", mapFolder.toAbsolutePath()));
 
-      LuaValue luaRoot = loadFile(scenarioLuaPath);
+      BasicFileAttributes scenarioLuaAttributes = Files.readAttributes(scenarioLuaPath, BasicFileAttributes.class);
+      Optional<MapVersion> cachedMapVersion = installedMapsCache.get(scenarioLuaPath, scenarioLuaAttributes);
+      if (cachedMapVersion.isPresent()) {
+        return cachedMapVersion.get();
+      }
+
+      LuaValue luaRoot = loadData(scenarioLuaPath);
       LuaValue scenarioInfo = luaRoot.get("ScenarioInfo");
       LuaValue size = scenarioInfo.get("size");
 
@@ -299,8 +369,10 @@ public class MapService implements InitializingBean, DisposableBean {
         comparableVersion = new ComparableVersion(version.toString());
       }
 
-      return new MapVersion(null, folderName, 0, description, maxPlayers, mapSize, comparableVersion, false, false,
-                            null, null, null, map, null);
+      MapVersion mapVersion = new MapVersion(null, folderName, 0, description, maxPlayers, mapSize, comparableVersion,
+                                             false, false, null, null, null, map, null);
+      installedMapsCache.put(scenarioLuaPath, scenarioLuaAttributes, mapVersion);
+      return mapVersion;
     } catch (IOException e) {
       throw new MapLoadException("Could not load map due to IO error" + mapFolder.toAbsolutePath(), e,
                                  "map.load.ioError", mapFolder.toAbsolutePath());
@@ -310,7 +382,6 @@ public class MapService implements InitializingBean, DisposableBean {
     }
   }
 
-  @Cacheable(value = CacheNames.MAP_PREVIEW, unless = "#result.equals(@mapService.getGeneratedMapPreviewImage())")
   public Image loadPreview(String mapName, PreviewSize previewSize) {
     if (mapGeneratorService.isGeneratedMap(mapName)) {
       return getGeneratedMapPreview(mapName);
@@ -327,9 +398,9 @@ public class MapService implements InitializingBean, DisposableBean {
   private Image getGeneratedMapPreview(String mapName) {
     Path previewPath = forgedAlliancePrefs.getMapsDirectory().resolve(mapName).resolve(mapName + "_preview.png");
     if (Files.exists(previewPath)) {
-      try (InputStream inputStream = Files.newInputStream(previewPath)) {
-        return new Image(inputStream);
-      } catch (IOException e) {
+      try {
+        return assetService.loadImage(previewPath.toUri().toURL(), 0, 0);
+      } catch (MalformedURLException e) {
         log.warn("Could not load image from {}", previewPath, e);
       }
     }
@@ -347,7 +418,7 @@ public class MapService implements InitializingBean, DisposableBean {
   }
 
   public boolean isOfficialMap(String mapName) {
-    return officialMaps.stream().anyMatch(name -> name.equalsIgnoreCase(mapName));
+    return mapName != null && officialMapsByLowerCaseName.containsKey(mapName.toLowerCase(Locale.ROOT));
   }
 
   public boolean isOfficialMap(MapVersion mapVersion) {
@@ -410,8 +481,6 @@ public class MapService implements InitializingBean, DisposableBean {
   /**
    * Loads the preview of a map or returns a "unknown map" image.
    */
-
-  @Cacheable(value = CacheNames.MAP_PREVIEW, unless = "#result.equals(@mapService.getGeneratedMapPreviewImage())")
   public Image loadPreview(MapVersion mapVersion, PreviewSize previewSize) {
     URL url = switch (previewSize) {
       case SMALL -> mapVersion.thumbnailUrlSmall();
@@ -445,23 +514,34 @@ public class MapService implements InitializingBean, DisposableBean {
     return getPathForMapCaseInsensitive(mapVersion.folderName());
   }
 
-  private Path getMapsDirectory(String technicalName) {
-    if (isOfficialMap(technicalName)) {
-      return forgedAlliancePrefs.getInstallationPath().resolve("maps");
+  /**
+   * Returns the folder of the specified map, whose name may differ in case from the actual folder, or {@code null} if
+   * the map doesn't exist. Maps are looked up in the index of the official or custom maps directory, with a check for
+   * an exactly matching folder in case it hasn't been indexed yet.
+   */
+  public Path getPathForMapCaseInsensitive(String approxName) {
+    String lowerCaseName = approxName.toLowerCase(Locale.ROOT);
+    String officialMapName = officialMapsByLowerCaseName.get(lowerCaseName);
+    if (officialMapName != null) {
+      return getIndexedMapPath(officialMapPathsByLowerCaseName, lowerCaseName,
+                               forgedAlliancePrefs.getInstallationPath().resolve("maps").resolve(officialMapName));
     }
-    return forgedAlliancePrefs.getMapsDirectory();
+    return getIndexedMapPath(customMapPathsByLowerCaseName, lowerCaseName,
+                             forgedAlliancePrefs.getMapsDirectory().resolve(approxName));
   }
 
-  public Path getPathForMapCaseInsensitive(String approxName) {
-    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(getMapsDirectory(approxName))) {
-      for (Path entry : directoryStream) {
-        if (entry.getFileName().toString().equalsIgnoreCase(approxName)) {
-          return entry;
-        }
-      }
-    } catch (IOException e) {
-      throw new AssetLoadException("Could not open maps directory", e, "map.directory.couldNotOpen");
+  private static Path getIndexedMapPath(java.util.Map<String, Path> mapPathsByLowerCaseName, String lowerCaseName,
+                                        Path exactMapPath) {
+    Path mapPath = mapPathsByLowerCaseName.get(lowerCaseName);
+    if (mapPath != null && Files.exists(mapPath)) {
+      return mapPath;
     }
+
+    if (Files.exists(exactMapPath)) {
+      mapPathsByLowerCaseName.put(lowerCaseName, exactMapPath);
+      return exactMapPath;
+    }
+    mapPathsByLowerCaseName.remove(lowerCaseName, mapPath);
     return null;
   }
 
@@ -605,23 +685,34 @@ public class MapService implements InitializingBean, DisposableBean {
 
   }
 
-  public Mono<Void> downloadAllMatchmakerMaps(MatchmakerQueueInfo matchmakerQueue) {
-    ElideNavigatorOnCollection<MapPoolAssignment> navigator = ElideNavigator.of(MapPoolAssignment.class)
-                                                                            .collection()
-                                                                            .setFilter(qBuilder().intNum(
-                                                                                                     "mapPool.matchmakerQueueMapPool.matchmakerQueue.id")
-                                                                                                 .eq(matchmakerQueue.getId()));
-    return fafApiAccessor.getMany(navigator).map(mapMapper::mapFromPoolAssignment)
-                         .distinct()
-                         .filter(mapVersion -> !mapGeneratorService.isGeneratedMap(mapVersion.folderName()))
-                         .flatMap(
-                             mapVersion -> downloadAndInstallMap(mapVersion, null, null).onErrorResume(throwable -> {
-                               log.warn("Unable to download map `{}`", mapVersion.folderName(), throwable);
-                               notificationService.addPersistentErrorNotification("map.download.error",
-                                                                                  mapVersion.folderName());
-                               return Mono.empty();
-                             }))
-                         .then();
+  /**
+   * Downloads the specified matchmaker maps unless they are installed already, at most
+   * {@link #MATCHMAKER_MAP_DOWNLOAD_CONCURRENCY} at a time and in the specified order. Maps that can't be downloaded are
+   * reported and skipped.
+   */
+  public Mono<Void> downloadMatchmakerMaps(Collection<MapVersion> mapVersions) {
+    return downloadMatchmakerMaps(mapVersions, true);
+  }
+
+  /**
+   * Like {@link #downloadMatchmakerMaps(Collection)}, but maps that can't be downloaded are only logged, as the player
+   * didn't ask for them and they are downloaded again the next time the queue is joined.
+   */
+  public Mono<Void> prefetchMatchmakerMaps(Collection<MapVersion> mapVersions) {
+    return downloadMatchmakerMaps(mapVersions, false);
+  }
+
+  private Mono<Void> downloadMatchmakerMaps(Collection<MapVersion> mapVersions, boolean notifyOnError) {
+    return Flux.fromIterable(mapVersions)
+               .filter(mapVersion -> !mapGeneratorService.isGeneratedMap(mapVersion.folderName()))
+               .flatMap(mapVersion -> downloadAndInstallMap(mapVersion, null, null).onErrorResume(throwable -> {
+                 log.warn("Unable to download map `{}`", mapVersion.folderName(), throwable);
+                 if (notifyOnError) {
+                   notificationService.addPersistentErrorNotification("map.download.error", mapVersion.folderName());
+                 }
+                 return Mono.empty();
+               }), MATCHMAKER_MAP_DOWNLOAD_CONCURRENCY)
+               .then();
   }
 
   @Cacheable(value = CacheNames.MATCHMAKER_POOLS, sync = true)
@@ -3,6 +3,8 @@ package com.faforever.client.mapstruct;
 import com.faforever.client.domain.api.Mod;
 import com.faforever.client.domain.api.ModType;
 import com.faforever.client.domain.api.ModVersion;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.luaj.vm2.LuaValue;
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -24,6 +26,18 @@ public interface ModMapper {
     return isUIOnly ? ModType.UI : ModType.SIM;
   }
 
+  /**
+   * Maps the globals of a {@code mod_info.lua} as read by {@link com.faforever.client.util.LuaDataParser}.
+   */
+  default ModVersion mapModInfo(LuaValue modInfo) {
+    LuaValue version = modInfo.get("version");
+    Mod mod = new Mod(null, modInfo.get("name").optjstring(null), false, modInfo.get("author").optjstring(null), null,
+                      null);
+    return new ModVersion(null, modInfo.get("uid").optjstring(null), modInfo.get("description").optjstring(null),
+                          version.isnil() ? null : new ComparableVersion(version.tojstring()), null, null,
+                          mapModType(modInfo.get("ui_only").optboolean(false)), false, false, mod, null, null);
+  }
+
   default Path mapImagePath(com.faforever.commons.mod.Mod modInfo, Path basePath) {
     return Optional.ofNullable(modInfo.getIcon())
                    .map(Paths::get)
@@ -7,6 +7,7 @@ import com.faforever.client.domain.api.LeagueScoreJournal;
 import com.faforever.client.domain.api.MapVersion;
 import com.faforever.client.domain.api.Replay;
 import com.faforever.client.domain.server.PlayerInfo;
+import com.faforever.client.replay.LocalReplayIndexEntry;
 import com.faforever.commons.api.dto.Faction;
 import com.faforever.commons.api.dto.Game;
 import com.faforever.commons.replay.ChatMessage;
@@ -31,6 +32,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.faforever.client.util.TimeUtil.fromPythonTime;
@@ -101,6 +103,49 @@ public interface ReplayMapper {
   @Mapping(target = "host", ignore = true)
   Replay map(ReplayDataParser parser, Path replayFile, FeaturedMod featuredMod, MapVersion mapVersion);
 
+  default Replay map(LocalReplayIndexEntry indexEntry, Path replayFile, FeaturedMod featuredMod,
+                     MapVersion mapVersion) {
+    Map<String, List<String>> teams = new HashMap<>();
+    Map<String, List<GamePlayerStats>> teamPlayerStats = new HashMap<>();
+    indexEntry.players().forEach(indexedPlayer -> {
+      String teamString = String.valueOf(indexedPlayer.team());
+      PlayerInfo player = new PlayerInfo();
+      player.setId(indexedPlayer.id());
+      player.setUsername(indexedPlayer.name());
+      player.setCountry(indexedPlayer.country());
+      LeaderboardRatingJournal ratingJournal = new LeaderboardRatingJournal(null, null, null, indexedPlayer.mean(),
+                                                                            indexedPlayer.deviation(), null, null);
+      GamePlayerStats stats = new GamePlayerStats(false, Faction.fromFaValue(indexedPlayer.faction()), (byte) 0,
+                                                  indexedPlayer.team(), (byte) 0, (byte) 0, null, null, player,
+                                                  List.of(ratingJournal));
+      teams.computeIfAbsent(teamString, key -> new ArrayList<>()).add(indexedPlayer.name());
+      teamPlayerStats.computeIfAbsent(teamString, key -> new ArrayList<>()).add(stats);
+    });
+
+    return new Replay(indexEntry.uid(), indexEntry.title(), true, teams, teamPlayerStats, null,
+                      fromPythonTime(indexEntry.startTime()), fromPythonTime(indexEntry.endTime()), featuredMod,
+                      mapVersion, replayFile, null, null, null, null, null, null, true);
+  }
+
+  default LocalReplayIndexEntry mapToIndexEntry(ReplayMetadata metadata, Collection<? extends Map<String, ?>> armies,
+                                                String fileName, long fileSize, long lastModified) {
+    List<LocalReplayIndexEntry.Player> players = armies.stream()
+                                                       .filter(armyInfo -> !((boolean) armyInfo.get("Human")))
+                                                       .map(armyInfo -> new LocalReplayIndexEntry.Player(
+                                                           Integer.parseInt((String) armyInfo.get("OwnerID")),
+                                                           (String) armyInfo.get("PlayerName"),
+                                                           (String) armyInfo.get("Country"),
+                                                           ((Float) armyInfo.get("Team")).byteValue(),
+                                                           ((Float) armyInfo.get("Faction")).intValue(),
+                                                           ((Float) armyInfo.get("MEAN")).doubleValue(),
+                                                           ((Float) armyInfo.get("DEV")).doubleValue()))
+                                                       .toList();
+    double startTime = metadata.getGameTime() > 0 ? metadata.getGameTime() : metadata.getLaunchedAt();
+    return new LocalReplayIndexEntry(fileName, fileSize, lastModified, metadata.getUid(), metadata.getTitle(),
+                                     metadata.getMapname(), metadata.getFeaturedMod(), startTime,
+                                     metadata.getGameEnd(), players, Set.of());
+  }
+
   Replay.ChatMessage map(ChatMessage chatMessage);
 
   @Mapping(target = "value", expression = "java(gameOption.getValue().toString())")
@@ -1,11 +1,10 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
 import com.faforever.commons.io.Unzipper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -17,14 +16,16 @@ import org.springframework.util.FileSystemUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static com.faforever.client.task.CompletableTask.Priority.HIGH;
 
@@ -33,101 +34,110 @@ import static com.faforever.client.task.CompletableTask.Priority.HIGH;
 @Slf4j
 public class DownloadModTask extends CompletableTask<Void> {
 
+  /**
+   * Directory within the mods directory that mods are extracted to before they are moved into place.
+   */
+  static final String STAGING_DIRECTORY_NAME = ".staging";
+
   private final I18n i18n;
   private final DataPrefs dataPrefs;
   private final ForgedAlliancePrefs forgedAlliancePrefs;
+  private final DownloadService downloadService;
 
   private URL url;
 
   @Autowired
-  public DownloadModTask(I18n i18n, DataPrefs dataPrefs, ForgedAlliancePrefs forgedAlliancePrefs) {
+  public DownloadModTask(I18n i18n, DataPrefs dataPrefs, ForgedAlliancePrefs forgedAlliancePrefs,
+                         DownloadService downloadService) {
     super(HIGH);
 
     this.i18n = i18n;
     this.dataPrefs = dataPrefs;
     this.forgedAlliancePrefs = forgedAlliancePrefs;
+    this.downloadService = downloadService;
   }
 
   @Override
   protected Void call() throws Exception {
     Objects.requireNonNull(url, "url has not been set");
 
-    Path tempFile = Files.createTempFile(dataPrefs.getCacheDirectory(), "mod", null);
+    String fileName = url.getPath().substring(url.getPath().lastIndexOf('/') + 1);
+    Path archive = dataPrefs.getDownloadCacheDirectory().resolve(fileName);
 
-    log.info("Downloading mod from `{}` to `{}`", url, tempFile);
+    log.info("Downloading mod from `{}` to `{}`", url, archive);
     updateTitle(i18n.get("downloadingModTask.downloading", url));
 
-    Files.createDirectories(tempFile.getParent());
-
-    URLConnection urlConnection = url.openConnection();
-    int contentLength = urlConnection.getContentLength();
-
-    ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = urlConnection.getInputStream();
-         OutputStream outputStream = Files.newOutputStream(tempFile)) {
-
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .listener(this::updateProgress)
-          .totalBytes(contentLength)
-          .copy();
-
-      extractMod(tempFile);
-    } finally {
-      ResourceLocks.freeDownloadLock();
-      try {
-        Files.deleteIfExists(tempFile);
-      } catch (IOException e) {
-        log.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
-      }
-    }
+    downloadService.downloadTemporaryFile(url, Map.of(), archive, this::updateProgress, this::extractMod);
     return null;
   }
 
-  private void extractMod(Path tempFile) throws IOException, ArchiveException {
+  /**
+   * Extracts the archive into a staging directory next to the installed mods, then moves the extracted folders into
+   * place. Installed mods are only replaced by renaming directories, so a mod is never left half-extracted and no lock
+   * needs to be held while extracting.
+   */
+  private void extractMod(Path archive) throws IOException, ArchiveException {
     Path modsDirectory = forgedAlliancePrefs.getModsDirectory();
+    Path stagingDirectory = Files.createDirectories(modsDirectory.resolve(STAGING_DIRECTORY_NAME));
+    Path extractionDirectory = Files.createTempDirectory(stagingDirectory, "install");
 
     updateTitle(i18n.get("downloadingModTask.unzipping", modsDirectory));
 
-    deleteOldModIfExisting(tempFile, modsDirectory);
-
-    log.info("Unzipping `{}` to `{}`", tempFile, modsDirectory);
-    try (InputStream inputStream = Files.newInputStream(tempFile)) {
-      ResourceLocks.acquireDiskLock();
-
-      Unzipper.from(inputStream)
-          .to(modsDirectory)
-          .zipBombByteCountThreshold(100_000_000)
-          .listener(this::updateProgress)
-          .totalBytes(Files.size(tempFile))
-          .unzip();
+    log.info("Unzipping `{}` to `{}`", archive, extractionDirectory);
+    try {
+      try (InputStream inputStream = Files.newInputStream(archive)) {
+        Unzipper.from(inputStream)
+            .to(extractionDirectory)
+            .zipBombByteCountThreshold(100_000_000)
+            .listener(this::updateProgress)
+            .totalBytes(Files.size(archive))
+            .unzip();
+      }
 
+      List<Path> extractedFiles;
+      try (Stream<Path> extractedFilesStream = Files.list(extractionDirectory)) {
+        extractedFiles = extractedFilesStream.toList();
+      }
+      for (Path extractedFile : extractedFiles) {
+        install(extractedFile, modsDirectory.resolve(extractedFile.getFileName().toString()), stagingDirectory);
+      }
     } finally {
-      ResourceLocks.freeDiskLock();
+      FileSystemUtils.deleteRecursively(extractionDirectory);
     }
   }
 
-  private void deleteOldModIfExisting(Path tempFile, Path modsDirectory) {
-    try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(tempFile))) {
-      ZipEntry zipEntry = zipInputStream.getNextEntry();
-      Path pathToEntry = Path.of(zipEntry.getName());
-      Path topLevelDirectory = getTopLevelDirectory(pathToEntry);
-      Path modDirectory = modsDirectory.resolve(topLevelDirectory);
-      if (Files.isDirectory(modDirectory)) {
-        log.info("Deleting old mod version in `{}`", modDirectory);
-        FileSystemUtils.deleteRecursively(modDirectory);
+  private void install(Path extractedFile, Path target, Path stagingDirectory) throws IOException {
+    Path oldFile = null;
+    if (Files.exists(target)) {
+      log.info("Replacing old mod version in `{}`", target);
+      oldFile = stagingDirectory.resolve(target.getFileName() + "." + UUID.randomUUID());
+      move(target, oldFile);
+    }
+
+    try {
+      move(extractedFile, target);
+    } catch (IOException e) {
+      if (oldFile != null) {
+        move(oldFile, target);
       }
-    } catch (Exception e) {
-      log.warn("Could not delete directory of old mod", e);
+      throw e;
+    }
+
+    if (oldFile != null) {
+      FileSystemUtils.deleteRecursively(oldFile);
     }
   }
 
-  private Path getTopLevelDirectory(Path pathToEntry) {
-    Path cutOffPath = pathToEntry;
-    while (cutOffPath.getParent() != null) {
-      cutOffPath = cutOffPath.getParent();
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target);
     }
-    return cutOffPath;
+  }
+
+  public URL getUrl() {
+    return url;
   }
 
   public void setUrl(URL url) {
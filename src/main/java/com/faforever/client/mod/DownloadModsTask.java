@@ -0,0 +1,105 @@
+package com.faforever.client.mod;
+
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.task.CompletableTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.faforever.client.task.CompletableTask.Priority.HIGH;
+
+/**
+ * Downloads and installs several mods in parallel, at most {@link #MOD_DOWNLOAD_CONCURRENCY} at a time, and reports
+ * their combined progress. Used to provision the mods of a game, so joining a heavily modded game shows a single task
+ * rather than one per mod.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Slf4j
+public class DownloadModsTask extends CompletableTask<Void> {
+
+  /**
+   * Number of mods that are downloaded at the same time.
+   */
+  static final int MOD_DOWNLOAD_CONCURRENCY = 4;
+
+  private final I18n i18n;
+  private final ObjectFactory<DownloadModTask> downloadModTaskFactory;
+
+  private final Map<DownloadModTask, Double> progressByTask = new ConcurrentHashMap<>();
+  private final Set<DownloadModTask> completedTasks = ConcurrentHashMap.newKeySet();
+  private List<URL> urls;
+
+  @Autowired
+  public DownloadModsTask(I18n i18n, ObjectFactory<DownloadModTask> downloadModTaskFactory) {
+    super(HIGH);
+
+    this.i18n = i18n;
+    this.downloadModTaskFactory = downloadModTaskFactory;
+  }
+
+  @Override
+  protected Void call() throws Exception {
+    Objects.requireNonNull(urls, "urls have not been set");
+
+    log.info("Downloading {} mods", urls.size());
+    updateTitle(i18n.get("downloadingModsTask.downloading", urls.size()));
+
+    List<DownloadModTask> tasks = urls.stream().map(this::createDownloadModTask).toList();
+    Flux.fromIterable(tasks)
+        .flatMap(task -> Mono.fromCallable(task::call)
+                             .subscribeOn(Schedulers.boundedElastic())
+                             .doOnError(throwable -> log.warn("Unable to install mod from `{}`", task.getUrl(),
+                                                              throwable))
+                             .doOnSuccess(ignored -> {
+                               completedTasks.add(task);
+                               updateProgress(task, 1);
+                             }), MOD_DOWNLOAD_CONCURRENCY)
+        .then()
+        .block();
+    return null;
+  }
+
+  private DownloadModTask createDownloadModTask(URL url) {
+    DownloadModTask task = downloadModTaskFactory.getObject();
+    task.setUrl(url);
+    progressByTask.put(task, 0d);
+    // Progress updates are delivered on the application thread and may arrive after the mod has been installed
+    task.progressProperty().addListener((observable, oldValue, newValue) -> {
+      if (!completedTasks.contains(task)) {
+        updateProgress(task, newValue.doubleValue());
+      }
+    });
+    return task;
+  }
+
+  /**
+   * Reports the average progress of all mods. Mods whose progress is still indeterminate count as not started.
+   */
+  private void updateProgress(DownloadModTask task, double progress) {
+    progressByTask.put(task, Math.max(progress, 0));
+    double totalProgress = progressByTask.values().stream().mapToDouble(Double::doubleValue).sum();
+    updateProgress(totalProgress, progressByTask.size());
+  }
+
+  public List<URL> getUrls() {
+    return urls;
+  }
+
+  public void setUrls(List<URL> urls) {
+    this.urls = urls;
+  }
+}
@@ -0,0 +1,105 @@
+package com.faforever.client.mod;
+
+import com.faforever.client.domain.api.Mod;
+import com.faforever.client.domain.api.ModType;
+import com.faforever.client.domain.api.ModVersion;
+import com.faforever.client.io.PersistentFileCache;
+import com.faforever.client.preferences.DataPrefs;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent cache of the mods read from {@code mod_info.lua} files, so installed mods don't need to be interpreted
+ * with LuaJ on every start. Entries are keyed by the path of the mod info file.
+ */
+@Lazy
+@Component
+public class InstalledModsCache extends PersistentFileCache<InstalledModsCache.CachedMod> {
+
+  /**
+   * Increase whenever the format of {@link CachedMod} changes, so old caches get discarded.
+   */
+  private static final int CACHE_VERSION = 2;
+
+  private final DataPrefs dataPrefs;
+
+  public InstalledModsCache(DataPrefs dataPrefs) {
+    super(CACHE_VERSION, CachedMod.class);
+    this.dataPrefs = dataPrefs;
+  }
+
+  @Override
+  protected Path getCacheFile() {
+    return dataPrefs.getInstalledModsCacheFile();
+  }
+
+  /**
+   * Returns the cached mod of the specified mod info file, unless the file changed since it has been cached.
+   */
+  public Optional<ModVersion> get(Path modInfoFile, BasicFileAttributes attributes) {
+    return getValue(modInfoFile, attributes).map(CachedMod::toModVersion);
+  }
+
+  /**
+   * Caches the mod read from the specified mod info file. The cache is only written by {@link #save(Collection)}.
+   */
+  public void put(Path modInfoFile, BasicFileAttributes attributes, ModVersion modVersion) {
+    putValue(modInfoFile, attributes, CachedMod.of(modVersion));
+  }
+
+  /**
+   * Drops the entries of all mod folders but the specified ones and writes the cache if anything changed.
+   */
+  public void save(Collection<Path> modFolders) {
+    Set<Path> retainedModFolders = modFolders.stream().map(Path::toAbsolutePath).collect(Collectors.toSet());
+    save(modInfoFile -> retainedModFolders.contains(modInfoFile.getParent()));
+  }
+
+  record CachedMod(
+      String uid,
+      String displayName,
+      String author,
+      String description,
+      String version,
+      String thumbnailUrl,
+      ModType modType
+  ) {
+
+    static CachedMod of(ModVersion modVersion) {
+      Mod mod = modVersion.mod();
+      return new CachedMod(modVersion.uid(), mod == null ? null : mod.displayName(),
+                           mod == null ? null : mod.author(), modVersion.description(),
+                           modVersion.version() == null ? null : modVersion.version().toString(),
+                           modVersion.thumbnailUrl() == null ? null : modVersion.thumbnailUrl().toExternalForm(),
+                           modVersion.modType());
+    }
+
+    ModVersion toModVersion() {
+      Mod mod = new Mod(null, displayName, false, author, null, null);
+      return new ModVersion(null, uid, description, version == null ? null : new ComparableVersion(version),
+                            toUrl(thumbnailUrl), null, modType, false, false, mod, null, null);
+    }
+
+    private static URL toUrl(String url) {
+      if (url == null) {
+        return null;
+      }
+      try {
+        return URI.create(url).toURL();
+      } catch (MalformedURLException | IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+}
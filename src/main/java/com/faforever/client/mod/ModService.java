@@ -18,7 +18,9 @@ import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.theme.ThemeService;
+import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.FileSizeReader;
+import com.faforever.client.util.LuaDataParser;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
@@ -26,6 +28,7 @@ import com.faforever.commons.api.dto.Mod;
 import com.faforever.commons.api.elide.ElideNavigator;
 import com.faforever.commons.api.elide.ElideNavigatorOnCollection;
 import com.faforever.commons.mod.ModReader;
+import com.google.common.annotations.VisibleForTesting;
 import javafx.beans.InvalidationListener;
 import javafx.beans.WeakInvalidationListener;
 import javafx.beans.binding.Bindings;
@@ -42,17 +45,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.luaj.vm2.LuaError;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.retry.Retry;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -60,10 +66,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.ParseException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -71,10 +79,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.list;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
@@ -88,6 +99,19 @@ import static java.util.stream.Collectors.toCollection;
 // TODO divide and conquer
 public class ModService implements InitializingBean, DisposableBean {
 
+  /**
+   * Number of mods read during startup that are added to the installed mods at once.
+   */
+  private static final int INSTALLED_MODS_BATCH_SIZE = 100;
+  /**
+   * Size of the thumbnail views, thumbnails are decoded at this size.
+   */
+  private static final int THUMBNAIL_SIZE = 128;
+  /**
+   * How long to wait for further mods reported by the directory watcher before writing the installed mods cache.
+   */
+  private static final Duration CACHE_SAVE_DELAY = Duration.ofSeconds(5);
+
   private final FafApiAccessor fafApiAccessor;
   private final GamePrefsService gamePrefsService;
   private final TaskService taskService;
@@ -102,12 +126,21 @@ public class ModService implements InitializingBean, DisposableBean {
   private final Preferences preferences;
   private final ObjectFactory<ModUploadTask> modUploadTaskFactory;
   private final ObjectFactory<DownloadModTask> downloadModTaskFactory;
+  private final ObjectFactory<DownloadModsTask> downloadModsTaskFactory;
   private final ObjectFactory<UninstallModTask> uninstallModTaskFactory;
   private final FxApplicationThreadExecutor fxApplicationThreadExecutor;
+  private final InstalledModsCache installedModsCache;
+  private final TaskScheduler taskScheduler;
 
   private final ModReader modReader = new ModReader();
 
-  private final Map<Path, ModVersion> pathToMod = new HashMap<>();
+  private final Map<Path, ModVersion> pathToMod = new ConcurrentHashMap<>();
+  /**
+   * Folders of the installed mods by uid, updated as soon as a mod has been read rather than on the application thread
+   * like {@link #modsByUid}.
+   */
+  private final Map<String, Path> modPathsByUid = new ConcurrentHashMap<>();
+  private final AtomicBoolean cacheSaveScheduled = new AtomicBoolean();
   private final ObservableMap<String, ModVersion> modsByUid = FXCollections.observableHashMap();
   @Getter
   private final ObservableList<ModVersion> installedMods = JavaFxUtil.attachListToMap(
@@ -138,6 +171,8 @@ public class ModService implements InitializingBean, DisposableBean {
     }
 
     installedMods.clear();
+    pathToMod.clear();
+    modPathsByUid.clear();
     loadInstalledMods();
   }
 
@@ -152,6 +187,9 @@ public class ModService implements InitializingBean, DisposableBean {
              .filter(event -> event.kind() == ENTRY_DELETE || event.kind() == ENTRY_CREATE)
              .forEach(event -> {
                Path modPath = modsDirectory.resolve((Path) event.context());
+               if (isStagingDirectory(modPath)) {
+                 return;
+               }
                if (event.kind() == ENTRY_DELETE) {
                  removeMod(modPath);
                } else if (event.kind() == ENTRY_CREATE) {
@@ -183,26 +221,25 @@ public class ModService implements InitializingBean, DisposableBean {
     taskService.submitTask(new CompletableTask<Void>(Priority.LOW) {
 
       @Override
-      protected Void call() {
+      protected Void call() throws InterruptedException {
         updateTitle(i18n.get("modVault.loadingMods"));
         try (Stream<Path> customModsDirectory = list(forgedAlliancePrefs.getModsDirectory())) {
           List<Path> modPaths = new ArrayList<>();
-          customModsDirectory.collect(toCollection(() -> modPaths));
+          customModsDirectory.filter(modPath -> !isStagingDirectory(modPath)).collect(toCollection(() -> modPaths));
 
-          long totalMods = modPaths.size();
-          long modsRead = 0;
-          for (Path modPath : modPaths) {
-            updateProgress(++modsRead, totalMods);
+          ConcurrentUtil.processInParallel(modPaths, modPath -> {
             try {
-              addInstalledMod(modPath);
+              return Map.entry(modPath, extractModInfo(modPath));
             } catch (Exception e) {
               log.warn("Corrupt mod: `{}`", modPath, e);
 
               notificationService.addPersistentWarnNotification(
                   List.of(new Action(i18n.get("corruptedMods.show"), () -> platformService.reveal(modPath))),
                   "corruptedModsError.notification", modPath.getFileName());
+              return null;
             }
-          }
+          }, INSTALLED_MODS_BATCH_SIZE, ModService.this::addInstalledMods, this::updateProgress);
+          installedModsCache.save(modPaths);
         } catch (IOException e) {
           log.error("Mods could not be read from: `{}`", forgedAlliancePrefs.getModsDirectory(), e);
         }
@@ -211,18 +248,8 @@ public class ModService implements InitializingBean, DisposableBean {
     });
   }
 
-  public Mono<Void> downloadIfNecessary(String uid) {
-    if (isInstalled(uid)) {
-      return Mono.empty();
-    }
-
-    return getModVersionByUid(uid).map(modMapper::map)
-                                  .flatMap(modVersion -> {
-      if (modVersion == null) {
-        throw new IllegalArgumentException("Mod with uid %s could not be found".formatted(uid));
-      }
-                                    return downloadMod(modVersion.downloadUrl(), null, null);
-    });
+  private static boolean isStagingDirectory(Path path) {
+    return path.getFileName().toString().equals(DownloadModTask.STAGING_DIRECTORY_NAME);
   }
 
   public Mono<Void> downloadIfNecessary(ModVersion modVersion) {
@@ -240,8 +267,7 @@ public class ModService implements InitializingBean, DisposableBean {
 
   private Mono<Void> downloadMod(URL url, @Nullable DoubleProperty progressProperty,
                                               @Nullable StringProperty titleProperty) {
-    DownloadModTask task = downloadModTaskFactory.getObject();
-    task.setUrl(url);
+    DownloadModTask task = createDownloadModTask(url);
     if (progressProperty != null) {
       progressProperty.bind(task.progressProperty());
     }
@@ -252,10 +278,42 @@ public class ModService implements InitializingBean, DisposableBean {
     return taskService.submitTask(task).getMono();
   }
 
+  private DownloadModTask createDownloadModTask(URL url) {
+    DownloadModTask task = downloadModTaskFactory.getObject();
+    task.setUrl(url);
+    return task;
+  }
+
+  /**
+   * Downloads the mods of the specified uids that are not installed yet and enables all of them. The missing mods are
+   * looked up with a single API request and downloaded and installed by a single {@link DownloadModsTask}, which
+   * reports their combined progress. Mods the API doesn't know are skipped.
+   */
   public Mono<Void> downloadAndEnableMods(Set<String> modUids) {
-    return Mono.when(modUids.stream().map(uid -> downloadIfNecessary(uid).doOnError(throwable -> {
-          log.warn("Unable to install mod with uid {}", uid);
-    })).toList()).doOnSuccess(ignored -> tryEnableMods(modUids));
+    Set<String> missingModUids = modUids.stream().filter(uid -> !isInstalled(uid)).collect(Collectors.toSet());
+    if (missingModUids.isEmpty()) {
+      return Mono.fromRunnable(() -> tryEnableMods(modUids));
+    }
+
+    return getModVersionsByUid(missingModUids).map(modMapper::map)
+                                              .collectList()
+                                              .flatMap(modVersions -> {
+                                                logUnknownMods(missingModUids, modVersions);
+                                                if (modVersions.isEmpty()) {
+                                                  return Mono.empty();
+                                                }
+                                                DownloadModsTask task = downloadModsTaskFactory.getObject();
+                                                task.setUrls(modVersions.stream().map(ModVersion::downloadUrl).toList());
+                                                return taskService.submitTask(task).getMono();
+                                              })
+                                              .then(Mono.fromRunnable(() -> tryEnableMods(modUids)));
+  }
+
+  private void logUnknownMods(Set<String> requestedModUids, List<ModVersion> foundModVersions) {
+    Set<String> foundModUids = foundModVersions.stream().map(ModVersion::uid).collect(Collectors.toSet());
+    requestedModUids.stream()
+                    .filter(uid -> !foundModUids.contains(uid))
+                    .forEach(uid -> log.warn("Mod with uid `{}` could not be found", uid));
   }
 
   private void tryEnableMods(Set<String> modUids) {
@@ -263,7 +321,7 @@ public class ModService implements InitializingBean, DisposableBean {
       return;
     }
 
-    Set<String> installedUiMods = modsByUid.keySet();
+    Set<String> installedUiMods = modPathsByUid.keySet();
 
     Set<String> activeMods = gamePrefsService.readActiveModUIDs()
                                              .stream()
@@ -289,7 +347,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public boolean isInstalled(String uid) {
-    return modsByUid.containsKey(uid);
+    return modPathsByUid.containsKey(uid);
   }
 
   public BooleanExpression isInstalledBinding(ObservableValue<ModVersion> modVersionObservable) {
@@ -305,11 +363,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Path getPathForMod(ModVersion modVersionToFind) {
-    return pathToMod.entrySet()
-                    .stream().filter(pathModEntry -> pathModEntry.getValue().uid().equals(modVersionToFind.uid()))
-                    .findFirst()
-                    .map(Entry::getKey)
-                    .orElse(null);
+    return modPathsByUid.get(modVersionToFind.uid());
   }
 
   @NotNull
@@ -320,8 +374,24 @@ public class ModService implements InitializingBean, DisposableBean {
                                  modFolder.toAbsolutePath());
     }
 
-    try (InputStream inputStream = Files.newInputStream(modInfoLua)) {
-      return extractModInfo(inputStream, modFolder);
+    try {
+      BasicFileAttributes modInfoAttributes = Files.readAttributes(modInfoLua, BasicFileAttributes.class);
+      Optional<ModVersion> cachedModVersion = installedModsCache.get(modInfoLua, modInfoAttributes);
+      if (cachedModVersion.isPresent()) {
+        return cachedModVersion.get();
+      }
+
+      byte[] modInfoBytes = Files.readAllBytes(modInfoLua);
+      ModVersion modVersion;
+      try {
+        modVersion = modMapper.mapModInfo(LuaDataParser.parse(new String(modInfoBytes, UTF_8)));
+      } catch (ParseException | LuaError e) {
+        log.debug("Could not parse `{}` without interpreting it, loading it with LuaJ ({})", modInfoLua,
+                  e.getMessage());
+        modVersion = extractModInfo(new ByteArrayInputStream(modInfoBytes), modFolder);
+      }
+      installedModsCache.put(modInfoLua, modInfoAttributes, modVersion);
+      return modVersion;
     } catch (IOException e) {
       throw new ModLoadException("IO error loading: " + modFolder.toAbsolutePath(), null, "mod.load.ioError",
                                  modFolder.toAbsolutePath());
@@ -340,10 +410,10 @@ public class ModService implements InitializingBean, DisposableBean {
     return taskService.submitTask(modUploadTask);
   }
 
-  @Cacheable(value = CacheNames.MODS, sync = true)
   public Image loadThumbnail(ModVersion modVersion) {
     return assetService.loadAndCacheImage(modVersion.thumbnailUrl(), Path.of("mods"),
-                                          () -> themeService.getThemeImage(ThemeService.NO_IMAGE_AVAILABLE));
+                                          () -> themeService.getThemeImage(ThemeService.NO_IMAGE_AVAILABLE),
+                                          THUMBNAIL_SIZE, THUMBNAIL_SIZE);
   }
 
   public CompletableFuture<Integer> getFileSize(ModVersion modVersion) {
@@ -367,23 +437,52 @@ public class ModService implements InitializingBean, DisposableBean {
   private void removeMod(Path path) {
     log.trace("Removing mod: `{}`", path);
     ModVersion modVersion = pathToMod.remove(path);
-    if (modVersion != null) {
-      modsByUid.remove(modVersion.uid());
+    if (modVersion != null && modPathsByUid.remove(modVersion.uid(), path)) {
+      fxApplicationThreadExecutor.execute(() -> modsByUid.remove(modVersion.uid()));
     }
   }
 
+  private void addInstalledMods(List<Entry<Path, ModVersion>> modVersionsByPath) {
+    modVersionsByPath.forEach(entry -> {
+      pathToMod.put(entry.getKey(), entry.getValue());
+      modPathsByUid.putIfAbsent(entry.getValue().uid(), entry.getKey());
+    });
+    fxApplicationThreadExecutor.execute(() -> modVersionsByPath.forEach(
+        entry -> modsByUid.putIfAbsent(entry.getValue().uid(), entry.getValue())));
+    log.debug("Added {} installed mods", modVersionsByPath.size());
+  }
+
   private void addInstalledMod(Path modFolder) {
     ModVersion modVersion = extractModInfo(modFolder);
     pathToMod.put(modFolder, modVersion);
-    if (!modsByUid.containsKey(modVersion.uid())) {
+    scheduleCacheSave();
+    if (modPathsByUid.putIfAbsent(modVersion.uid(), modFolder) == null) {
       fxApplicationThreadExecutor.execute(() -> modsByUid.put(modVersion.uid(), modVersion));
       log.debug("Added mod from {}", modFolder);
     }
   }
 
+  /**
+   * Writes the installed mods cache once the directory watcher stopped reporting new mods for a while, so copying or
+   * extracting many mods doesn't rewrite it for every single one.
+   */
+  private void scheduleCacheSave() {
+    if (cacheSaveScheduled.compareAndSet(false, true)) {
+      taskScheduler.schedule(this::saveCacheIfScheduled, Instant.now().plus(CACHE_SAVE_DELAY));
+    }
+  }
+
+  @VisibleForTesting
+  void saveCacheIfScheduled() {
+    if (cacheSaveScheduled.compareAndSet(true, false)) {
+      installedModsCache.save(List.copyOf(pathToMod.keySet()));
+    }
+  }
+
   @Override
   public void destroy() {
     Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    saveCacheIfScheduled();
   }
 
   public Mono<List<ModVersion>> updateAndActivateModVersions(final Collection<ModVersion> selectedModVersions) {
@@ -411,6 +510,19 @@ public class ModService implements InitializingBean, DisposableBean {
                                                            .defaultIfEmpty(installedModVersion);
   }
 
+  private Flux<com.faforever.commons.api.dto.ModVersion> getModVersionsByUid(Set<String> uids) {
+    ElideNavigatorOnCollection<com.faforever.commons.api.dto.ModVersion> navigator = ElideNavigator.of(
+                                                                                                       com.faforever.commons.api.dto.ModVersion.class)
+                                                                                                   .collection()
+                                                                                                   .setFilter(
+                                                                                                       qBuilder().string(
+                                                                                                                     "uid")
+                                                                                                                 .in(uids))
+                                                                                                   .pageSize(uids.size())
+                                                                                                   .pageNumber(1);
+    return fafApiAccessor.getMany(navigator);
+  }
+
   private Mono<com.faforever.commons.api.dto.ModVersion> getModVersionByUid(String uid) {
     ElideNavigatorOnCollection<com.faforever.commons.api.dto.ModVersion> navigator = ElideNavigator.of(
                                                                                                        com.faforever.commons.api.dto.ModVersion.class)
@@ -107,6 +107,7 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
             throw new RuntimeException(e);
           }
         });
+    featuredModFileCacheService.saveHashes();
 
     Path initFile = featuredModFiles.stream()
         .filter(featuredModFile -> "bin".equals(featuredModFile.getGroup()) &&
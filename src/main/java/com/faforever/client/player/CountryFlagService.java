@@ -2,6 +2,7 @@ package com.faforever.client.player;
 
 import com.faforever.client.exception.AssetLoadException;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.remote.AssetService;
 import javafx.scene.image.Image;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,7 +20,6 @@ import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static com.faforever.client.config.CacheNames.COUNTRY_FLAGS;
 import static com.faforever.client.config.CacheNames.COUNTRY_NAMES;
 
 @Slf4j
@@ -30,15 +30,15 @@ public class CountryFlagService {
 
   private static final Collection<String> NON_COUNTRY_CODES = Arrays.asList("A1", "A2", "");
   private final I18n i18n;
+  private final AssetService assetService;
 
-  @Cacheable(value = COUNTRY_FLAGS, sync = true)
   public Optional<Image> loadCountryFlag(final String country) {
     if (country == null) {
       return Optional.empty();
     }
 
     return getCountryFlagUrl(country)
-        .map(url -> new Image(url.toString(), true));
+        .map(url -> assetService.loadImage(url, 0, 0));
   }
 
   @Cacheable(value = COUNTRY_NAMES, sync = true)
@@ -13,6 +13,14 @@ public class DataPrefs {
   private static final String CORRUPTED_REPLAYS_SUB_FOLDER = "corrupt";
   private static final String CACHE_SUB_FOLDER = "cache";
   private static final String FEATURED_MOD_CACHE_SUB_FOLDER = "featured_mod";
+  private static final String REPLAY_CACHE_SUB_FOLDER = "replays";
+  private static final String REPLAY_RECORDINGS_SUB_FOLDER = "replay_recordings";
+  private static final String LOCAL_REPLAY_INDEX_FILE_NAME = "local_replay_index.json";
+  private static final String INSTALLED_MAPS_CACHE_FILE_NAME = "installed_maps.json";
+  private static final String INSTALLED_MODS_CACHE_FILE_NAME = "installed_mods.json";
+  private static final String FILE_HASH_CACHE_FILE_NAME = "file_hashes.json";
+  private static final String ASSET_CACHE_SUB_FOLDER = "assets";
+  private static final String DOWNLOAD_CACHE_SUB_FOLDER = "downloads";
   private static final String CACHE_STYLESHEETS_SUB_FOLDER = Path.of(CACHE_SUB_FOLDER, "stylesheets").toString();
   private static final String THEMES_SUB_FOLDER = "themes";
   private static final String LANGUAGES_SUB_FOLDER = "languages";
@@ -56,6 +64,38 @@ public class DataPrefs {
     return getReplaysDirectory().resolve(CORRUPTED_REPLAYS_SUB_FOLDER);
   }
 
+  public Path getReplayCacheDirectory() {
+    return getCacheDirectory().resolve(REPLAY_CACHE_SUB_FOLDER);
+  }
+
+  public Path getReplayRecordingsDirectory() {
+    return getCacheDirectory().resolve(REPLAY_RECORDINGS_SUB_FOLDER);
+  }
+
+  public Path getLocalReplayIndexFile() {
+    return getCacheDirectory().resolve(LOCAL_REPLAY_INDEX_FILE_NAME);
+  }
+
+  public Path getInstalledMapsCacheFile() {
+    return getCacheDirectory().resolve(INSTALLED_MAPS_CACHE_FILE_NAME);
+  }
+
+  public Path getInstalledModsCacheFile() {
+    return getCacheDirectory().resolve(INSTALLED_MODS_CACHE_FILE_NAME);
+  }
+
+  public Path getFileHashCacheFile() {
+    return getCacheDirectory().resolve(FILE_HASH_CACHE_FILE_NAME);
+  }
+
+  public Path getAssetCacheDirectory() {
+    return getCacheDirectory().resolve(ASSET_CACHE_SUB_FOLDER);
+  }
+
+  public Path getDownloadCacheDirectory() {
+    return getCacheDirectory().resolve(DOWNLOAD_CACHE_SUB_FOLDER);
+  }
+
   public Path getCacheStylesheetsDirectory() {
     return getBaseDataDirectory().resolve(CACHE_STYLESHEETS_SUB_FOLDER);
   }
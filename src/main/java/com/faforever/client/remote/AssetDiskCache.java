@@ -0,0 +1,472 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.DataPrefs;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CacheRequest;
+import java.net.CacheResponse;
+import java.net.HttpURLConnection;
+import java.net.ResponseCache;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Disk cache of the assets loaded by {@link AssetService}. Files are named after the hash of their URL, so assets of
+ * different hosts or paths never collide, and each file has a metadata file with the validators the server sent.
+ * Cached files are revalidated with a conditional GET once they are older than
+ * {@link ClientProperties.AssetCache#getRevalidateAfter()}. The last modification time of a cached file is updated
+ * whenever it is used, which makes it the access time for the least recently used eviction that keeps the cache within
+ * its size budget.
+ * <p>
+ * Assets are written to the cache while they are being downloaded, see {@link #cacheDownload(String, Path)}. This is
+ * done by a {@link ResponseCache}, through which {@link HttpURLConnection} passes the response bytes as they are read
+ * by whoever opened the connection, like the JavaFX image loader. So an asset is only downloaded once and stored as
+ * it was sent by the server. Downloads are matched by the URL they were requested with, even if the server redirected
+ * them, and have to be {@link #forgetDownload(String, Path) forgotten} once the loader is done with them.
+ */
+@Lazy
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AssetDiskCache implements InitializingBean, DisposableBean {
+
+  private static final String METADATA_FILE_EXTENSION = ".meta";
+  private static final Pattern FILE_EXTENSION_PATTERN = Pattern.compile("\\.[a-z0-9]{1,5}");
+  private static final long UNKNOWN_SIZE = -1;
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final ClientProperties clientProperties;
+  private final DataPrefs dataPrefs;
+
+  private final Set<Path> usedFiles = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+  /**
+   * The total size of the cache, kept up to date as assets are written, so it only needs to be listed when it grew too
+   * large. Unknown until the cache has been listed once.
+   */
+  private final AtomicLong cacheSize = new AtomicLong(UNKNOWN_SIZE);
+  private final Map<String, PendingDownload> pendingDownloads = new ConcurrentHashMap<>();
+  /**
+   * The pending download last requested by each thread, so that the response can be matched after redirects.
+   * {@link HttpURLConnection} asks the response cache for every URL it requests and stores the final response from the
+   * same thread. Downloads are matched by identity, so a stale entry of a failed request never matches a later download
+   * of the same URL.
+   */
+  private final Map<Thread, PendingDownload> requestedDownloads = new ConcurrentHashMap<>();
+
+  private ResponseCache previousResponseCache;
+
+  @Override
+  public void afterPropertiesSet() {
+    previousResponseCache = ResponseCache.getDefault();
+    ResponseCache.setDefault(new AssetResponseCache());
+  }
+
+  @Override
+  public void destroy() {
+    ResponseCache.setDefault(previousResponseCache);
+  }
+
+  /**
+   * Returns the file the asset of the specified URL is cached in, which might not exist yet. The file keeps the
+   * extension of the URL so its format can be told from its name.
+   */
+  public Path getCacheFile(String url, Path cacheSubFolder) {
+    String hash = Hashing.sha256().hashString(url, UTF_8).toString();
+    String fileName = url.substring(url.lastIndexOf('/') + 1);
+    int extensionIndex = fileName.lastIndexOf('.');
+    String extension = extensionIndex == -1 ? "" : fileName.substring(extensionIndex).toLowerCase(Locale.ROOT);
+    if (!FILE_EXTENSION_PATTERN.matcher(extension).matches()) {
+      extension = "";
+    }
+    return dataPrefs.getAssetCacheDirectory().resolve(cacheSubFolder).resolve(hash + extension);
+  }
+
+  /**
+   * Marks the specified cached file as used and revalidates it if it hasn't been validated for a while. Both is done in
+   * the background, so this can be called while loading images on the application thread. A changed asset replaces
+   * the cached file, so it is used from the next load on.
+   */
+  public void markUsed(String url, Path cacheFile) {
+    if (usedFiles.add(cacheFile)) {
+      CompletableFuture.runAsync(() -> used(url, cacheFile))
+                       .whenComplete((ignored, throwable) -> usedFiles.remove(cacheFile));
+    }
+  }
+
+  @VisibleForTesting
+  void used(String url, Path cacheFile) {
+    try {
+      Files.setLastModifiedTime(cacheFile, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      log.debug("Could not touch cached asset `{}`", cacheFile, e);
+    }
+
+    Metadata metadata = readMetadata(cacheFile);
+    long revalidateAfterMillis = clientProperties.getAssetCache().getRevalidateAfter().toMillis();
+    if (metadata == null || System.currentTimeMillis() - metadata.validatedAt() >= revalidateAfterMillis) {
+      revalidate(url, cacheFile, metadata);
+    }
+  }
+
+  /**
+   * Makes the next download of the specified URL write the response to the specified cache file, regardless of who
+   * opens the connection. The file is only replaced once the response has been read completely.
+   */
+  public void cacheDownload(String url, Path cacheFile) {
+    pendingDownloads.put(url, new PendingDownload(url, cacheFile));
+  }
+
+  /**
+   * Stops waiting for the download of the specified URL, if it hasn't been cached yet, e.g. because loading it failed
+   * before a response was received.
+   */
+  public void forgetDownload(String url, Path cacheFile) {
+    pendingDownloads.values().removeIf(download -> download.isOf(url, cacheFile));
+    requestedDownloads.values().removeIf(download -> download.isOf(url, cacheFile));
+  }
+
+  /**
+   * Records that the asset of the specified URL has been written to its cache file.
+   */
+  public void stored(String url, Path cacheFile, @Nullable String eTag, @Nullable String lastModified) {
+    writeMetadata(cacheFile, new Metadata(url, eTag, lastModified, System.currentTimeMillis()));
+  }
+
+  @VisibleForTesting
+  void revalidate(String url, Path cacheFile, @Nullable Metadata metadata) {
+    HttpURLConnection connection = null;
+    try {
+      connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setUseCaches(false);
+      if (metadata != null && metadata.eTag() != null) {
+        connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, metadata.eTag());
+      }
+      if (metadata != null && metadata.lastModified() != null) {
+        connection.setRequestProperty(HttpHeaders.IF_MODIFIED_SINCE, metadata.lastModified());
+      }
+
+      int responseCode = connection.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && metadata != null) {
+        log.trace("Cached asset `{}` of `{}` is still valid", cacheFile, url);
+        stored(url, cacheFile, metadata.eTag(), metadata.lastModified());
+        return;
+      }
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        log.debug("Could not revalidate cached asset `{}` of `{}`, server responded with {}", cacheFile, url,
+                  responseCode);
+        return;
+      }
+
+      Path temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".part");
+      try (InputStream inputStream = connection.getInputStream()) {
+        Files.copy(inputStream, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+        replaceCacheFile(temporaryFile, cacheFile);
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+      log.debug("Updated cached asset `{}` of `{}`", cacheFile, url);
+      stored(url, cacheFile, connection.getHeaderField(HttpHeaders.ETAG),
+             connection.getHeaderField(HttpHeaders.LAST_MODIFIED));
+    } catch (IOException e) {
+      log.debug("Could not revalidate cached asset `{}` of `{}`", cacheFile, url, e);
+    } finally {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Returns a request that writes the response of the specified connection to the cache file, if a download of its URL
+   * is pending and the server responded with the asset.
+   */
+  @Nullable
+  @VisibleForTesting
+  CacheRequest createCacheRequest(URLConnection connection) throws IOException {
+    PendingDownload requestedDownload = requestedDownloads.remove(Thread.currentThread());
+    PendingDownload download = pendingDownloads.remove(connection.getURL().toExternalForm());
+    if (download == null && requestedDownload != null
+        && pendingDownloads.remove(requestedDownload.url(), requestedDownload)) {
+      // The server redirected the request, so the response belongs to the URL that was originally requested
+      download = requestedDownload;
+    }
+    if (download == null) {
+      return null;
+    }
+    if (!(connection instanceof HttpURLConnection httpConnection)
+        || httpConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      return null;
+    }
+
+    Path targetFile = download.cacheFile();
+    String cachedUrl = download.url();
+    Files.createDirectories(targetFile.getParent());
+    Path temporaryFile = Files.createTempFile(targetFile.getParent(), targetFile.getFileName().toString(), ".part");
+    OutputStream outputStream = Files.newOutputStream(temporaryFile);
+    String eTag = connection.getHeaderField(HttpHeaders.ETAG);
+    String lastModified = connection.getHeaderField(HttpHeaders.LAST_MODIFIED);
+
+    return new CacheRequest() {
+      @Override
+      public OutputStream getBody() {
+        return new FilterOutputStream(outputStream) {
+          @Override
+          public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+          }
+
+          @Override
+          public void close() throws IOException {
+            super.close();
+            try {
+              replaceCacheFile(temporaryFile, targetFile);
+            } finally {
+              Files.deleteIfExists(temporaryFile);
+            }
+            log.trace("Cached asset `{}` of `{}`", targetFile, cachedUrl);
+            stored(cachedUrl, targetFile, eTag, lastModified);
+          }
+        };
+      }
+
+      @Override
+      public void abort() {
+        try {
+          outputStream.close();
+          Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+          log.warn("Could not delete incomplete asset `{}`", temporaryFile, e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Remembers the download if the URL is pending. Requests of other URLs are redirects of the previous request on this
+   * thread, unless that download isn't pending anymore, e.g. because it failed and has been forgotten.
+   */
+  @VisibleForTesting
+  void requested(String url) {
+    Thread thread = Thread.currentThread();
+    PendingDownload download = pendingDownloads.get(url);
+    if (download != null) {
+      requestedDownloads.put(thread, download);
+      return;
+    }
+
+    PendingDownload requestedDownload = requestedDownloads.get(thread);
+    if (requestedDownload != null && pendingDownloads.get(requestedDownload.url()) != requestedDownload) {
+      requestedDownloads.remove(thread, requestedDownload);
+    }
+  }
+
+  private void replaceCacheFile(Path temporaryFile, Path cacheFile) throws IOException {
+    long previousSize = sizeOrZero(cacheFile);
+    Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    sizeChanged(sizeOrZero(cacheFile) - previousSize);
+  }
+
+  private void sizeChanged(long delta) {
+    long size = cacheSize.updateAndGet(currentSize -> currentSize == UNKNOWN_SIZE ? UNKNOWN_SIZE : currentSize + delta);
+    if (size == UNKNOWN_SIZE || size > clientProperties.getAssetCache().getCacheSizeBytes()) {
+      scheduleEviction();
+    }
+  }
+
+  @VisibleForTesting
+  long getCacheSize() {
+    return cacheSize.get();
+  }
+
+  private void scheduleEviction() {
+    if (evictionScheduled.compareAndSet(false, true)) {
+      CompletableFuture.runAsync(() -> {
+        evictionScheduled.set(false);
+        evictIfNecessary();
+      });
+    }
+  }
+
+  /**
+   * Deletes the least recently used assets until the cache fits into its size budget again. This is the only place the
+   * whole cache is listed, which also corrects the tracked size of the cache.
+   */
+  @VisibleForTesting
+  void evictIfNecessary() {
+    Path cacheDirectory = dataPrefs.getAssetCacheDirectory();
+    if (Files.notExists(cacheDirectory)) {
+      return;
+    }
+    long sizeBudget = clientProperties.getAssetCache().getCacheSizeBytes();
+
+    List<CachedAsset> cachedAssets = new ArrayList<>();
+    long totalSize = 0;
+    try (Stream<Path> files = Files.walk(cacheDirectory)) {
+      for (Path file : files.filter(Files::isRegularFile).toList()) {
+        if (file.getFileName().toString().endsWith(METADATA_FILE_EXTENSION)) {
+          continue;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size() + sizeOrZero(getMetadataFile(file));
+        cachedAssets.add(new CachedAsset(file, size, attributes.lastModifiedTime().toMillis()));
+        totalSize += size;
+      }
+    } catch (IOException e) {
+      log.warn("Could not list cached assets in `{}`", cacheDirectory, e);
+      return;
+    }
+
+    if (totalSize <= sizeBudget) {
+      cacheSize.set(totalSize);
+      return;
+    }
+
+    cachedAssets.sort(Comparator.comparingLong(CachedAsset::lastUsed));
+    for (CachedAsset cachedAsset : cachedAssets) {
+      if (totalSize <= sizeBudget) {
+        break;
+      }
+      try {
+        Files.delete(cachedAsset.file());
+        Files.deleteIfExists(getMetadataFile(cachedAsset.file()));
+        totalSize -= cachedAsset.size();
+        log.trace("Evicted cached asset `{}`", cachedAsset.file());
+      } catch (IOException e) {
+        log.warn("Could not evict cached asset `{}`", cachedAsset.file(), e);
+      }
+    }
+    cacheSize.set(totalSize);
+  }
+
+  private static long sizeOrZero(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static Path getMetadataFile(Path cacheFile) {
+    return cacheFile.resolveSibling(cacheFile.getFileName() + METADATA_FILE_EXTENSION);
+  }
+
+  @Nullable
+  @VisibleForTesting
+  Metadata readMetadata(Path cacheFile) {
+    Path metadataFile = getMetadataFile(cacheFile);
+    if (Files.notExists(metadataFile)) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(metadataFile.toFile(), Metadata.class);
+    } catch (IOException e) {
+      log.debug("Could not read metadata of cached asset `{}`", cacheFile, e);
+      return null;
+    }
+  }
+
+  private void writeMetadata(Path cacheFile, Metadata metadata) {
+    Path metadataFile = getMetadataFile(cacheFile);
+    try {
+      Files.createDirectories(metadataFile.getParent());
+      long previousSize = sizeOrZero(metadataFile);
+      Files.write(metadataFile, objectMapper.writeValueAsBytes(metadata));
+      sizeChanged(sizeOrZero(metadataFile) - previousSize);
+    } catch (IOException e) {
+      log.warn("Could not write metadata of cached asset `{}`", cacheFile, e);
+    }
+  }
+
+  /**
+   * @param eTag the {@code ETag} the server sent with the asset, if any
+   * @param lastModified the {@code Last-Modified} date the server sent with the asset, if any
+   * @param validatedAt when the asset was last downloaded or confirmed to be unchanged
+   */
+  record Metadata(String url, @Nullable String eTag, @Nullable String lastModified, long validatedAt) {}
+
+  private record CachedAsset(Path file, long size, long lastUsed) {}
+
+  /**
+   * A download registered by {@link #cacheDownload(String, Path)}. Compared by identity rather than by its components,
+   * so every registration is a different download.
+   */
+  private static final class PendingDownload {
+
+    private final String url;
+    private final Path cacheFile;
+
+    private PendingDownload(String url, Path cacheFile) {
+      this.url = url;
+      this.cacheFile = cacheFile;
+    }
+
+    String url() {
+      return url;
+    }
+
+    Path cacheFile() {
+      return cacheFile;
+    }
+
+    boolean isOf(String url, Path cacheFile) {
+      return this.url.equals(url) && this.cacheFile.equals(cacheFile);
+    }
+  }
+
+  private class AssetResponseCache extends ResponseCache {
+
+    @Override
+    public CacheResponse get(URI uri, String requestMethod, Map<String, List<String>> requestHeaders) throws IOException {
+      requested(uri.toString());
+      return previousResponseCache == null ? null : previousResponseCache.get(uri, requestMethod, requestHeaders);
+    }
+
+    @Override
+    public CacheRequest put(URI uri, URLConnection connection) throws IOException {
+      CacheRequest cacheRequest = createCacheRequest(connection);
+      if (cacheRequest != null || previousResponseCache == null) {
+        return cacheRequest;
+      }
+      return previousResponseCache.put(uri, connection);
+    }
+  }
+}
@@ -1,12 +1,18 @@
 package com.faforever.client.remote;
 
-import com.faforever.client.fx.JavaFxUtil;
-import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.config.ClientProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.scene.image.Image;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriUtils;
@@ -19,17 +25,41 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.util.function.Supplier;
 
-
+/**
+ * Loads images, caching them on disk as well as in memory. Images are decoded at the requested size by the JavaFX
+ * background loader, while {@link AssetDiskCache} writes the downloaded bytes to disk as they are. Decoded images are
+ * kept in a cache that is bounded by the memory their pixels take up, see
+ * {@link ClientProperties.AssetCache#getMemoryCacheSizeBytes()}.
+ */
 @Lazy
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class AssetService {
+public class AssetService implements InitializingBean, DisposableBean {
+
+  private static final int BYTES_PER_PIXEL = 4;
 
-  private final DataPrefs dataPrefs;
+  private final AssetDiskCache assetDiskCache;
+  private final ClientProperties clientProperties;
 
   private final UrlValidator urlValidator = new UrlValidator();
 
+  private Cache<ImageKey, Image> imageCache;
+
+  @Override
+  public void afterPropertiesSet() {
+    imageCache = Caffeine.newBuilder()
+                         .maximumWeight(clientProperties.getAssetCache().getMemoryCacheSizeBytes())
+                         .weigher(AssetService::weigh)
+                         .recordStats()
+                         .build();
+  }
+
+  @Override
+  public void destroy() {
+    log.info("Image cache statistics: {}", getImageCacheStatistics());
+  }
+
   @Nullable
   public Image loadAndCacheImage(URL url, Path cacheSubFolder) {
     return loadAndCacheImage(url, cacheSubFolder, null, 0, 0);
@@ -40,6 +70,10 @@ public class AssetService {
     return loadAndCacheImage(url, cacheSubFolder, defaultSupplier, 0, 0);
   }
 
+  /**
+   * Loads the image of the specified URL, scaled to fit into {@code width} and {@code height} while preserving its
+   * ratio. A width or height of {@code 0} keeps the original size of the image.
+   */
   @Nullable
   public Image loadAndCacheImage(URL url, Path cacheSubFolder, @Nullable Supplier<Image> defaultSupplier, int width, int height) {
     if (url == null) {
@@ -52,16 +86,25 @@ public class AssetService {
     try {
       String urlString = url.toString();
       urlString = urlValidator.isValid(urlString) ? urlString : UriUtils.encodePath(urlString, StandardCharsets.UTF_8);
-      String filename = urlString.substring(urlString.lastIndexOf('/') + 1);
-      Path cachePath = dataPrefs.getCacheDirectory().resolve(cacheSubFolder).resolve(filename);
+      ImageKey key = new ImageKey(urlString, width, height);
+      Image cachedImage = imageCache.getIfPresent(key);
+      if (cachedImage != null) {
+        return cachedImage;
+      }
+
+      Path cachePath = assetDiskCache.getCacheFile(urlString, cacheSubFolder);
+      Image image;
       if (Files.exists(cachePath)) {
         log.debug("Using cached image: {}", cachePath);
-        return new Image(cachePath.toUri().toURL().toExternalForm(), width, height, true, true, true);
+        assetDiskCache.markUsed(urlString, cachePath);
+        image = new Image(cachePath.toUri().toURL().toExternalForm(), width, height, true, true, true);
+      } else {
+        log.debug("Fetching image from {}", url);
+        assetDiskCache.cacheDownload(urlString, cachePath);
+        image = new Image(urlString, width, height, true, true, true);
+        forgetDownloadWhenLoaded(urlString, cachePath, image);
       }
-
-      log.debug("Fetching image from {}", url);
-      Image image = new Image(urlString, width, height, true, true, true);
-      JavaFxUtil.persistImage(image, cachePath, filename.substring(filename.lastIndexOf('.') + 1));
+      cache(key, image);
       return image;
     } catch (InvalidPathException | MalformedURLException e) {
       log.warn("Unable to load image due to invalid fileName {}", url, e);
@@ -71,4 +114,104 @@ public class AssetService {
       return defaultSupplier.get();
     }
   }
+
+  /**
+   * Loads an image that is available locally, like a classpath resource, without caching it on disk. Like all images
+   * loaded by this service, it is kept in the memory cache.
+   */
+  public Image loadImage(URL url, int width, int height) {
+    String urlString = url.toExternalForm();
+    ImageKey key = new ImageKey(urlString, width, height);
+    Image cachedImage = imageCache.getIfPresent(key);
+    if (cachedImage != null) {
+      return cachedImage;
+    }
+
+    Image image = new Image(urlString, width, height, true, true, true);
+    cache(key, image);
+    return image;
+  }
+
+  public ImageCacheStatistics getImageCacheStatistics() {
+    imageCache.cleanUp();
+    CacheStats stats = imageCache.stats();
+    long weightedSize = imageCache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    return new ImageCacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                                    imageCache.estimatedSize(), weightedSize);
+  }
+
+  /**
+   * Caches the specified image, which is still being loaded in the background. Its size is only known once it has
+   * been loaded, so it is put into the cache again at that point, which updates its weight. Images that failed to load
+   * are dropped, so they are retried the next time they are requested.
+   */
+  private void cache(ImageKey key, Image image) {
+    imageCache.put(key, image);
+    if (image.isError()) {
+      imageCache.asMap().remove(key, image);
+      return;
+    }
+    if (image.getProgress() >= 1) {
+      imageCache.asMap().replace(key, image, image);
+      return;
+    }
+
+    image.progressProperty().addListener(new ChangeListener<>() {
+      @Override
+      public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+        if (newValue.doubleValue() >= 1) {
+          observable.removeListener(this);
+          imageCache.asMap().replace(key, image, image);
+        }
+      }
+    });
+    image.errorProperty().addListener(new ChangeListener<>() {
+      @Override
+      public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
+        if (newValue) {
+          observable.removeListener(this);
+          imageCache.asMap().remove(key, image);
+        }
+      }
+    });
+  }
+
+  /**
+   * Makes sure the pending download of the image doesn't outlive its loading, also if it failed before a response was
+   * received.
+   */
+  private void forgetDownloadWhenLoaded(String url, Path cachePath, Image image) {
+    if (image.isError() || image.getProgress() >= 1) {
+      assetDiskCache.forgetDownload(url, cachePath);
+      return;
+    }
+
+    ChangeListener<Object> listener = new ChangeListener<>() {
+      @Override
+      public void changed(ObservableValue<?> observable, Object oldValue, Object newValue) {
+        if (image.isError() || image.getProgress() >= 1) {
+          image.progressProperty().removeListener(this);
+          image.errorProperty().removeListener(this);
+          assetDiskCache.forgetDownload(url, cachePath);
+        }
+      }
+    };
+    image.progressProperty().addListener(listener);
+    image.errorProperty().addListener(listener);
+  }
+
+  private static int weigh(ImageKey key, Image image) {
+    double width = image.getWidth() > 0 ? image.getWidth() : key.width();
+    double height = image.getHeight() > 0 ? image.getHeight() : key.height();
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(1, width * height * BYTES_PER_PIXEL));
+  }
+
+  private record ImageKey(String url, int width, int height) {}
+
+  /**
+   * @param memoryBytes the approximate memory the pixels of the cached images take up
+   */
+  public record ImageCacheStatistics(
+      long hitCount, long missCount, double hitRate, long evictionCount, long imageCount, long memoryBytes
+  ) {}
 }
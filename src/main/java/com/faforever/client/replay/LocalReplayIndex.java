@@ -0,0 +1,419 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.mapstruct.ReplayMapper;
+import com.faforever.client.preferences.DataPrefs;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Persistent index of the replay headers in the local replays directory. Entries are keyed by file name and a replay
+ * file is only read again if its size or last modification time changed, so paging through the local replay vault
+ * doesn't need to decompress every replay on every page. The entries are also kept in a {@link LocalReplaySearchIndex}
+ * to search them without looking at every replay.
+ * <p>
+ * Once {@link #watch(Path, String)} has scanned the replays directory, the index is kept up to date by a directory
+ * watcher and the sorted entries can be paged through without touching the file system. Changes are sorted into the
+ * entries one by one and written to disk at most every {@link #SAVE_DELAY}, and when the application shuts down.
+ */
+@Lazy
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LocalReplayIndex implements DisposableBean {
+
+  /**
+   * Increase whenever the format of {@link LocalReplayIndexEntry} changes, so old indices get rebuilt.
+   */
+  private static final int INDEX_VERSION = 2;
+  private static final Duration SAVE_DELAY = Duration.ofSeconds(5);
+
+  private static final Comparator<LocalReplayIndexEntry> NEWEST_FIRST = Comparator.comparingLong(
+      LocalReplayIndexEntry::lastModified).reversed().thenComparing(LocalReplayIndexEntry::fileName);
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final ReplayFileReader replayFileReader;
+  private final ReplayMapper replayMapper;
+  private final DataPrefs dataPrefs;
+  private final TaskScheduler taskScheduler;
+
+  private final Map<String, LocalReplayIndexEntry> entriesByFileName = new HashMap<>();
+  private final LocalReplaySearchIndex searchIndex = new LocalReplaySearchIndex();
+  private final Set<Path> unreadableFiles = new HashSet<>();
+  private final List<LocalReplayIndexEntry> sortedEntries = new ArrayList<>();
+  /**
+   * Immutable copy of {@link #sortedEntries} handed out to callers, {@code null} if the entries changed since.
+   */
+  private List<LocalReplayIndexEntry> sortedEntriesSnapshot = List.of();
+  private boolean loaded;
+  private boolean dirty;
+  private boolean saveScheduled;
+
+  private Thread directoryWatcherThread;
+  private Path watchedDirectory;
+
+  /**
+   * Makes sure the index reflects the specified directory. The first call, or the first call after the directory
+   * changed or the watcher lost events, scans the whole directory like {@link #update(Path, String)} and starts a
+   * directory watcher that applies all further changes as they happen. All other calls return immediately.
+   *
+   * @return the replay files that could not be read since the last call and therefore are not part of the index
+   */
+  public synchronized List<Path> watch(Path replaysDirectory, String replayFileGlob) throws IOException {
+    List<Path> newUnreadableFiles = new ArrayList<>();
+    if (!replaysDirectory.equals(watchedDirectory) || directoryWatcherThread == null
+        || !directoryWatcherThread.isAlive()) {
+      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+      // Registered before scanning so that no change in between goes unnoticed
+      WatchService watcher = replaysDirectory.getFileSystem().newWatchService();
+      try {
+        replaysDirectory.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        unreadableFiles.clear();
+        newUnreadableFiles.addAll(update(replaysDirectory, replayFileGlob));
+      } catch (IOException e) {
+        watcher.close();
+        throw e;
+      }
+      PathMatcher replayFileMatcher = replaysDirectory.getFileSystem().getPathMatcher("glob:" + replayFileGlob);
+      directoryWatcherThread = startDirectoryWatcher(watcher, replaysDirectory, replayFileMatcher);
+      watchedDirectory = replaysDirectory;
+    }
+
+    // Files seen by the watcher might just have been incomplete at the time, e.g. while being copied
+    unreadableFiles.stream().filter(Files::exists).filter(file -> !add(file)).forEach(newUnreadableFiles::add);
+    unreadableFiles.clear();
+    return newUnreadableFiles;
+  }
+
+  private Thread startDirectoryWatcher(WatchService watcher, Path replaysDirectory, PathMatcher replayFileMatcher) {
+    Thread thread = new Thread(() -> {
+      try (watcher) {
+        while (!Thread.interrupted()) {
+          WatchKey key = watcher.take();
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+              log.info("Lost changes of replays directory `{}`, it will be scanned again", replaysDirectory);
+              return;
+            }
+
+            Path fileName = (Path) event.context();
+            if (!replayFileMatcher.matches(fileName)) {
+              continue;
+            }
+
+            Path replayFile = replaysDirectory.resolve(fileName);
+            if (event.kind() == ENTRY_DELETE) {
+              remove(replayFile);
+            } else if (Files.exists(replayFile)) {
+              addWatchedFile(replayFile);
+            }
+          }
+          if (!key.reset()) {
+            log.info("Replays directory `{}` is no longer accessible", replaysDirectory);
+            return;
+          }
+        }
+      } catch (IOException e) {
+        log.warn("Replays directory watcher for `{}` failed", replaysDirectory, e);
+      } catch (InterruptedException e) {
+        log.info("Watcher terminated ({})", e.getMessage());
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  private synchronized void addWatchedFile(Path replayFile) {
+    if (add(replayFile)) {
+      unreadableFiles.remove(replayFile);
+    } else {
+      unreadableFiles.add(replayFile);
+    }
+  }
+
+  private synchronized void remove(Path replayFile) {
+    loadIfNecessary();
+    unreadableFiles.remove(replayFile);
+    if (entriesByFileName.containsKey(replayFile.getFileName().toString())) {
+      removeEntry(replayFile.getFileName().toString());
+      scheduleSave();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    saveIfChanged();
+  }
+
+  /**
+   * Brings the index in sync with the replay files in the specified directory. Only new or changed files are read,
+   * entries of files that no longer exist are dropped.
+   *
+   * @return the replay files that could not be read and therefore are not part of the index
+   */
+  public synchronized List<Path> update(Path replaysDirectory, String replayFileGlob) throws IOException {
+    loadIfNecessary();
+
+    Set<String> removedFileNames = new HashSet<>(entriesByFileName.keySet());
+    List<Path> unreadableFiles = new ArrayList<>();
+    boolean changed = false;
+
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(replaysDirectory, replayFileGlob)) {
+      for (Path replayFile : directoryStream) {
+        String fileName = replayFile.getFileName().toString();
+        removedFileNames.remove(fileName);
+
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(replayFile, BasicFileAttributes.class);
+        } catch (IOException e) {
+          log.warn("Could not read attributes of replay file `{}`", replayFile, e);
+          continue;
+        }
+
+        LocalReplayIndexEntry existingEntry = entriesByFileName.get(fileName);
+        if (existingEntry != null && existingEntry.fileSize() == attributes.size()
+            && existingEntry.lastModified() == attributes.lastModifiedTime().toMillis()) {
+          continue;
+        }
+
+        changed = true;
+        try {
+          putEntry(readEntry(replayFile, attributes));
+        } catch (Exception e) {
+          log.warn("Could not index replay file `{}`", replayFile, e);
+          removeEntry(fileName);
+          unreadableFiles.add(replayFile);
+        }
+      }
+    }
+
+    if (!removedFileNames.isEmpty()) {
+      removedFileNames.forEach(this::removeEntry);
+      changed = true;
+    }
+
+    if (changed) {
+      scheduleSave();
+    }
+
+    return unreadableFiles;
+  }
+
+  /**
+   * Adds a single replay file that was just written to the replays directory, without looking at any other file. Does
+   * nothing if the file is already indexed and didn't change since.
+   *
+   * @return whether the replay file could be read
+   */
+  public synchronized boolean add(Path replayFile) {
+    loadIfNecessary();
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(replayFile, BasicFileAttributes.class);
+      LocalReplayIndexEntry existingEntry = entriesByFileName.get(replayFile.getFileName().toString());
+      if (existingEntry != null && existingEntry.fileSize() == attributes.size()
+          && existingEntry.lastModified() == attributes.lastModifiedTime().toMillis()) {
+        return true;
+      }
+      putEntry(readEntry(replayFile, attributes));
+    } catch (Exception e) {
+      log.warn("Could not index replay file `{}`", replayFile, e);
+      return false;
+    }
+    scheduleSave();
+    return true;
+  }
+
+  /**
+   * Makes the chat of the specified replay searchable. Does nothing if the replay is not part of the index.
+   */
+  public synchronized void addChatMessages(Path replayFile, Collection<String> messages) {
+    loadIfNecessary();
+    if (!dataPrefs.getReplaysDirectory().equals(replayFile.getParent())) {
+      return;
+    }
+
+    LocalReplayIndexEntry entry = entriesByFileName.get(replayFile.getFileName().toString());
+    Set<String> chatTerms = LocalReplaySearchIndex.toChatTerms(messages);
+    if (entry == null || entry.chatTerms().equals(chatTerms)) {
+      return;
+    }
+
+    putEntry(entry.withChatTerms(chatTerms));
+    scheduleSave();
+  }
+
+  /**
+   * Returns the indexed replays matching the specified query, most recently modified first.
+   */
+  public synchronized List<LocalReplayIndexEntry> search(LocalReplayQuery query) {
+    loadIfNecessary();
+    Set<String> matchingFileNames = searchIndex.search(query);
+    if (matchingFileNames == null) {
+      return getSortedEntries();
+    }
+    return matchingFileNames.stream().map(entriesByFileName::get).sorted(NEWEST_FIRST).toList();
+  }
+
+  /**
+   * Returns all indexed replays, most recently modified first.
+   */
+  public synchronized List<LocalReplayIndexEntry> getEntries() {
+    loadIfNecessary();
+    return getSortedEntries();
+  }
+
+  private List<LocalReplayIndexEntry> getSortedEntries() {
+    if (sortedEntriesSnapshot == null) {
+      sortedEntriesSnapshot = List.copyOf(sortedEntries);
+    }
+    return sortedEntriesSnapshot;
+  }
+
+  private LocalReplayIndexEntry readEntry(Path replayFile,
+                                          BasicFileAttributes attributes) throws IOException, CompressorException {
+    ReplayHeader replayHeader = replayFileReader.readReplayHeader(replayFile);
+    if (replayHeader.metadata() == null) {
+      throw new IOException("Replay file has no metadata: " + replayFile);
+    }
+    return replayMapper.mapToIndexEntry(replayHeader.metadata(), replayHeader.armies(),
+                                        replayFile.getFileName().toString(), attributes.size(),
+                                        attributes.lastModifiedTime().toMillis());
+  }
+
+  private void putEntry(LocalReplayIndexEntry entry) {
+    LocalReplayIndexEntry previousEntry = entriesByFileName.put(entry.fileName(), entry);
+    if (previousEntry != null) {
+      searchIndex.remove(previousEntry);
+      removeSortedEntry(previousEntry);
+    }
+    searchIndex.add(entry);
+    int index = Collections.binarySearch(sortedEntries, entry, NEWEST_FIRST);
+    sortedEntries.add(index < 0 ? -index - 1 : index, entry);
+    sortedEntriesSnapshot = null;
+  }
+
+  private void removeEntry(String fileName) {
+    LocalReplayIndexEntry removedEntry = entriesByFileName.remove(fileName);
+    if (removedEntry != null) {
+      searchIndex.remove(removedEntry);
+      removeSortedEntry(removedEntry);
+    }
+  }
+
+  private void removeSortedEntry(LocalReplayIndexEntry entry) {
+    // File names are unique, so the entry is the only one that compares equal to itself
+    int index = Collections.binarySearch(sortedEntries, entry, NEWEST_FIRST);
+    if (index >= 0) {
+      sortedEntries.remove(index);
+      sortedEntriesSnapshot = null;
+    }
+  }
+
+  private void loadIfNecessary() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+
+    Path indexFile = dataPrefs.getLocalReplayIndexFile();
+    if (Files.notExists(indexFile)) {
+      return;
+    }
+
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(indexFile))) {
+      IndexFile index = objectMapper.readValue(inputStream, IndexFile.class);
+      if (index.version() != INDEX_VERSION) {
+        log.info("Local replay index `{}` has outdated version {}, rebuilding it", indexFile, index.version());
+        return;
+      }
+      index.entries().forEach(this::putEntry);
+      log.debug("Loaded {} entries from local replay index `{}`", entriesByFileName.size(), indexFile);
+    } catch (IOException e) {
+      log.warn("Could not read local replay index `{}`, rebuilding it", indexFile, e);
+      entriesByFileName.clear();
+      searchIndex.clear();
+      sortedEntries.clear();
+      sortedEntriesSnapshot = null;
+    }
+  }
+
+  private void scheduleSave() {
+    dirty = true;
+    if (!saveScheduled) {
+      saveScheduled = true;
+      taskScheduler.schedule(this::saveIfChanged, Instant.now().plus(SAVE_DELAY));
+    }
+  }
+
+  @VisibleForTesting
+  synchronized void saveIfChanged() {
+    saveScheduled = false;
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+
+    Path indexFile = dataPrefs.getLocalReplayIndexFile();
+    try {
+      Files.createDirectories(indexFile.getParent());
+      Path temporaryIndexFile = Files.createTempFile(indexFile.getParent(), "local_replay_index", ".tmp");
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryIndexFile))) {
+        objectMapper.writeValue(outputStream, new IndexFile(INDEX_VERSION, getSortedEntries()));
+      }
+      Files.move(temporaryIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not write local replay index to `{}`", indexFile, e);
+    }
+  }
+
+  record IndexFile(int version, List<LocalReplayIndexEntry> entries) {
+
+    IndexFile {
+      entries = entries == null ? List.of() : entries;
+    }
+  }
+}
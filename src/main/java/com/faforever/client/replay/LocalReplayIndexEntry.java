@@ -0,0 +1,42 @@
+package com.faforever.client.replay;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Summary of a single local replay file as stored in the {@link LocalReplayIndex}. Holds everything needed to show
+ * the replay in the local vault without reading the replay file again.
+ *
+ * @param lastModified last modification time of the replay file in epoch millis
+ * @param startTime start time of the game in python time (seconds since epoch)
+ * @param endTime end time of the game in python time (seconds since epoch)
+ * @param chatTerms lower case words of the chat messages, empty until the replay details have been loaded once
+ */
+public record LocalReplayIndexEntry(
+    String fileName,
+    long fileSize,
+    long lastModified,
+    Integer uid,
+    String title,
+    String mapFolderName,
+    String featuredMod,
+    double startTime,
+    double endTime,
+    List<Player> players,
+    Set<String> chatTerms
+) {
+
+  public LocalReplayIndexEntry {
+    players = players == null ? List.of() : List.copyOf(players);
+    chatTerms = chatTerms == null ? Set.of() : Set.copyOf(chatTerms);
+  }
+
+  public LocalReplayIndexEntry withChatTerms(Set<String> chatTerms) {
+    return new LocalReplayIndexEntry(fileName, fileSize, lastModified, uid, title, mapFolderName, featuredMod,
+                                     startTime, endTime, players, chatTerms);
+  }
+
+  public record Player(
+      Integer id, String name, String country, byte team, int faction, Double mean, Double deviation
+  ) {}
+}
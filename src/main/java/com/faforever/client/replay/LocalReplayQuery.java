@@ -0,0 +1,23 @@
+package com.faforever.client.replay;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Search criteria for the local replay vault. All criteria are optional and combined with AND. Texts are matched case
+ * insensitive against the beginning of player names, map folder names and chat words, the featured mod has to match
+ * exactly.
+ *
+ * @param from only replays of games that started at or after this time
+ * @param to only replays of games that started at or before this time
+ * @param chatText every word of it has to appear in the chat of the replay
+ */
+public record LocalReplayQuery(
+    @Nullable String playerName,
+    @Nullable String mapFolderName,
+    @Nullable String featuredMod,
+    @Nullable OffsetDateTime from,
+    @Nullable OffsetDateTime to,
+    @Nullable String chatText
+) {}
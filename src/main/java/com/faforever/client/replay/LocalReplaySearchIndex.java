@@ -0,0 +1,146 @@
+package com.faforever.client.replay;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over the entries of the {@link LocalReplayIndex}, mapping player names, map folder names, featured
+ * mods, start times and chat words to the file names of the replays they appear in. Not thread safe, access is guarded
+ * by the owning {@link LocalReplayIndex}.
+ */
+final class LocalReplaySearchIndex {
+
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+
+  private final NavigableMap<String, Set<String>> fileNamesByPlayerName = new TreeMap<>();
+  private final NavigableMap<String, Set<String>> fileNamesByMapFolderName = new TreeMap<>();
+  private final NavigableMap<String, Set<String>> fileNamesByFeaturedMod = new TreeMap<>();
+  private final NavigableMap<String, Set<String>> fileNamesByChatTerm = new TreeMap<>();
+  private final NavigableMap<Double, Set<String>> fileNamesByStartTime = new TreeMap<>();
+
+  static Set<String> toChatTerms(Collection<String> messages) {
+    return messages.stream()
+                   .flatMap(message -> Arrays.stream(WORD_SEPARATOR.split(normalize(message))))
+                   .filter(term -> !term.isEmpty())
+                   .collect(Collectors.toSet());
+  }
+
+  private static String normalize(String text) {
+    return text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  void add(LocalReplayIndexEntry entry) {
+    String fileName = entry.fileName();
+    entry.players()
+         .stream()
+         .filter(player -> player.name() != null)
+         .forEach(player -> put(fileNamesByPlayerName, normalize(player.name()), fileName));
+    if (entry.mapFolderName() != null) {
+      put(fileNamesByMapFolderName, normalize(entry.mapFolderName()), fileName);
+    }
+    if (entry.featuredMod() != null) {
+      put(fileNamesByFeaturedMod, normalize(entry.featuredMod()), fileName);
+    }
+    entry.chatTerms().forEach(term -> put(fileNamesByChatTerm, term, fileName));
+    put(fileNamesByStartTime, entry.startTime(), fileName);
+  }
+
+  void remove(LocalReplayIndexEntry entry) {
+    String fileName = entry.fileName();
+    entry.players()
+         .stream()
+         .filter(player -> player.name() != null)
+         .forEach(player -> remove(fileNamesByPlayerName, normalize(player.name()), fileName));
+    if (entry.mapFolderName() != null) {
+      remove(fileNamesByMapFolderName, normalize(entry.mapFolderName()), fileName);
+    }
+    if (entry.featuredMod() != null) {
+      remove(fileNamesByFeaturedMod, normalize(entry.featuredMod()), fileName);
+    }
+    entry.chatTerms().forEach(term -> remove(fileNamesByChatTerm, term, fileName));
+    remove(fileNamesByStartTime, entry.startTime(), fileName);
+  }
+
+  void clear() {
+    fileNamesByPlayerName.clear();
+    fileNamesByMapFolderName.clear();
+    fileNamesByFeaturedMod.clear();
+    fileNamesByChatTerm.clear();
+    fileNamesByStartTime.clear();
+  }
+
+  /**
+   * Returns the file names of the replays matching the specified query, or {@code null} if the query has no criteria
+   * and therefore matches everything.
+   */
+  @Nullable
+  Set<String> search(LocalReplayQuery query) {
+    Set<String> result = null;
+
+    if (query.playerName() != null && !query.playerName().isBlank()) {
+      result = intersect(result, prefixMatches(fileNamesByPlayerName, normalize(query.playerName())));
+    }
+    if (query.mapFolderName() != null && !query.mapFolderName().isBlank()) {
+      result = intersect(result, prefixMatches(fileNamesByMapFolderName, normalize(query.mapFolderName())));
+    }
+    if (query.featuredMod() != null && !query.featuredMod().isBlank()) {
+      result = intersect(result, fileNamesByFeaturedMod.getOrDefault(normalize(query.featuredMod()), Set.of()));
+    }
+    if (query.from() != null || query.to() != null) {
+      double from = query.from() != null ? query.from().toInstant().toEpochMilli() / 1000d : Double.NEGATIVE_INFINITY;
+      double to = query.to() != null ? query.to().toInstant().toEpochMilli() / 1000d : Double.POSITIVE_INFINITY;
+      result = intersect(result, union(fileNamesByStartTime.subMap(from, true, to, true)));
+    }
+    if (query.chatText() != null && !query.chatText().isBlank()) {
+      for (String term : toChatTerms(Set.of(query.chatText()))) {
+        result = intersect(result, prefixMatches(fileNamesByChatTerm, term));
+      }
+    }
+
+    return result;
+  }
+
+  private static Set<String> prefixMatches(NavigableMap<String, Set<String>> index, String prefix) {
+    return union(index.subMap(prefix, true, prefix + Character.MAX_VALUE, false));
+  }
+
+  private static Set<String> union(Map<?, Set<String>> matches) {
+    if (matches.size() == 1) {
+      return matches.values().iterator().next();
+    }
+    return matches.values().stream().flatMap(Collection::stream).collect(Collectors.toSet());
+  }
+
+  private static Set<String> intersect(@Nullable Set<String> result, Set<String> matches) {
+    if (result == null) {
+      return new HashSet<>(matches);
+    }
+    result.retainAll(matches);
+    return result;
+  }
+
+  private static <K> void put(NavigableMap<K, Set<String>> index, K key, String fileName) {
+    index.computeIfAbsent(key, ignored -> new HashSet<>()).add(fileName);
+  }
+
+  private static <K> void remove(NavigableMap<K, Set<String>> index, K key, String fileName) {
+    Set<String> fileNames = index.get(key);
+    if (fileNames == null) {
+      return;
+    }
+    fileNames.remove(fileName);
+    if (fileNames.isEmpty()) {
+      index.remove(key);
+    }
+  }
+}
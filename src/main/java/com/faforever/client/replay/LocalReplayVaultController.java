@@ -8,12 +8,15 @@ import com.faforever.client.main.event.NavigateEvent;
 import com.faforever.client.main.event.OpenLocalReplayVaultEvent;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.VaultPrefs;
+import com.faforever.client.query.DateRangeFilterController;
 import com.faforever.client.query.SearchablePropertyMappings;
+import com.faforever.client.query.TextFilterController;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.vault.VaultEntityController;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.faforever.commons.api.dto.Game;
+import com.google.common.base.Strings;
 import javafx.scene.Node;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -21,7 +24,12 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -32,7 +40,11 @@ public class LocalReplayVaultController extends VaultEntityController<Replay> {
   private final VaultPrefs vaultPrefs;
 
   private ReplayDetailController replayDetailController;
-
+  private TextFilterController playerNameFilterController;
+  private TextFilterController mapFolderNameFilterController;
+  private TextFilterController featuredModFilterController;
+  private TextFilterController chatTextFilterController;
+  private DateRangeFilterController dateFilterController;
 
   public LocalReplayVaultController(ReplayService replayService, UiService uiService,
                                     NotificationService notificationService, I18n i18n,
@@ -50,6 +62,9 @@ public class LocalReplayVaultController extends VaultEntityController<Replay> {
 
     backButton.visibleProperty().unbind();
     backButton.setVisible(false);
+
+    manageVaultButton.setVisible(true);
+    manageVaultButton.setText(i18n.get("replayVault.verifyReplays"));
   }
 
   @Override
@@ -70,15 +85,45 @@ public class LocalReplayVaultController extends VaultEntityController<Replay> {
     state.set(State.RESULT);
   }
 
+  /**
+   * Loads all local replays when showing the vault and only the ones matching the search filters after a search.
+   */
   @Override
   protected void setSupplier(SearchConfig searchConfig) {
+    int page = pagination.getCurrentPageIndex() + 1;
+    LocalReplayQuery query = searchConfig == null ? null : getLocalReplayQuery();
     try {
-      currentSupplier = replayService.loadLocalReplayPage(pageSize, pagination.getCurrentPageIndex() + 1);
+      currentSupplier = query == null ? replayService.loadLocalReplayPage(pageSize, page)
+          : replayService.searchLocalReplays(query, pageSize, page);
     } catch (IOException e) {
       log.error("Could not load local replays", e);
     }
   }
 
+  /**
+   * Returns the query for the current search filters or {@code null} if no filter is set.
+   */
+  private LocalReplayQuery getLocalReplayQuery() {
+    LocalReplayQuery query = new LocalReplayQuery(getText(playerNameFilterController),
+                                                  getText(mapFolderNameFilterController),
+                                                  getText(featuredModFilterController),
+                                                  toDateTime(dateFilterController.afterDateProperty().get()),
+                                                  toDateTime(dateFilterController.beforeDateProperty().get()),
+                                                  getText(chatTextFilterController));
+    boolean anyCriteria = Stream.of(query.playerName(), query.mapFolderName(), query.featuredMod(), query.from(),
+                                    query.to(), query.chatText()).anyMatch(Objects::nonNull);
+    return anyCriteria ? query : null;
+  }
+
+  private static String getText(TextFilterController textFilterController) {
+    return Strings.emptyToNull(Strings.nullToEmpty(textFilterController.textFieldProperty().get()).strip());
+  }
+
+  private static OffsetDateTime toDateTime(LocalDate date) {
+    // Same as the date range filter's query, which uses the start of the day in UTC
+    return date == null ? null : date.atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
   @Override
   protected ReplayCardController createEntityCard() {
     ReplayCardController controller = uiService.loadFxml("theme/vault/replay/replay_card.fxml");
@@ -98,7 +143,19 @@ public class LocalReplayVaultController extends VaultEntityController<Replay> {
 
   @Override
   protected void onManageVaultButtonClicked() {
-    // do nothing
+    manageVaultButton.setDisable(true);
+    replayService.verifyLocalReplays().whenComplete((movedReplays, throwable) -> {
+      if (throwable != null) {
+        log.error("Could not verify local replays", throwable);
+        notificationService.addImmediateErrorNotification(throwable, "replayVerification.failed");
+      }
+      fxApplicationThreadExecutor.execute(() -> {
+        manageVaultButton.setDisable(false);
+        if (movedReplays != null && movedReplays > 0) {
+          onPageChange(searchController.getLastSearchConfig(), false);
+        }
+      });
+    });
   }
 
   @Override
@@ -113,7 +170,16 @@ public class LocalReplayVaultController extends VaultEntityController<Replay> {
     searchController.setRootType(Game.class);
     searchController.setSearchableProperties(SearchablePropertyMappings.GAME_PROPERTY_MAPPING);
     searchController.setSortConfig(vaultPrefs.onlineReplaySortConfigProperty());
-    searchController.setOnlyShowLastYearCheckBoxVisible(true);
+    searchController.setOnlyShowLastYearCheckBoxVisible(false);
+
+    playerNameFilterController = searchController.addTextFilter("playerStats.player.login",
+                                                                i18n.get("game.player.username"), false);
+    mapFolderNameFilterController = searchController.addTextFilter("mapVersion.folderName",
+                                                                   i18n.get("game.map.folderName"), false);
+    featuredModFilterController = searchController.addTextFilter("featuredMod.technicalName",
+                                                                 i18n.get("featuredMod.technicalName"), true);
+    dateFilterController = searchController.addDateRangeFilter("startTime", i18n.get("game.date"), 0);
+    chatTextFilterController = searchController.addTextFilter("chat", i18n.get("game.chat"), false);
   }
 
   @Override
@@ -0,0 +1,126 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.task.TaskService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of downloaded online replays. Replays on the server never change once they are uploaded, so a replay is stored
+ * under its id and never downloaded again as long as it is in the cache. The last modification time of a cached file is
+ * updated whenever it is used, which makes it the access time for the least recently used eviction.
+ */
+@Lazy
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReplayCache {
+
+  private static final String REPLAY_FILE_EXTENSION = ".fafreplay";
+
+  private final ClientProperties clientProperties;
+  private final DataPrefs dataPrefs;
+  private final TaskService taskService;
+  private final ObjectFactory<ReplayDownloadTask> replayDownloadTaskFactory;
+
+  private final Map<Integer, CompletableFuture<Path>> inFlightDownloads = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cached file of the specified replay, downloading it first if it isn't cached yet. Concurrent calls for
+   * the same replay share the same download.
+   */
+  public CompletableFuture<Path> getReplayFile(int replayId) {
+    Path replayFile = dataPrefs.getReplayCacheDirectory().resolve(replayId + REPLAY_FILE_EXTENSION);
+    if (Files.exists(replayFile)) {
+      try {
+        Files.setLastModifiedTime(replayFile, FileTime.fromMillis(System.currentTimeMillis()));
+        log.debug("Using cached replay `{}`", replayFile);
+        return CompletableFuture.completedFuture(replayFile);
+      } catch (IOException e) {
+        log.warn("Could not touch cached replay `{}`, downloading it again", replayFile, e);
+      }
+    }
+
+    CompletableFuture<Path> download = new CompletableFuture<>();
+    CompletableFuture<Path> inFlightDownload = inFlightDownloads.putIfAbsent(replayId, download);
+    if (inFlightDownload != null) {
+      return inFlightDownload;
+    }
+
+    ReplayDownloadTask task = replayDownloadTaskFactory.getObject();
+    task.setReplayId(replayId);
+    task.setTargetFile(replayFile);
+    taskService.submitTask(task).getFuture().whenComplete((path, throwable) -> {
+      inFlightDownloads.remove(replayId, download);
+      if (throwable != null) {
+        download.completeExceptionally(throwable);
+        return;
+      }
+      evictIfNecessary(path);
+      download.complete(path);
+    });
+    return download;
+  }
+
+  /**
+   * Deletes the least recently used replays until the cache fits into its size budget again.
+   */
+  private void evictIfNecessary(Path keep) {
+    Path cacheDirectory = dataPrefs.getReplayCacheDirectory();
+    long sizeBudget = clientProperties.getReplay().getCacheSizeBytes();
+
+    List<CachedReplay> cachedReplays = new ArrayList<>();
+    long totalSize = 0;
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(cacheDirectory,
+                                                                          "*" + REPLAY_FILE_EXTENSION)) {
+      for (Path replayFile : directoryStream) {
+        BasicFileAttributes attributes = Files.readAttributes(replayFile, BasicFileAttributes.class);
+        cachedReplays.add(new CachedReplay(replayFile, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        totalSize += attributes.size();
+      }
+    } catch (IOException e) {
+      log.warn("Could not list cached replays in `{}`", cacheDirectory, e);
+      return;
+    }
+
+    if (totalSize <= sizeBudget) {
+      return;
+    }
+
+    cachedReplays.sort(Comparator.comparingLong(CachedReplay::lastUsed));
+    for (CachedReplay cachedReplay : cachedReplays) {
+      if (totalSize <= sizeBudget) {
+        break;
+      }
+      if (cachedReplay.file().equals(keep)) {
+        continue;
+      }
+      try {
+        Files.delete(cachedReplay.file());
+        totalSize -= cachedReplay.size();
+        log.debug("Evicted cached replay `{}`", cachedReplay.file());
+      } catch (IOException e) {
+        log.warn("Could not evict cached replay `{}`", cachedReplay.file(), e);
+      }
+    }
+  }
+
+  private record CachedReplay(Path file, long size, long lastUsed) {}
+}
@@ -0,0 +1,127 @@
+package com.faforever.client.replay;
+
+import com.google.common.io.LittleEndianDataInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Pull decoder for the command stream of an uncompressed SupCom replay, which follows the header read by
+ * {@link SupComReplayHeaderParser}. Every call to {@link #next()} reads one operation. Payloads are skipped except for
+ * the few bytes needed to keep track of the current tick and command source, so decoding allocates nothing per
+ * operation and needs constant memory regardless of the length of the replay.
+ */
+final class ReplayCommandStreamDecoder {
+
+  static final int ADVANCE = 0;
+  static final int SET_COMMAND_SOURCE = 1;
+  static final int COMMAND_SOURCE_TERMINATED = 2;
+  static final int VERIFY_CHECKSUM = 3;
+  static final int REQUEST_PAUSE = 4;
+  static final int RESUME = 5;
+  static final int SINGLE_STEP = 6;
+  static final int CREATE_UNIT = 7;
+  static final int CREATE_PROP = 8;
+  static final int DESTROY_ENTITY = 9;
+  static final int WARP_ENTITY = 10;
+  static final int PROCESS_INFO_PAIR = 11;
+  static final int ISSUE_COMMAND = 12;
+  static final int ISSUE_FACTORY_COMMAND = 13;
+  static final int INCREASE_COMMAND_COUNT = 14;
+  static final int DECREASE_COMMAND_COUNT = 15;
+  static final int SET_COMMAND_TARGET = 16;
+  static final int SET_COMMAND_TYPE = 17;
+  static final int SET_COMMAND_CELLS = 18;
+  static final int REMOVE_COMMAND_FROM_QUEUE = 19;
+  static final int DEBUG_COMMAND = 20;
+  static final int EXECUTE_LUA_IN_SIM = 21;
+  static final int LUA_SIM_CALLBACK = 22;
+  static final int END_GAME = 23;
+
+  /**
+   * Size of the operation type and the operation length, which counts itself and the type as well.
+   */
+  private static final int OPERATION_HEADER_SIZE = 3;
+
+  private final LittleEndianDataInputStream dataStream;
+
+  private int operationType = -1;
+  private int tick;
+  private int commandSource = -1;
+
+  /**
+   * @param inputStream the replay data, positioned right behind the replay header. Should be buffered since the
+   * decoder reads only a few bytes at a time.
+   */
+  ReplayCommandStreamDecoder(InputStream inputStream) {
+    this.dataStream = new LittleEndianDataInputStream(inputStream);
+  }
+
+  /**
+   * Whether the specified operation is an order given by a player, as opposed to bookkeeping of the game itself. These
+   * are the operations that count as actions.
+   */
+  static boolean isPlayerCommand(int operationType) {
+    return switch (operationType) {
+      case ISSUE_COMMAND, ISSUE_FACTORY_COMMAND, INCREASE_COMMAND_COUNT, DECREASE_COMMAND_COUNT, SET_COMMAND_TARGET,
+           SET_COMMAND_TYPE, SET_COMMAND_CELLS, REMOVE_COMMAND_FROM_QUEUE, LUA_SIM_CALLBACK -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Reads the next operation.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   * @throws java.io.EOFException if the stream ends in the middle of an operation, e.g. for an incomplete replay
+   */
+  boolean next() throws IOException {
+    int type = dataStream.read();
+    if (type == -1) {
+      return false;
+    }
+
+    int payloadLength = dataStream.readUnsignedShort() - OPERATION_HEADER_SIZE;
+    switch (type) {
+      case ADVANCE -> {
+        tick += dataStream.readInt();
+        payloadLength -= Integer.BYTES;
+      }
+      case SET_COMMAND_SOURCE -> {
+        commandSource = dataStream.readUnsignedByte();
+        payloadLength -= Byte.BYTES;
+      }
+      default -> {}
+    }
+
+    if (payloadLength < 0) {
+      throw new IOException("Invalid length of replay operation " + type + " at tick " + tick);
+    }
+    dataStream.skipNBytes(payloadLength);
+
+    operationType = type;
+    return true;
+  }
+
+  /**
+   * The type of the operation last read by {@link #next()}, one of the constants of this class.
+   */
+  int operationType() {
+    return operationType;
+  }
+
+  /**
+   * The game tick of the operation last read by {@link #next()}. The game runs at 10 ticks per second.
+   */
+  int tick() {
+    return tick;
+  }
+
+  /**
+   * The id of the command source that issued the operation last read by {@link #next()}, or {@code -1} if none has
+   * been set yet.
+   */
+  int commandSource() {
+    return commandSource;
+  }
+}
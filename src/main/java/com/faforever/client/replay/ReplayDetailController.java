@@ -32,6 +32,7 @@ import com.faforever.client.notification.NotificationService;
 import com.faforever.client.notification.Severity;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.rating.RatingService;
+import com.faforever.client.replay.ReplayStatistics.PlayerStatistics;
 import com.faforever.client.reporting.ReportDialogController;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.util.ClipboardUtil;
@@ -141,6 +142,11 @@ public class ReplayDetailController extends NodeController<Node> {
   public TableView<GameOption> optionsTable;
   public TableColumn<GameOption, String> optionKeyColumn;
   public TableColumn<GameOption, String> optionValueColumn;
+  public Label playerStatisticsLabel;
+  public TableView<PlayerStatistics> playerStatisticsTable;
+  public TableColumn<PlayerStatistics, String> playerStatisticsNameColumn;
+  public TableColumn<PlayerStatistics, Integer> playerStatisticsCommandsColumn;
+  public TableColumn<PlayerStatistics, Double> playerStatisticsApmColumn;
   public Button downloadMoreInfoButton;
   public Pane moreInformationPane;
   public ImageView mapThumbnailImageView;
@@ -159,7 +165,8 @@ public class ReplayDetailController extends NodeController<Node> {
     JavaFxUtil.bindManagedToVisible(downloadMoreInfoButton, moreInformationPane, teamsInfoBox, reviewsContainer,
                                     ratingSeparator, reviewSeparator, deleteButton, getRoot());
 
-    JavaFxUtil.bindManagedToVisible(notRatedReasonLabel, showRatingChangeButton);
+    JavaFxUtil.bindManagedToVisible(notRatedReasonLabel, showRatingChangeButton, playerStatisticsLabel,
+                                    playerStatisticsTable);
     contextMenuBuilder.addCopyLabelContextMenu(onMapLabel, titleLabel);
     JavaFxUtil.fixScrollSpeed(scrollPane);
 
@@ -272,7 +279,16 @@ public class ReplayDetailController extends NodeController<Node> {
         replay.map(Replay::chatMessages).map(Collection::isEmpty)).not();
     BooleanExpression hasGameOptions = BooleanExpression.booleanExpression(
         replay.map(Replay::gameOptions).map(Collection::isEmpty)).not();
-    moreInformationPane.visibleProperty().bind(Bindings.or(hasChatMessages, hasGameOptions).when(showing));
+    ObservableValue<List<PlayerStatistics>> playerStatistics = replay.map(Replay::statistics)
+                                                                     .map(ReplayStatistics::players)
+                                                                     .orElse(List.of());
+    BooleanExpression hasPlayerStatistics = BooleanExpression.booleanExpression(
+        playerStatistics.map(Collection::isEmpty)).not();
+    moreInformationPane.visibleProperty()
+                       .bind(Bindings.or(hasChatMessages, hasGameOptions).or(hasPlayerStatistics).when(showing));
+    playerStatisticsLabel.visibleProperty().bind(hasPlayerStatistics.when(showing));
+    playerStatisticsTable.visibleProperty().bind(hasPlayerStatistics.when(showing));
+    playerStatisticsTable.itemsProperty().bind(playerStatistics.map(FXCollections::observableList).when(showing));
 
     ratingSeparator.visibleProperty().bind(reviewsContainer.visibleProperty().when(showing));
     reviewSeparator.visibleProperty().bind(reviewsContainer.visibleProperty().when(showing));
@@ -336,6 +352,17 @@ public class ReplayDetailController extends NodeController<Node> {
 
     optionValueColumn.setCellValueFactory(param -> new SimpleStringProperty(param.getValue().value()));
     optionValueColumn.setCellFactory(param -> new StringCell<>(String::toString));
+
+    playerStatisticsNameColumn.setCellValueFactory(param -> new SimpleStringProperty(param.getValue().playerName()));
+    playerStatisticsNameColumn.setCellFactory(param -> new StringCell<>(String::toString));
+
+    playerStatisticsCommandsColumn.setCellValueFactory(
+        param -> new SimpleObjectProperty<>(param.getValue().commandCount()));
+    playerStatisticsCommandsColumn.setCellFactory(param -> new StringCell<>(i18n::number));
+
+    playerStatisticsApmColumn.setCellValueFactory(
+        param -> new SimpleObjectProperty<>(param.getValue().actionsPerMinute()));
+    playerStatisticsApmColumn.setCellFactory(param -> new StringCell<>(apm -> i18n.rounded(apm, 1)));
   }
 
   private void initializeReviewsController() {
@@ -3,10 +3,18 @@ package com.faforever.client.replay;
 import com.faforever.client.domain.api.MapVersion;
 import com.faforever.client.domain.api.Replay.ChatMessage;
 import com.faforever.client.domain.api.Replay.GameOption;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
-public record ReplayDetails(List<ChatMessage> chatMessages, List<GameOption> gameOptions, MapVersion mapVersion) {
+/**
+ * @param statistics duration and commands per player computed from the command stream, {@code null} if the command
+ * stream could not be decoded
+ */
+public record ReplayDetails(
+    List<ChatMessage> chatMessages, List<GameOption> gameOptions, MapVersion mapVersion,
+    @Nullable ReplayStatistics statistics
+) {
 
   public ReplayDetails {
     chatMessages = List.copyOf(chatMessages);
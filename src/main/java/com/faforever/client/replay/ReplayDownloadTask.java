@@ -2,7 +2,6 @@ package com.faforever.client.replay;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.commons.io.ByteCopier;
 import lombok.extern.slf4j.Slf4j;
@@ -19,27 +18,25 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Slf4j
 public class ReplayDownloadTask extends CompletableTask<Path> {
 
-  private static final String TEMP_FAF_REPLAY_FILE_NAME = "temp.fafreplay";
-
   private final I18n i18n;
   private final ClientProperties clientProperties;
-  private final DataPrefs dataPrefs;
 
   private int replayId;
+  private Path targetFile;
 
   @Autowired
-  public ReplayDownloadTask(I18n i18n, ClientProperties clientProperties, DataPrefs dataPrefs) {
+  public ReplayDownloadTask(I18n i18n, ClientProperties clientProperties) {
     super(Priority.HIGH);
 
     this.i18n = i18n;
     this.clientProperties = clientProperties;
-    this.dataPrefs = dataPrefs;
   }
 
   @Override
@@ -54,25 +51,33 @@ public class ReplayDownloadTask extends CompletableTask<Path> {
     urlConnection.setInstanceFollowRedirects(true);
     int bytesToRead = urlConnection.getContentLength();
 
-    Path tempSupComReplayFile = dataPrefs.getCacheDirectory().resolve(TEMP_FAF_REPLAY_FILE_NAME);
-
-    Files.createDirectories(tempSupComReplayFile.getParent());
-
-    try (InputStream inputStream = new BufferedInputStream(urlConnection.getInputStream());
-         OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempSupComReplayFile))) {
-
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(bytesToRead)
-          .listener(this::updateProgress)
-          .copy();
-
-      return tempSupComReplayFile;
+    Files.createDirectories(targetFile.getParent());
+    // Download next to the target so a half downloaded replay never shows up under its final name
+    Path temporaryReplayFile = Files.createTempFile(targetFile.getParent(), String.valueOf(replayId), ".part");
+
+    try {
+      try (InputStream inputStream = new BufferedInputStream(urlConnection.getInputStream());
+           OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryReplayFile))) {
+
+        ByteCopier.from(inputStream)
+            .to(outputStream)
+            .totalBytes(bytesToRead)
+            .listener(this::updateProgress)
+            .copy();
+      }
+
+      Files.move(temporaryReplayFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return targetFile;
+    } finally {
+      Files.deleteIfExists(temporaryReplayFile);
     }
   }
 
-
   public void setReplayId(int replayId) {
     this.replayId = replayId;
   }
+
+  public void setTargetFile(Path targetFile) {
+    this.targetFile = targetFile;
+  }
 }
@@ -13,4 +13,25 @@ public interface ReplayFileReader {
    * executed commands and so on.
    */
   ReplayDataParser parseReplay(Path path) throws IOException, CompressorException;
+
+  /**
+   * Reads only the header of the specified file, that is the metadata of a {@code .fafreplay} and the header of the
+   * contained SupCom replay. Only as much of the replay data is decompressed as needed to read the header, the replay
+   * body is never held in memory.
+   */
+  ReplayHeader readReplayHeader(Path path) throws IOException, CompressorException;
+
+  /**
+   * Decompresses the SupCom replay contained in the specified {@code .fafreplay} file into the target file, which is
+   * replaced if it exists. The replay data is streamed through a fixed size buffer and never held in memory as a whole.
+   *
+   * @return the header of the extracted replay
+   */
+  ReplayHeader extractReplayData(Path fafReplayFile, Path targetFile) throws IOException, CompressorException;
+
+  /**
+   * Decodes the command stream of the specified uncompressed SupCom replay data, like {@link ReplayDataParser#getData()},
+   * in a single pass and computes the duration of the game and how many commands each player issued.
+   */
+  ReplayStatistics readReplayStatistics(byte[] replayData) throws IOException;
 }
@@ -1,21 +1,47 @@
 package com.faforever.client.replay;
 
+import com.faforever.client.replay.ReplayStatistics.PlayerStatistics;
 import com.faforever.commons.replay.ReplayDataParser;
+import com.faforever.commons.replay.ReplayMetadata;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
 
 @Lazy
 @Component
 @Slf4j
 public class ReplayFileReaderImpl implements ReplayFileReader {
 
+  /**
+   * Length of the big endian uncompressed size that {@code qCompress} puts in front of the zlib stream.
+   */
+  private static final int QT_COMPRESS_LENGTH_PREFIX_SIZE = 4;
+
+  private static final double TICKS_PER_MINUTE = 60.0 * ReplayStatistics.TICKS_PER_SECOND;
+
   private final ObjectMapper objectMapper = new ObjectMapper()
       .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
@@ -23,4 +49,144 @@ public class ReplayFileReaderImpl implements ReplayFileReader {
   public ReplayDataParser parseReplay(Path path) throws IOException, CompressorException {
     return new ReplayDataParser(path, objectMapper);
   }
+
+  @Override
+  public ReplayHeader readReplayHeader(Path path) throws IOException, CompressorException {
+    try {
+      return readHeaderOnly(path);
+    } catch (IOException | CompressorException | RuntimeException e) {
+      log.debug("Could not read header of replay `{}`, falling back to parsing the whole replay", path, e);
+      return toReplayHeader(parseReplay(path));
+    }
+  }
+
+  @Override
+  public ReplayHeader extractReplayData(Path fafReplayFile,
+                                        Path targetFile) throws IOException, CompressorException {
+    ReplayMetadata metadata;
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(fafReplayFile))) {
+      JsonNode metadataNode = objectMapper.readTree(readLine(inputStream));
+      metadata = objectMapper.treeToValue(metadataNode, ReplayMetadata.class);
+      CompressionType compressionType = CompressionType.fromString(metadataNode.path("compression").textValue());
+
+      Files.createDirectories(targetFile.getParent());
+      try (InputStream replayDataStream = openReplayDataStream(inputStream, compressionType);
+           OutputStream outputStream = Files.newOutputStream(targetFile)) {
+        replayDataStream.transferTo(outputStream);
+      }
+    }
+
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(targetFile))) {
+      return SupComReplayHeaderParser.parse(metadata, inputStream);
+    } catch (IOException | RuntimeException e) {
+      log.debug("Could not read header of extracted replay `{}`, falling back to parsing the whole replay", targetFile,
+                e);
+      return toReplayHeader(parseReplay(fafReplayFile));
+    }
+  }
+
+  @Override
+  public ReplayStatistics readReplayStatistics(byte[] replayData) throws IOException {
+    InputStream replayDataStream = new ByteArrayInputStream(replayData);
+    List<String> commandSources = new ArrayList<>();
+    SupComReplayHeaderParser.parse(null, replayDataStream, commandSources);
+
+    int[] commandCounts = new int[commandSources.size()];
+    int[] terminationTicks = new int[commandSources.size()];
+    Arrays.fill(terminationTicks, -1);
+
+    ReplayCommandStreamDecoder decoder = new ReplayCommandStreamDecoder(replayDataStream);
+    try {
+      while (decoder.next()) {
+        int commandSource = decoder.commandSource();
+        if (commandSource < 0 || commandSource >= commandSources.size()) {
+          continue;
+        }
+
+        int operationType = decoder.operationType();
+        if (ReplayCommandStreamDecoder.isPlayerCommand(operationType)) {
+          commandCounts[commandSource]++;
+        } else if (operationType == ReplayCommandStreamDecoder.COMMAND_SOURCE_TERMINATED
+            && terminationTicks[commandSource] == -1) {
+          terminationTicks[commandSource] = decoder.tick();
+        }
+      }
+    } catch (EOFException e) {
+      log.debug("Replay ends in the middle of an operation, using the statistics up to tick {}", decoder.tick());
+    }
+
+    int ticks = decoder.tick();
+    List<PlayerStatistics> players = new ArrayList<>();
+    for (int i = 0; i < commandSources.size(); i++) {
+      if (commandCounts[i] == 0) {
+        continue;
+      }
+      int activeTicks = terminationTicks[i] == -1 ? ticks : terminationTicks[i];
+      double actionsPerMinute = activeTicks == 0 ? 0 : commandCounts[i] * TICKS_PER_MINUTE / activeTicks;
+      players.add(new PlayerStatistics(commandSources.get(i), commandCounts[i], actionsPerMinute));
+    }
+    return new ReplayStatistics(ticks, players);
+  }
+
+  private boolean isSupComReplay(Path path) {
+    return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(ReplayService.SUP_COM_REPLAY_FILE_ENDING);
+  }
+
+  private ReplayHeader readHeaderOnly(Path path) throws IOException, CompressorException {
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+      if (isSupComReplay(path)) {
+        return SupComReplayHeaderParser.parse(null, inputStream);
+      }
+
+      JsonNode metadataNode = objectMapper.readTree(readLine(inputStream));
+      ReplayMetadata metadata = objectMapper.treeToValue(metadataNode, ReplayMetadata.class);
+      CompressionType compressionType = CompressionType.fromString(metadataNode.path("compression").textValue());
+
+      try (InputStream replayDataStream = openReplayDataStream(inputStream, compressionType)) {
+        return SupComReplayHeaderParser.parse(metadata, replayDataStream);
+      }
+    }
+  }
+
+  /**
+   * Returns a stream of the uncompressed SupCom replay data, reading from the specified stream which must be positioned
+   * right after the metadata line of a {@code .fafreplay} file.
+   */
+  InputStream openReplayDataStream(InputStream inputStream,
+                                   CompressionType compressionType) throws IOException, CompressorException {
+    return switch (compressionType) {
+      case QTCOMPRESS -> {
+        InputStream decodedStream = Base64.getMimeDecoder().wrap(inputStream);
+        decodedStream.skipNBytes(QT_COMPRESS_LENGTH_PREFIX_SIZE);
+        yield new InflaterInputStream(decodedStream);
+      }
+      case ZSTD -> new CompressorStreamFactory().createCompressorInputStream(CompressorStreamFactory.getZstandard(),
+                                                                              inputStream);
+      case UNKNOWN -> throw new CompressorException("Unknown replay compression");
+    };
+  }
+
+  private byte[] readLine(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int next;
+    while ((next = inputStream.read()) != '\n') {
+      if (next == -1) {
+        throw new EOFException("Replay file ended before the end of its metadata");
+      }
+      line.write(next);
+    }
+    return line.toByteArray();
+  }
+
+  private ReplayHeader toReplayHeader(ReplayDataParser parser) {
+    Map<String, Object> gameOptions = new HashMap<>();
+    parser.getGameOptions().forEach(gameOption -> gameOptions.put(gameOption.getKey(), gameOption.getValue()));
+    List<Map<String, Object>> armies = parser.getArmies()
+                                             .values()
+                                             .stream()
+                                             .<Map<String, Object>>map(HashMap::new)
+                                             .toList();
+    return new ReplayHeader(parser.getMetadata(), parser.getReplayPatchFieldId(), parser.getMap(), gameOptions,
+                            ReplayService.parseModUIDs(parser), armies);
+  }
 }
@@ -2,10 +2,14 @@ package com.faforever.client.replay;
 
 import com.faforever.commons.replay.ReplayMetadata;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 
 public interface ReplayFileWriter {
 
-  void writeReplayDataToFile(ByteArrayOutputStream replayData, ReplayMetadata replayInfo) throws IOException;
+  /**
+   * Writes the raw replay stream stored in the specified file as {@code .fafreplay} into the replays directory. The
+   * source file is left untouched.
+   */
+  void writeReplayDataToFile(Path replayDataFile, ReplayMetadata replayInfo) throws IOException;
 }
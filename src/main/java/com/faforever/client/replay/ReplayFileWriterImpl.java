@@ -3,62 +3,88 @@ package com.faforever.client.replay;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.preferences.DataPrefs;
 import com.faforever.commons.io.Bytes;
-import com.faforever.commons.replay.QtCompress;
 import com.faforever.commons.replay.ReplayMetadata;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
-import com.google.common.io.BaseEncoding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.Base64;
 import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
+/**
+ * Writes replays as {@code .fafreplay}: one line of JSON metadata followed by the base64 encoded {@code qCompress}ed
+ * replay data. The replay data is streamed through deflate and base64 straight into the file, so memory usage doesn't
+ * depend on the size of the replay.
+ */
 @Lazy
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ReplayFileWriterImpl implements ReplayFileWriter {
 
+  private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
   private final ObjectMapper objectMapper = new ObjectMapper()
       .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
 
   private final ClientProperties clientProperties;
   private final DataPrefs dataPrefs;
+  private final LocalReplayIndex localReplayIndex;
 
   @Override
-  public void writeReplayDataToFile(ByteArrayOutputStream replayData, ReplayMetadata replayInfo) throws IOException {
+  public void writeReplayDataToFile(Path replayDataFile, ReplayMetadata replayInfo) throws IOException {
+    long replayDataSize = Files.size(replayDataFile);
     String fileName = String.format(clientProperties.getReplay().getReplayFileFormat(), replayInfo.getUid(), replayInfo.getRecorder());
     Path replayFile = dataPrefs.getReplaysDirectory().resolve(fileName);
     Path temporaryReplayFile = Files.createTempFile(dataPrefs.getCacheDirectory(), fileName, "fafreplay");
 
-    log.info("Writing replay file to `{}` ({})", replayFile, Bytes.formatSize(replayData.size(), Locale.ROOT));
+    log.info("Writing replay file to `{}` ({})", replayFile, Bytes.formatSize(replayDataSize, Locale.ROOT));
 
     Files.createDirectories(replayFile.getParent());
 
-    try (BufferedWriter writer = Files.newBufferedWriter(temporaryReplayFile, UTF_8, APPEND)) {
-      byte[] compressedBytes = QtCompress.qCompress(replayData.toByteArray());
-      String base64ReplayData = BaseEncoding.base64().encode(compressedBytes);
-
-      StringWriter replayInfoWriter = new StringWriter();
+    try (FileChannel fileChannel = FileChannel.open(temporaryReplayFile, WRITE, TRUNCATE_EXISTING);
+         OutputStream fileOutputStream = new BufferedOutputStream(Channels.newOutputStream(fileChannel),
+                                                                  FILE_BUFFER_SIZE)) {
+      fileOutputStream.write(objectMapper.writeValueAsBytes(replayInfo));
+      fileOutputStream.write('\n');
 
-      objectMapper.writeValue(replayInfoWriter, replayInfo);
-      writer.write(replayInfoWriter.toString());
-      writer.write('\n');
-      writer.write(base64ReplayData);
+      // Closing the base64 stream writes its padding, closing the file channel is taken care of above
+      try (OutputStream base64OutputStream = Base64.getEncoder().wrap(fileOutputStream)) {
+        // The qCompress format: uncompressed size as big endian int followed by the zlib stream
+        new DataOutputStream(base64OutputStream).writeInt((int) replayDataSize);
+        // The deflater isn't closed with the streams, so its native memory is released explicitly
+        Deflater deflater = new Deflater();
+        try {
+          DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(base64OutputStream, deflater);
+          try (InputStream inputStream = Files.newInputStream(replayDataFile)) {
+            inputStream.transferTo(deflaterOutputStream);
+          }
+          deflaterOutputStream.finish();
+        } finally {
+          deflater.end();
+        }
+      }
     }
 
     Files.move(temporaryReplayFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+    localReplayIndex.add(replayFile);
   }
 }
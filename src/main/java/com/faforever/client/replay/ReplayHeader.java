@@ -0,0 +1,28 @@
+package com.faforever.client.replay;
+
+import com.faforever.commons.replay.ReplayMetadata;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Header of a replay file as read by {@link ReplayFileReader#readReplayHeader(java.nio.file.Path)}. Contains no ticks
+ * or commands of the replay.
+ *
+ * @param metadata the JSON metadata of a {@code .fafreplay} file, {@code null} for {@code .scfareplay} files
+ * @param replayPatchFieldId the game version, e.g. {@code Supreme Commander v1.50.3599}
+ * @param map path to the {@code .scmap} of the played map
+ * @param gameOptions the scenario options of the game, e.g. {@code ScenarioFile}
+ * @param simModUids uids of the sim mods that were active in the game
+ * @param armies the army tables of the game, containing player names, teams, factions and ratings
+ */
+public record ReplayHeader(
+    @Nullable ReplayMetadata metadata,
+    String replayPatchFieldId,
+    String map,
+    Map<String, Object> gameOptions,
+    Set<String> simModUids,
+    List<Map<String, Object>> armies
+) {}
@@ -0,0 +1,150 @@
+package com.faforever.client.replay;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards the live replay stream of a single game to the FAF replay server. The recording side hands chunks over
+ * through a bounded queue which is drained by a separate virtual thread, so a slow or unreachable replay server never
+ * stalls the local recording. If the queue overflows, relaying is given up for the rest of the game since the replay
+ * server can't do anything with a stream that has holes in it.
+ */
+@Slf4j
+class ReplayRelay {
+
+  private static final long POLL_TIMEOUT_MILLIS = 500;
+
+  private final int gameId;
+  private final String remoteHost;
+  private final int remotePort;
+  private final BlockingQueue<Chunk> queue;
+
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong bytesRelayed = new AtomicLong();
+  private final AtomicLong backlogBytes = new AtomicLong();
+  private final AtomicLong lastLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  private volatile boolean relaying = true;
+  private volatile boolean closed;
+
+  ReplayRelay(int gameId, String remoteHost, int remotePort, int queueCapacity) {
+    this.gameId = gameId;
+    this.remoteHost = remoteHost;
+    this.remotePort = remotePort;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  /**
+   * Connects to the FAF replay server and starts relaying in the background.
+   *
+   * @param onConnectionFailed called if the FAF replay server can't be reached
+   */
+  Thread start(Runnable onConnectionFailed) {
+    return Thread.ofVirtual().name("replay-relay-" + gameId).start(() -> relay(onConnectionFailed));
+  }
+
+  /**
+   * Queues a chunk of the replay stream to be relayed. Never blocks.
+   */
+  void offer(byte[] buffer, int offset, int length) {
+    bytesReceived.addAndGet(length);
+    if (!relaying) {
+      return;
+    }
+
+    Chunk chunk = new Chunk(Arrays.copyOfRange(buffer, offset, offset + length), System.nanoTime());
+    backlogBytes.addAndGet(length);
+    if (!queue.offer(chunk)) {
+      log.warn("Relay backlog of game {} is full ({} bytes), giving up relaying", gameId, backlogBytes.get());
+      abort();
+    }
+  }
+
+  /**
+   * Signals that no more chunks will be offered. Chunks that are already queued are still relayed.
+   */
+  void close() {
+    closed = true;
+  }
+
+  ReplayRelayStatistics getStatistics() {
+    return new ReplayRelayStatistics(gameId, bytesReceived.get(), bytesRelayed.get(), Math.max(0, backlogBytes.get()),
+                                     queue.size(),
+                                     TimeUnit.NANOSECONDS.toMillis(lastLatencyNanos.get()),
+                                     TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()), relaying);
+  }
+
+  private void relay(Runnable onConnectionFailed) {
+    log.info("Connecting to replay server at `{}:{}`", remoteHost, remotePort);
+
+    try (Socket socket = new Socket()) {
+      try {
+        socket.connect(new InetSocketAddress(remoteHost, remotePort));
+      } catch (IOException e) {
+        log.warn("Could not connect to remote replay server", e);
+        abort();
+        onConnectionFailed.run();
+        return;
+      }
+
+      OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream());
+      List<Chunk> chunks = new ArrayList<>();
+      while (relaying) {
+        Chunk first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          // Chunks may have been offered right before closing, after the poll timed out
+          if (closed && queue.isEmpty()) {
+            break;
+          }
+          continue;
+        }
+
+        // Send everything that piled up in one go instead of one tiny TCP packet per chunk
+        chunks.add(first);
+        queue.drainTo(chunks);
+        for (Chunk chunk : chunks) {
+          outputStream.write(chunk.data());
+        }
+        outputStream.flush();
+
+        long now = System.nanoTime();
+        for (Chunk chunk : chunks) {
+          bytesRelayed.addAndGet(chunk.data().length);
+          backlogBytes.addAndGet(-chunk.data().length);
+        }
+        long latency = now - first.receivedAtNanos();
+        lastLatencyNanos.set(now - chunks.getLast().receivedAtNanos());
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        chunks.clear();
+      }
+    } catch (IOException e) {
+      // In case we lose connection to the replay server, just stop writing to it
+      log.warn("Connection to replay server lost ({})", e.getMessage());
+      abort();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort();
+    }
+  }
+
+  private void abort() {
+    relaying = false;
+    queue.clear();
+    backlogBytes.set(0);
+  }
+
+  private record Chunk(byte[] data, long receivedAtNanos) {}
+}
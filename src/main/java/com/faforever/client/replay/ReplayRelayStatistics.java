@@ -0,0 +1,23 @@
+package com.faforever.client.replay;
+
+/**
+ * Snapshot of the counters of the relay that forwards the live replay stream of a game to the FAF replay server.
+ *
+ * @param bytesReceived bytes received from the game
+ * @param bytesRelayed bytes written to the FAF replay server
+ * @param backlogBytes bytes received from the game that are still waiting to be relayed
+ * @param backlogChunks number of chunks that are still waiting to be relayed
+ * @param lastLatencyMillis time between receiving and relaying the most recently relayed chunk
+ * @param maxLatencyMillis highest latency between receiving and relaying a chunk so far
+ * @param relaying {@code false} if the connection to the FAF replay server failed or the backlog overflowed
+ */
+public record ReplayRelayStatistics(
+    int gameId,
+    long bytesReceived,
+    long bytesRelayed,
+    long backlogBytes,
+    int backlogChunks,
+    long lastLatencyMillis,
+    long maxLatencyMillis,
+    boolean relaying
+) {}
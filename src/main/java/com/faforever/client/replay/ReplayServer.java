@@ -10,31 +10,40 @@ import com.faforever.client.notification.NotificationService;
 import com.faforever.client.notification.PersistentNotification;
 import com.faforever.client.notification.Severity;
 import com.faforever.client.player.PlayerService;
+import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.update.Version;
 import com.faforever.client.user.LoginService;
 import com.faforever.commons.replay.ReplayMetadata;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Bytes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.Nullable;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.ConnectException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.net.SocketException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 @Lazy
@@ -44,10 +53,9 @@ import java.util.stream.Collectors;
 public class ReplayServer {
 
   /**
-   * Size for buffer used to send data to the live replay server. The buffer needs to be large enough to not flush too
-   * many times (after all, it's a TCP stream so we don't want to send single bytes) but small enough to not delay data
-   * for too long. I don't have any data right now but it can be expected that the replay stream produces about 70 bytes
-   * per second (See #973).
+   * Size for buffer used to read the replay stream from the game. Every read is handed to the {@link ReplayRelay} as
+   * one chunk, which batches everything that piled up before sending it to the live replay server. It can be expected
+   * that the replay stream produces about 70 bytes per second (See #973).
    */
   private static final int REPLAY_BUFFER_SIZE = 128;
 
@@ -56,6 +64,25 @@ public class ReplayServer {
    */
   private static final byte[] LIVE_REPLAY_PREFIX = new byte[]{'P', '/'};
 
+  /**
+   * Extension of the file the raw replay stream is spilled to while the game is running.
+   */
+  private static final String RECORDING_DATA_EXTENSION = ".replaydata";
+
+  /**
+   * Extension of the file that holds the replay metadata of a game that is being recorded.
+   */
+  private static final String RECORDING_METADATA_EXTENSION = ".json";
+
+  /**
+   * How long to wait for the relay to hand the rest of its backlog to the FAF replay server once the game ended.
+   */
+  private static final Duration RELAY_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
   private final ClientProperties clientProperties;
   private final NotificationService notificationService;
   private final I18n i18n;
@@ -63,6 +90,14 @@ public class ReplayServer {
   private final ReplayFileWriter replayFileWriter;
   private final PlayerService playerService;
   private final GameService gameService;
+  private final DataPrefs dataPrefs;
+  private final ExecutorService taskExecutor;
+
+  /**
+   * Uids of the games that are currently being recorded, so their recordings aren't mistaken for abandoned ones.
+   */
+  private final Set<Integer> activeRecordings = ConcurrentHashMap.newKeySet();
+  private final Map<Integer, ReplayRelay> relays = new ConcurrentHashMap<>();
 
   private ReplayMetadata replayInfo;
   private ServerSocket serverSocket;
@@ -75,6 +110,15 @@ public class ReplayServer {
     return System.currentTimeMillis() / 1000d;
   }
 
+  /**
+   * Recovers the replays of games that were still being recorded when the client last shut down. This is triggered on
+   * startup rather than when this lazy bean is created, which usually only happens once the next game starts.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    taskExecutor.execute(this::recoverPartialReplays);
+  }
+
   public void stop() {
     if (serverSocket == null) {
       return;
@@ -91,26 +135,25 @@ public class ReplayServer {
   public CompletableFuture<Integer> start(int gameId) {
     stoppedGracefully = false;
     CompletableFuture<Integer> future = new CompletableFuture<>();
-    new Thread(() -> {
-      String remoteReplayServerHost = clientProperties.getReplay().getRemoteHost();
-      int remoteReplayServerPort = clientProperties.getReplay().getRemotePort();
-
-      log.info("Connecting to replay server at `{}:{}`", remoteReplayServerHost, remoteReplayServerPort);
-
+    Thread.ofVirtual().name("replay-server-" + gameId).start(() -> {
       try (ServerSocket localSocket = new ServerSocket(0)) {
         log.debug("Opening local replay server on port {}", localSocket.getLocalPort());
         this.serverSocket = localSocket;
         future.complete(serverSocket.getLocalPort());
 
-        try (Socket remoteReplayServerSocket = new Socket(remoteReplayServerHost, remoteReplayServerPort);
-             DataOutputStream fafReplayOutputStream = new DataOutputStream(
-                 remoteReplayServerSocket.getOutputStream())) {
-          recordAndRelay(gameId, localSocket, fafReplayOutputStream);
-        } catch (ConnectException e) {
-          log.warn("Could not connect to remote replay server", e);
-          notificationService.addNotification(
-              new PersistentNotification(i18n.get("replayServer.unreachable"), Severity.WARN));
-          recordAndRelay(gameId, localSocket, null);
+        ReplayRelay replayRelay = new ReplayRelay(gameId, clientProperties.getReplay().getRemoteHost(),
+                                                  clientProperties.getReplay().getRemotePort(),
+                                                  clientProperties.getReplay().getRelayQueueCapacity());
+        relays.put(gameId, replayRelay);
+        Thread relayThread = replayRelay.start(() -> notificationService.addNotification(
+            new PersistentNotification(i18n.get("replayServer.unreachable"), Severity.WARN)));
+        try {
+          recordAndRelay(gameId, localSocket, replayRelay);
+        } finally {
+          replayRelay.close();
+          awaitRelay(relayThread);
+          log.info("Relaying of game {} finished: {}", gameId, replayRelay.getStatistics());
+          relays.remove(gameId, replayRelay);
         }
       } catch (IOException e) {
         if (stoppedGracefully) {
@@ -123,10 +166,27 @@ public class ReplayServer {
             Collections.singletonList(new Action(i18n.get("replayServer.retry"), () -> start(gameId)))
         ));
       }
-    }).start();
+    });
     return future;
   }
 
+  /**
+   * Returns the counters of the relay of the specified game, if it is currently being recorded.
+   */
+  public Optional<ReplayRelayStatistics> getRelayStatistics(int gameId) {
+    return Optional.ofNullable(relays.get(gameId)).map(ReplayRelay::getStatistics);
+  }
+
+  private static void awaitRelay(Thread relayThread) {
+    try {
+      if (!relayThread.join(RELAY_DRAIN_TIMEOUT)) {
+        log.warn("Relay did not finish within {}", RELAY_DRAIN_TIMEOUT);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private void initReplayInfo(int uid) {
     replayInfo = new ReplayMetadata();
     replayInfo.setUid(uid);
@@ -137,52 +197,112 @@ public class ReplayServer {
     );
   }
 
-  /**
-   * @param fafReplayOutputStream if {@code null}, the replay won't be relayed
-   */
-  private void recordAndRelay(int uid, ServerSocket serverSocket,
-                              @Nullable OutputStream fafReplayOutputStream) throws IOException {
+  private void recordAndRelay(int uid, ServerSocket serverSocket, ReplayRelay replayRelay) throws IOException {
     Socket socket = serverSocket.accept();
     GameInfo game = gameService.getByUid(uid).orElseThrow();
     log.info("Accepted connection from `{}`", socket.getRemoteSocketAddress());
 
     initReplayInfo(uid);
+    updateReplayInfo(game);
+
+    Path recordingsDirectory = Files.createDirectories(dataPrefs.getReplayRecordingsDirectory());
+    Path replayDataFile = recordingsDirectory.resolve(uid + RECORDING_DATA_EXTENSION);
+    Path replayMetadataFile = recordingsDirectory.resolve(uid + RECORDING_METADATA_EXTENSION);
+
+    activeRecordings.add(uid);
+    try {
+      objectMapper.writeValue(replayMetadataFile.toFile(), replayInfo);
 
-    ByteArrayOutputStream replayData = new ByteArrayOutputStream();
-
-    boolean connectionToServerLost = false;
-    byte[] buffer = new byte[REPLAY_BUFFER_SIZE];
-    try (InputStream inputStream = socket.getInputStream()) {
-      int bytesRead;
-      while ((bytesRead = inputStream.read(buffer)) != -1) {
-        if (replayData.size() == 0 && Bytes.indexOf(buffer, LIVE_REPLAY_PREFIX) != -1) {
-          int dataBeginIndex = Bytes.indexOf(buffer, (byte) 0x00) + 1;
-          replayData.write(buffer, dataBeginIndex, bytesRead - dataBeginIndex);
-        } else {
-          replayData.write(buffer, 0, bytesRead);
+      long bytesRecorded = 0;
+      byte[] buffer = new byte[REPLAY_BUFFER_SIZE];
+      // Not buffered on purpose, every chunk should reach the file system right away so that as little as possible is
+      // lost if the client crashes. FA only produces a few bytes per second anyway.
+      try (InputStream inputStream = socket.getInputStream();
+           OutputStream replayDataOutputStream = Files.newOutputStream(replayDataFile)) {
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+          if (bytesRecorded == 0 && Bytes.indexOf(buffer, LIVE_REPLAY_PREFIX) != -1) {
+            int dataBeginIndex = Bytes.indexOf(buffer, (byte) 0x00) + 1;
+            replayDataOutputStream.write(buffer, dataBeginIndex, bytesRead - dataBeginIndex);
+            bytesRecorded += bytesRead - dataBeginIndex;
+          } else {
+            replayDataOutputStream.write(buffer, 0, bytesRead);
+            bytesRecorded += bytesRead;
+          }
+
+          replayRelay.offer(buffer, 0, bytesRead);
         }
+      } catch (Exception e) {
+        log.error("Error while recording replay", e);
+        throw e;
+      }
+
+      log.info("FAF disconnected, writing replay data to file");
+      finishReplayInfo(game);
+      replayFileWriter.writeReplayDataToFile(replayDataFile, replayInfo);
+      Files.delete(replayDataFile);
+      Files.delete(replayMetadataFile);
+    } finally {
+      activeRecordings.remove(uid);
+    }
+  }
+
+  /**
+   * Turns the recordings of games that never finished, e.g. because the client crashed, into regular replay files.
+   */
+  @VisibleForTesting
+  void recoverPartialReplays() {
+    Path recordingsDirectory = dataPrefs.getReplayRecordingsDirectory();
+    if (Files.notExists(recordingsDirectory)) {
+      return;
+    }
 
-        if (!connectionToServerLost && fafReplayOutputStream != null) {
-          try {
-            fafReplayOutputStream.write(buffer, 0, bytesRead);
-          } catch (SocketException e) {
-            // In case we lose connection to the replay server, just stop writing to it
-            log.warn("Connection to replay server lost ({})", e.getMessage());
-            connectionToServerLost = true;
+    int recoveredReplays = 0;
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(recordingsDirectory,
+                                                                          "*" + RECORDING_METADATA_EXTENSION)) {
+      for (Path replayMetadataFile : directoryStream) {
+        String fileName = replayMetadataFile.getFileName().toString();
+        String uid = fileName.substring(0, fileName.length() - RECORDING_METADATA_EXTENSION.length());
+        if (activeRecordings.stream().map(String::valueOf).anyMatch(uid::equals)) {
+          continue;
+        }
+
+        Path replayDataFile = recordingsDirectory.resolve(uid + RECORDING_DATA_EXTENSION);
+        try {
+          if (recoverPartialReplay(replayMetadataFile, replayDataFile)) {
+            recoveredReplays++;
           }
+          Files.deleteIfExists(replayDataFile);
+          Files.delete(replayMetadataFile);
+        } catch (IOException e) {
+          log.warn("Could not recover partial replay `{}`", replayDataFile, e);
         }
       }
-    } catch (Exception e) {
-      log.error("Error while recording replay", e);
-      throw e;
+    } catch (IOException e) {
+      log.warn("Could not list partial replays in `{}`", recordingsDirectory, e);
     }
 
-    log.info("FAF disconnected, writing replay data to file");
-    finishReplayInfo(game);
-    replayFileWriter.writeReplayDataToFile(replayData, replayInfo);
+    if (recoveredReplays > 0) {
+      notificationService.addNotification(
+          new PersistentNotification(i18n.get("replayServer.recovered", recoveredReplays), Severity.INFO));
+    }
   }
 
-  private void finishReplayInfo(GameInfo game) {
+  private boolean recoverPartialReplay(Path replayMetadataFile, Path replayDataFile) throws IOException {
+    if (Files.notExists(replayDataFile) || Files.size(replayDataFile) == 0) {
+      log.info("Discarding empty partial replay `{}`", replayDataFile);
+      return false;
+    }
+
+    ReplayMetadata partialReplayInfo = objectMapper.readValue(replayMetadataFile.toFile(), ReplayMetadata.class);
+    close(partialReplayInfo, Files.getLastModifiedTime(replayDataFile).toMillis() / 1000d, false);
+
+    log.info("Recovering partial replay `{}`", replayDataFile);
+    replayFileWriter.writeReplayDataToFile(replayDataFile, partialReplayInfo);
+    return true;
+  }
+
+  private void updateReplayInfo(GameInfo game) {
     Map<String, List<String>> teamStrings = game.getTeams().entrySet().stream()
                                                 .collect(Collectors.toMap(String::valueOf, entry -> entry.getValue()
                                                                                                          .stream()
@@ -206,10 +326,18 @@ public class ReplayServer {
     replayInfo.setSimMods(game.getSimMods());
     replayInfo.setTeams(teamStrings);
     replayInfo.setFeaturedModVersions(Map.of());
-    replayInfo.setGameEnd(pythonTime());
     replayInfo.setRecorder(loginService.getUsername());
+  }
+
+  private void finishReplayInfo(GameInfo game) {
+    updateReplayInfo(game);
+    close(replayInfo, pythonTime(), true);
+  }
+
+  private static void close(ReplayMetadata replayMetadata, double gameEnd, boolean complete) {
+    replayMetadata.setGameEnd(gameEnd);
     // TODO: Use enum when setter is fixed in java commons
-    replayInfo.setState("closed");
-    replayInfo.setComplete(true);
+    replayMetadata.setState("closed");
+    replayMetadata.setComplete(complete);
   }
 }
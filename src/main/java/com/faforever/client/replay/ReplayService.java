@@ -38,24 +38,22 @@ import com.google.common.annotations.VisibleForTesting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.compressors.CompressorException;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
@@ -64,12 +62,13 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
+import static com.faforever.client.notification.Severity.INFO;
 import static com.faforever.client.notification.Severity.WARN;
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
 import static java.util.Collections.singletonList;
@@ -92,7 +91,6 @@ public class ReplayService {
   private final NotificationService notificationService;
   private final GameService gameService;
   private final ReplayRunner replayRunner;
-  private final TaskService taskService;
   private final I18n i18n;
   private final PlatformService platformService;
   private final FafApiAccessor fafApiAccessor;
@@ -101,25 +99,47 @@ public class ReplayService {
   private final FileSizeReader fileSizeReader;
   private final ReplayMapper replayMapper;
   private final DataPrefs dataPrefs;
-  private final ObjectFactory<ReplayDownloadTask> replayDownloadTaskFactory;
+  private final ReplayCache replayCache;
+  private final TaskService taskService;
+  private final ObjectFactory<ReplayVerificationTask> replayVerificationTaskFactory;
+  private final LocalReplayIndex localReplayIndex;
 
   @VisibleForTesting
   static Integer parseSupComVersion(ReplayDataParser parser) {
-    String[] versionParts = parser.getReplayPatchFieldId().split("\\.");
+    return parseSupComVersion(parser.getReplayPatchFieldId());
+  }
+
+  @VisibleForTesting
+  static Integer parseSupComVersion(ReplayHeader replayHeader) {
+    return parseSupComVersion(replayHeader.replayPatchFieldId());
+  }
+
+  private static Integer parseSupComVersion(String replayPatchFieldId) {
+    String[] versionParts = replayPatchFieldId.split("\\.");
     return Integer.parseInt(versionParts[versionParts.length - 1]);
   }
 
   @VisibleForTesting
   static String parseMapFolderName(ReplayDataParser parser) {
+    String scenarioFile = parser.getGameOptions()
+                                .stream()
+                                .filter(gameOption -> "ScenarioFile".equals(gameOption.getKey()))
+                                .findFirst()
+                                .map(gameOption -> (String) gameOption.getValue())
+                                .orElse(null);
+    return parseMapFolderName(scenarioFile, parser.getMap());
+  }
+
+  @VisibleForTesting
+  static String parseMapFolderName(ReplayHeader replayHeader) {
+    return parseMapFolderName((String) replayHeader.gameOptions().get("ScenarioFile"), replayHeader.map());
+  }
+
+  private static String parseMapFolderName(@Nullable String scenarioFile, String map) {
     // Prefer the scenario file path as that contains all the information to actually launch the map. The map in the
     // parser is just the scmap which may have a different folder and will not contain all the info to launch the map
     // or even may not be a map in the vault like in the case of any coop map.
-    String mapPath = parser.getGameOptions()
-                           .stream()
-                           .filter(gameOption -> "ScenarioFile".equals(gameOption.getKey()))
-                           .findFirst()
-                           .map(gameOption -> (String) gameOption.getValue())
-                           .orElse(parser.getMap());
+    String mapPath = scenarioFile != null ? scenarioFile : map;
     //mapPath looks like /maps/my_awesome_map.v008/my_awesome_map.lua
     Matcher matcher = invalidCharacters.matcher(mapPath);
     if (matcher.find()) {
@@ -148,6 +168,20 @@ public class ReplayService {
   }
 
   public Mono<Tuple2<List<Replay>, Integer>> loadLocalReplayPage(int pageSize, int page) throws IOException {
+    return loadLocalReplayPage(LocalReplayIndex::getEntries, pageSize, page);
+  }
+
+  /**
+   * Like {@link #loadLocalReplayPage(int, int)} but only returns the local replays matching the specified query.
+   */
+  public Mono<Tuple2<List<Replay>, Integer>> searchLocalReplays(LocalReplayQuery query, int pageSize,
+                                                                int page) throws IOException {
+    return loadLocalReplayPage(index -> index.search(query), pageSize, page);
+  }
+
+  private Mono<Tuple2<List<Replay>, Integer>> loadLocalReplayPage(
+      Function<LocalReplayIndex, List<LocalReplayIndexEntry>> entriesFunction, int pageSize,
+      int page) throws IOException {
     String replayFileGlob = clientProperties.getReplay().getReplayFileGlob();
 
     Path replaysDirectory = dataPrefs.getReplaysDirectory();
@@ -157,26 +191,20 @@ public class ReplayService {
 
     int skippedReplays = pageSize * (page - 1);
 
-    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(replaysDirectory, replayFileGlob)) {
-      List<Path> filesList = StreamSupport.stream(directoryStream.spliterator(), false)
-                                          .sorted(Comparator.comparing(path -> {
-                                            try {
-                                              return Files.getLastModifiedTime((Path) path);
-                                            } catch (IOException e) {
-                                              log.warn("Could not get last modified time of file {}", path, e);
-                                              return FileTime.from(Instant.EPOCH);
-                                            }
-                                          }).reversed())
-                                          .toList();
-
-      int numPages = filesList.size() / pageSize;
-
-      List<CompletableFuture<Replay>> replayFutures = filesList.stream()
-                                                               .skip(skippedReplays)
-                                                               .limit(pageSize)
-                                                               .map(this::tryLoadingLocalReplay)
-                                                               .filter(e -> !e.isCompletedExceptionally())
-                                                               .toList();
+    return Mono.fromCallable(() -> {
+      quarantineCorruptedReplayFiles(localReplayIndex.watch(replaysDirectory, replayFileGlob));
+      return entriesFunction.apply(localReplayIndex);
+    }).subscribeOn(Schedulers.boundedElastic()).flatMap(indexEntries -> {
+      int numPages = indexEntries.size() / pageSize;
+      int fromIndex = Math.min(skippedReplays, indexEntries.size());
+      int toIndex = Math.min(fromIndex + pageSize, indexEntries.size());
+
+      List<CompletableFuture<Replay>> replayFutures = indexEntries.subList(fromIndex, toIndex)
+                                                                  .stream()
+                                                                  .map(indexEntry -> tryLoadingLocalReplay(
+                                                                      replaysDirectory.resolve(indexEntry.fileName()),
+                                                                      indexEntry))
+                                                                  .toList();
 
       return Mono.fromFuture(CompletableFuture.allOf(replayFutures.toArray(new CompletableFuture[0]))
                                               .thenApply(ignoredVoid -> replayFutures.stream()
@@ -184,64 +212,88 @@ public class ReplayService {
                                                                                      .filter(Objects::nonNull)
                                                                                      .collect(Collectors.toList())))
                  .zipWith(Mono.just(numPages));
-    }
+    });
   }
 
 
-  private CompletableFuture<Replay> tryLoadingLocalReplay(Path replayFile) {
-    try {
-      ReplayDataParser replayData = replayFileReader.parseReplay(replayFile);
-      ReplayMetadata replayMetadata = replayData.getMetadata();
-
-      CompletableFuture<FeaturedMod> featuredModFuture = featuredModService.getFeaturedMod(
-          replayMetadata.getFeaturedMod()).toFuture();
-      CompletableFuture<MapVersion> mapVersionFuture = mapService.findByMapFolderName(replayMetadata.getMapname())
-                                                                 .toFuture();
-
-      return CompletableFuture.allOf(featuredModFuture, mapVersionFuture).thenApply(ignoredVoid -> {
-        MapVersion mapVersion = mapVersionFuture.join();
-        FeaturedMod featuredMod = featuredModFuture.join();
-        if (mapVersion == null) {
-          log.warn("Could not find map for replay file `{}`", replayFile);
-        }
-        return replayMapper.map(replayData, replayFile, featuredMod, mapVersion);
-      }).exceptionally(throwable -> {
-        log.warn("Could not read replay file `{}`", replayFile, throwable);
-        moveCorruptedReplayFile(replayFile);
-        return null;
-      });
-    } catch (Exception e) {
-      log.warn("Could not read replay file `{}`", replayFile, e);
-      moveCorruptedReplayFile(replayFile);
-      return CompletableFuture.completedFuture(null);
-    }
+  private CompletableFuture<Replay> tryLoadingLocalReplay(Path replayFile, LocalReplayIndexEntry indexEntry) {
+    CompletableFuture<FeaturedMod> featuredModFuture = featuredModService.getFeaturedMod(indexEntry.featuredMod())
+                                                                         .toFuture();
+    CompletableFuture<MapVersion> mapVersionFuture = mapService.findByMapFolderName(indexEntry.mapFolderName())
+                                                               .toFuture();
+
+    return CompletableFuture.allOf(featuredModFuture, mapVersionFuture).thenApply(ignoredVoid -> {
+      MapVersion mapVersion = mapVersionFuture.join();
+      FeaturedMod featuredMod = featuredModFuture.join();
+      if (mapVersion == null) {
+        log.warn("Could not find map for replay file `{}`", replayFile);
+      }
+      return replayMapper.map(indexEntry, replayFile, featuredMod, mapVersion);
+    }).exceptionally(throwable -> {
+      log.warn("Could not load replay file `{}`", replayFile, throwable);
+      return null;
+    });
+  }
+
+  /**
+   * Fully parses every local replay in the background and moves the corrupted ones to the corrupted replays directory.
+   * The user is informed about the outcome with a single notification.
+   *
+   * @return the number of corrupted replays that were moved
+   */
+  public CompletableFuture<Integer> verifyLocalReplays() {
+    return taskService.submitTask(replayVerificationTaskFactory.getObject())
+                      .getFuture()
+                      .thenApply(corruptedReplayFiles -> {
+                        int movedReplays = quarantineCorruptedReplayFiles(corruptedReplayFiles);
+                        if (corruptedReplayFiles.isEmpty()) {
+                          notificationService.addNotification(
+                              new PersistentNotification(i18n.get("replayVerification.noCorruptedReplays"), INFO));
+                        }
+                        return movedReplays;
+                      });
   }
 
-  private void moveCorruptedReplayFile(Path replayFile) {
+  /**
+   * Moves the specified replay files to the corrupted replays directory and shows one notification for all of them.
+   *
+   * @return the number of moved files
+   */
+  private int quarantineCorruptedReplayFiles(List<Path> replayFiles) {
+    if (replayFiles.isEmpty()) {
+      return 0;
+    }
+
     Path corruptedReplaysDirectory = dataPrefs.getCorruptedReplaysDirectory();
     try {
       Files.createDirectories(corruptedReplaysDirectory);
     } catch (IOException e) {
       log.warn("Failed to create corrupted replays directory", e);
-      return;
+      return 0;
     }
 
-    Path target = corruptedReplaysDirectory.resolve(replayFile.getFileName());
+    int movedReplays = 0;
+    for (Path replayFile : replayFiles) {
+      Path target = corruptedReplaysDirectory.resolve(replayFile.getFileName());
 
-    log.trace("Moving corrupted replay file from `{}` to `{}`", replayFile, target);
+      log.trace("Moving corrupted replay file from `{}` to `{}`", replayFile, target);
 
-    try {
-      Files.move(replayFile, target);
-    } catch (IOException e) {
-      log.warn("Failed to move corrupt replay to `{}`", target, e);
-      return;
+      try {
+        Files.move(replayFile, target);
+        movedReplays++;
+      } catch (IOException e) {
+        log.warn("Failed to move corrupt replay to `{}`", target, e);
+      }
     }
 
-    notificationService.addNotification(new PersistentNotification(i18n.get("corruptedReplayFiles.notification"), WARN,
-                                                                   singletonList(
-                                                                       new Action(i18n.get("corruptedReplayFiles.show"),
-                                                                                  () -> platformService.reveal(
-                                                                                      replayFile)))));
+    if (movedReplays > 0) {
+      notificationService.addNotification(
+          new PersistentNotification(i18n.get("corruptedReplayFiles.notification", movedReplays), WARN,
+                                     singletonList(new Action(i18n.get("corruptedReplayFiles.show"),
+                                                              () -> platformService.reveal(
+                                                                  corruptedReplaysDirectory)))));
+    }
+    return movedReplays;
   }
 
   public boolean deleteReplayFile(Path replayFile) {
@@ -274,9 +326,7 @@ public class ReplayService {
   }
 
   public CompletableFuture<Path> downloadReplay(int id) {
-    ReplayDownloadTask task = replayDownloadTaskFactory.getObject();
-    task.setReplayId(id);
-    return taskService.submitTask(task).getFuture();
+    return replayCache.getReplayFile(id);
   }
 
   /**
@@ -285,6 +335,7 @@ public class ReplayService {
   public ReplayDetails loadReplayDetails(Path path) throws CompressorException, IOException {
     ReplayDataParser replayDataParser = replayFileReader.parseReplay(path);
     List<ChatMessage> chatMessages = replayDataParser.getChatMessages().stream().map(replayMapper::map).toList();
+    localReplayIndex.addChatMessages(path, chatMessages.stream().map(ChatMessage::message).toList());
     List<GameOption> gameOptions = Stream.concat(
         Stream.of(new GameOption("FAF Version", String.valueOf(parseSupComVersion(replayDataParser)))),
         replayDataParser.getGameOptions().stream().map(replayMapper::map).sorted(Comparator.comparing(GameOption::key, String.CASE_INSENSITIVE_ORDER))).toList();
@@ -294,7 +345,17 @@ public class ReplayService {
     MapVersion mapVersion = new MapVersion(null, mapFolderName, 0, null, 0, null, null, false, false, null, null, null,
                                            map, null);
 
-    return new ReplayDetails(chatMessages, gameOptions, mapVersion);
+    return new ReplayDetails(chatMessages, gameOptions, mapVersion,
+                             readReplayStatistics(path, replayDataParser.getData()));
+  }
+
+  private ReplayStatistics readReplayStatistics(Path path, byte[] replayData) {
+    try {
+      return replayFileReader.readReplayStatistics(replayData);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not decode command stream of replay `{}`", path, e);
+      return null;
+    }
   }
 
   public CompletableFuture<Integer> getFileSize(Replay replay) {
@@ -349,35 +410,30 @@ public class ReplayService {
   }
 
   private void runFafReplayFile(Path path) throws IOException, CompressorException {
-    ReplayDataParser replayData = replayFileReader.parseReplay(path);
-    byte[] rawReplayBytes = replayData.getData();
-
     Path tempSupComReplayFile = dataPrefs.getCacheDirectory().resolve(TEMP_SCFA_REPLAY_FILE_NAME);
+    ReplayHeader replayHeader = replayFileReader.extractReplayData(path, tempSupComReplayFile);
 
-    Files.createDirectories(tempSupComReplayFile.getParent());
-    Files.copy(new ByteArrayInputStream(rawReplayBytes), tempSupComReplayFile, StandardCopyOption.REPLACE_EXISTING);
-
-    ReplayMetadata replayMetadata = replayData.getMetadata();
+    ReplayMetadata replayMetadata = replayHeader.metadata();
     String gameType = replayMetadata.getFeaturedMod();
     Integer replayId = replayMetadata.getUid();
     java.util.Map<String, Integer> modVersions = replayMetadata.getFeaturedModVersions();
-    String mapName = parseMapFolderName(replayData);
+    String mapName = parseMapFolderName(replayHeader);
 
-    Set<String> simMods = parseModUIDs(replayData);
+    Set<String> simMods = replayHeader.simModUids();
 
-    Integer version = parseSupComVersion(replayData);
+    Integer version = parseSupComVersion(replayHeader);
 
     replayRunner.runWithReplay(tempSupComReplayFile, replayId, gameType, version, modVersions, simMods, mapName);
   }
 
   private void runSupComReplayFile(Path path) throws IOException, CompressorException {
-    ReplayDataParser replayData = replayFileReader.parseReplay(path);
+    ReplayHeader replayHeader = replayFileReader.readReplayHeader(path);
 
-    Integer version = parseSupComVersion(replayData);
-    String mapName = parseMapFolderName(replayData);
+    Integer version = parseSupComVersion(replayHeader);
+    String mapName = parseMapFolderName(replayHeader);
     String fileName = path.getFileName().toString();
     String gameType = guessModByFileName(fileName);
-    Set<String> simMods = parseModUIDs(replayData);
+    Set<String> simMods = replayHeader.simModUids();
 
     replayRunner.runWithReplay(path, null, gameType, version, java.util.Map.of(), simMods, mapName);
   }
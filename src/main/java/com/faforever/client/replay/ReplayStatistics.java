@@ -0,0 +1,29 @@
+package com.faforever.client.replay;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Statistics computed from the command stream of a replay by {@link ReplayFileReader#readReplayStatistics(byte[])}.
+ *
+ * @param ticks number of game ticks in the replay, the game runs at 10 ticks per second
+ * @param players the command sources that issued at least one command
+ */
+public record ReplayStatistics(int ticks, List<PlayerStatistics> players) {
+
+  static final int TICKS_PER_SECOND = 10;
+
+  public ReplayStatistics {
+    players = List.copyOf(players);
+  }
+
+  public Duration duration() {
+    return Duration.ofMillis(ticks * 1000L / TICKS_PER_SECOND);
+  }
+
+  /**
+   * @param commandCount number of orders given by the player
+   * @param actionsPerMinute commands per minute of game time until the player left or the game ended
+   */
+  public record PlayerStatistics(String playerName, int commandCount, double actionsPerMinute) {}
+}
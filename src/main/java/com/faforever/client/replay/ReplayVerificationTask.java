@@ -0,0 +1,97 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.task.CompletableTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fully parses every replay in the local replays directory and returns the ones that can't be read. Replays are parsed
+ * in parallel, but never on more threads than there are processors since parsing is CPU bound.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Slf4j
+public class ReplayVerificationTask extends CompletableTask<List<Path>> {
+
+  private final I18n i18n;
+  private final ClientProperties clientProperties;
+  private final DataPrefs dataPrefs;
+  private final ReplayFileReader replayFileReader;
+
+  @Autowired
+  public ReplayVerificationTask(I18n i18n, ClientProperties clientProperties, DataPrefs dataPrefs,
+                                ReplayFileReader replayFileReader) {
+    super(Priority.LOW);
+
+    this.i18n = i18n;
+    this.clientProperties = clientProperties;
+    this.dataPrefs = dataPrefs;
+    this.replayFileReader = replayFileReader;
+  }
+
+  @Override
+  protected List<Path> call() throws Exception {
+    updateTitle(i18n.get("replayVerificationTask.title"));
+
+    List<Path> replayFiles = new ArrayList<>();
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dataPrefs.getReplaysDirectory(),
+                                                                          clientProperties.getReplay()
+                                                                                          .getReplayFileGlob())) {
+      directoryStream.forEach(replayFiles::add);
+    }
+
+    log.info("Verifying {} replays", replayFiles.size());
+
+    int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    AtomicInteger verifiedReplays = new AtomicInteger();
+    List<Future<Boolean>> results = new ArrayList<>(replayFiles.size());
+    try (ExecutorService executorService = Executors.newFixedThreadPool(parallelism)) {
+      for (Path replayFile : replayFiles) {
+        results.add(executorService.submit(() -> {
+          boolean readable = isReadable(replayFile);
+          updateProgress(verifiedReplays.incrementAndGet(), replayFiles.size());
+          return readable;
+        }));
+      }
+    }
+
+    List<Path> corruptedReplayFiles = new ArrayList<>();
+    for (int i = 0; i < replayFiles.size(); i++) {
+      if (!results.get(i).get()) {
+        corruptedReplayFiles.add(replayFiles.get(i));
+      }
+    }
+
+    log.info("Verified {} replays, {} are corrupted", replayFiles.size(), corruptedReplayFiles.size());
+    return corruptedReplayFiles;
+  }
+
+  private boolean isReadable(Path replayFile) {
+    if (isCancelled()) {
+      return true;
+    }
+    try {
+      replayFileReader.parseReplay(replayFile);
+      return true;
+    } catch (Exception e) {
+      log.debug("Replay `{}` is corrupted", replayFile, e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.faforever.client.replay;
+
+import com.faforever.commons.replay.ReplayMetadata;
+import com.google.common.io.LittleEndianDataInputStream;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the header of an uncompressed SupCom replay stream, that is everything in front of the first tick: game
+ * version, map, mods, scenario options and armies. Reading stops as soon as the header is complete, so the replay body
+ * is never consumed.
+ */
+final class SupComReplayHeaderParser {
+
+  private static final int LUA_NUMBER = 0;
+  private static final int LUA_STRING = 1;
+  private static final int LUA_NIL = 2;
+  private static final int LUA_BOOL = 3;
+  private static final int LUA_TABLE_START = 4;
+  private static final int LUA_TABLE_END = 5;
+
+  private static final int NO_SOURCE = 255;
+
+  private SupComReplayHeaderParser() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  static ReplayHeader parse(@Nullable ReplayMetadata metadata, InputStream inputStream) throws IOException {
+    return parse(metadata, inputStream, new ArrayList<>());
+  }
+
+  /**
+   * Same as {@link #parse(ReplayMetadata, InputStream)}, but also collects the names of the command sources in the
+   * order of their ids, which are referenced by the command stream that follows the header.
+   */
+  static ReplayHeader parse(@Nullable ReplayMetadata metadata, InputStream inputStream,
+                            List<String> commandSources) throws IOException {
+    PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, 1);
+    LittleEndianDataInputStream dataStream = new LittleEndianDataInputStream(pushbackInputStream);
+
+    String replayPatchFieldId = readString(dataStream);
+    // Always "\r\n"
+    readString(dataStream);
+
+    String[] replayVersionAndMap = readString(dataStream).split("\r\n");
+    if (replayVersionAndMap.length < 2) {
+      throw new IOException("Replay header does not contain a map");
+    }
+    String map = replayVersionAndMap[1];
+    // Always "\r\n\x1a"
+    readString(dataStream);
+
+    // Size of the serialized mods table
+    dataStream.readInt();
+    Set<String> simModUids = new HashSet<>();
+    for (Object mod : asTable(parseLua(dataStream, pushbackInputStream)).values()) {
+      if (mod instanceof Map<?, ?> modInfo && modInfo.get("uid") instanceof String uid) {
+        simModUids.add(uid);
+      }
+    }
+
+    // Size of the serialized scenario table
+    dataStream.readInt();
+    Map<String, Object> scenario = asTable(parseLua(dataStream, pushbackInputStream));
+    Map<String, Object> gameOptions = scenario.get("Options") instanceof Map<?, ?> ? asTable(
+        scenario.get("Options")) : Map.of();
+
+    int numberOfSources = dataStream.readUnsignedByte();
+    for (int i = 0; i < numberOfSources; i++) {
+      commandSources.add(readString(dataStream));
+      // Player id
+      dataStream.readInt();
+    }
+
+    // Cheats enabled
+    dataStream.readUnsignedByte();
+
+    int numberOfArmies = dataStream.readUnsignedByte();
+    List<Map<String, Object>> armies = new ArrayList<>(numberOfArmies);
+    for (int i = 0; i < numberOfArmies; i++) {
+      // Size of the serialized army table
+      dataStream.readInt();
+      armies.add(asTable(parseLua(dataStream, pushbackInputStream)));
+      int playerSource = dataStream.readUnsignedByte();
+      if (playerSource != NO_SOURCE) {
+        dataStream.readUnsignedByte();
+      }
+    }
+
+    // Random seed
+    dataStream.readInt();
+
+    return new ReplayHeader(metadata, replayPatchFieldId, map, gameOptions, simModUids, armies);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asTable(Object value) throws IOException {
+    if (!(value instanceof Map<?, ?>)) {
+      throw new IOException("Expected a lua table but got: " + value);
+    }
+    return (Map<String, Object>) value;
+  }
+
+  private static Object parseLua(LittleEndianDataInputStream dataStream,
+                                 PushbackInputStream pushbackInputStream) throws IOException {
+    int type = dataStream.readUnsignedByte();
+
+    return switch (type) {
+      case LUA_NUMBER -> dataStream.readFloat();
+      case LUA_STRING -> readString(dataStream);
+      case LUA_NIL -> {
+        dataStream.readUnsignedByte();
+        yield null;
+      }
+      // Same (inverted) interpretation as the replay parser of the java commons, which callers rely on
+      case LUA_BOOL -> dataStream.readUnsignedByte() == 0;
+      case LUA_TABLE_START -> {
+        Map<String, Object> table = new HashMap<>();
+        while (peek(pushbackInputStream) != LUA_TABLE_END) {
+          Object key = parseLua(dataStream, pushbackInputStream);
+          Object value = parseLua(dataStream, pushbackInputStream);
+          table.put(String.valueOf(key), value);
+        }
+        dataStream.readUnsignedByte();
+        yield table;
+      }
+      default -> throw new IOException("Unexpected lua data type: " + type);
+    };
+  }
+
+  private static int peek(PushbackInputStream pushbackInputStream) throws IOException {
+    int next = pushbackInputStream.read();
+    if (next == -1) {
+      throw new EOFException("Unexpected end of replay header");
+    }
+    pushbackInputStream.unread(next);
+    return next;
+  }
+
+  private static String readString(LittleEndianDataInputStream dataStream) throws IOException {
+    ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+    int next;
+    while ((next = dataStream.readUnsignedByte()) != 0) {
+      stringBytes.write(next);
+    }
+    return stringBytes.toString(UTF_8);
+  }
+}
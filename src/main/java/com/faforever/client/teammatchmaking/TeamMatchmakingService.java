@@ -3,6 +3,9 @@ package com.faforever.client.teammatchmaking;
 import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.audio.AudioService;
 import com.faforever.client.chat.ChatService;
+import com.faforever.client.domain.api.Leaderboard;
+import com.faforever.client.domain.api.MapVersion;
+import com.faforever.client.domain.api.MatchmakerQueueMapPool;
 import com.faforever.client.domain.server.MatchmakerQueueInfo;
 import com.faforever.client.domain.server.PartyInfo;
 import com.faforever.client.domain.server.PartyInfo.PartyMember;
@@ -35,6 +38,7 @@ import com.faforever.client.remote.FafServerAccessor;
 import com.faforever.client.user.LoginService;
 import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.IdenticonUtil;
+import com.faforever.client.util.RatingUtil;
 import com.faforever.commons.api.dto.MatchmakerQueue;
 import com.faforever.commons.api.elide.ElideNavigator;
 import com.faforever.commons.api.elide.ElideNavigatorOnCollection;
@@ -68,9 +72,11 @@ import javafx.collections.transformation.FilteredList;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.function.TupleUtils;
@@ -78,11 +84,17 @@ import reactor.function.TupleUtils;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.faforever.client.chat.ChatService.PARTY_CHANNEL_SUFFIX;
 import static com.faforever.client.game.KnownFeaturedMod.FAF;
@@ -93,6 +105,10 @@ import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
 @RequiredArgsConstructor
 public class TeamMatchmakingService implements InitializingBean {
 
+  private static final Comparator<MatchmakerQueueMapPool> MAP_POOL_COMPARATOR = Comparator.comparing(
+      MatchmakerQueueMapPool::minRating, Comparator.nullsFirst(Double::compare)).thenComparing(
+      MatchmakerQueueMapPool::maxRating, Comparator.nullsLast(Double::compare));
+
   private final MapService mapService;
   private final FeaturedModService featuredModService;
   private final PlayerService playerService;
@@ -131,6 +147,7 @@ public class TeamMatchmakingService implements InitializingBean {
   private final AtomicBoolean matchFoundAndWaitingForGameLaunch = new AtomicBoolean();
   private final ReadOnlyBooleanWrapper inQueue = new ReadOnlyBooleanWrapper();
   private final BooleanProperty searching = new SimpleBooleanProperty();
+  private final Map<String, Disposable> mapPrefetches = new ConcurrentHashMap<>();
 
   @Override
   public void afterPropertiesSet() throws Exception {
@@ -196,6 +213,7 @@ public class TeamMatchmakingService implements InitializingBean {
 
     fafServerAccessor.getEvents(MatchmakerMatchFoundResponse.class)
                      .doOnNext(ignored -> matchFoundAndWaitingForGameLaunch.set(true))
+                     .doOnNext(ignored -> stopPrefetchingMaps())
                      .doOnNext(ignored -> notifyMatchFound())
                      .publishOn(fxApplicationThreadExecutor.asScheduler())
                      .doOnNext(ignored -> queues.forEach(matchmakingQueue -> matchmakingQueue.setMatchingStatus(null)))
@@ -271,6 +289,7 @@ public class TeamMatchmakingService implements InitializingBean {
 
     if (!newValue) {
       searching.set(false);
+      stopPrefetchingMaps();
       if (!matchFoundAndWaitingForGameLaunch.get()) {
         gameRunner.stopSearchMatchmaker();
       }
@@ -431,9 +450,22 @@ public class TeamMatchmakingService implements InitializingBean {
     queues.stream().filter(queue -> queue.getMatchingStatus() == MatchingStatus.SEARCHING).forEach(this::leaveQueue);
   }
 
+  /**
+   * Downloads the maps of the player's rating bracket before joining the queue, as these are the ones the player is
+   * most likely to be matched on. The maps of the other brackets are prefetched in the background while searching,
+   * closest brackets first. If the player's bracket can't be determined, all maps are downloaded before joining.
+   */
   private CompletableFuture<Boolean> joinQueue(MatchmakerQueueInfo queue) {
-    return mapService.downloadAllMatchmakerMaps(queue)
-                     .then(Mono.fromRunnable(() -> fafServerAccessor.gameMatchmaking(queue, MatchmakerState.START)))
+    stopPrefetchingMaps(queue);
+    Integer rating = getPlayerRating(queue);
+    return mapService.getMatchmakerBrackets(queue)
+                     .map(brackets -> getMapsByPriority(brackets, rating))
+                     .flatMap(mapsByPriority -> mapService.downloadMatchmakerMaps(mapsByPriority.getFirst())
+                                                          .then(Mono.fromRunnable(
+                                                              () -> fafServerAccessor.gameMatchmaking(queue,
+                                                                                                      MatchmakerState.START)))
+                                                          .then(Mono.fromRunnable(
+                                                              () -> prefetchMaps(queue, mapsByPriority.getLast()))))
                      .thenReturn(true)
                      .onErrorResume(throwable -> {
                        log.error("Unable to join queue `{}`", queue.getTechnicalName(), throwable);
@@ -445,7 +477,81 @@ public class TeamMatchmakingService implements InitializingBean {
                      .toFuture();
   }
 
+  /**
+   * Splits the maps of the specified brackets into the ones that are needed before joining the queue and the ones that
+   * can be prefetched afterwards, ordered by the distance of their bracket to the player's one.
+   */
+  @VisibleForTesting
+  static List<List<MapVersion>> getMapsByPriority(Map<MatchmakerQueueMapPool, List<MapVersion>> brackets,
+                                                  @Nullable Integer rating) {
+    List<MatchmakerQueueMapPool> pools = brackets.keySet().stream().sorted(MAP_POOL_COMPARATOR).toList();
+    int playerPoolIndex = IntStream.range(0, pools.size())
+                                   .filter(index -> rating != null && isInBracket(pools.get(index), rating))
+                                   .findFirst()
+                                   .orElse(-1);
+    if (playerPoolIndex < 0) {
+      List<MapVersion> allMaps = pools.stream().map(brackets::get).flatMap(List::stream).distinct().toList();
+      return List.of(allMaps, List.of());
+    }
+
+    List<MapVersion> requiredMaps = List.copyOf(brackets.get(pools.get(playerPoolIndex)));
+    Set<MapVersion> mapsToPrefetch = new LinkedHashSet<>();
+    IntStream.range(0, pools.size())
+             .boxed()
+             .sorted(Comparator.comparingInt(index -> Math.abs(index - playerPoolIndex)))
+             .map(index -> brackets.get(pools.get(index)))
+             .forEach(mapsToPrefetch::addAll);
+    requiredMaps.forEach(mapsToPrefetch::remove);
+    return List.of(requiredMaps, List.copyOf(mapsToPrefetch));
+  }
+
+  @Nullable
+  private Integer getPlayerRating(MatchmakerQueueInfo queue) {
+    PlayerInfo currentPlayer = playerService.getCurrentPlayer();
+    Leaderboard leaderboard = queue.getLeaderboard();
+    if (currentPlayer == null || leaderboard == null || leaderboard.technicalName() == null) {
+      return null;
+    }
+    return RatingUtil.getLeaderboardRating(currentPlayer, leaderboard);
+  }
+
+  private static boolean isInBracket(MatchmakerQueueMapPool pool, int rating) {
+    return (pool.minRating() == null || pool.minRating() < rating) && (pool.maxRating() == null || pool.maxRating() > rating);
+  }
+
+  private void prefetchMaps(MatchmakerQueueInfo queue, List<MapVersion> mapVersions) {
+    if (mapVersions.isEmpty()) {
+      return;
+    }
+
+    Disposable prefetch = mapService.prefetchMatchmakerMaps(mapVersions)
+                                    .doOnSubscribe(ignored -> log.debug("Prefetching {} maps of queue `{}`",
+                                                                        mapVersions.size(), queue.getTechnicalName()))
+                                    .subscribe();
+    Disposable previousPrefetch = mapPrefetches.put(queue.getTechnicalName(), prefetch);
+    if (previousPrefetch != null) {
+      previousPrefetch.dispose();
+    }
+  }
+
+  private void stopPrefetchingMaps(MatchmakerQueueInfo queue) {
+    Disposable prefetch = mapPrefetches.remove(queue.getTechnicalName());
+    if (prefetch != null) {
+      prefetch.dispose();
+    }
+  }
+
+  /**
+   * Stops prefetching maps so the game can be launched without competing for bandwidth. Maps that have not been
+   * downloaded yet are fetched the next time the queue is joined.
+   */
+  private void stopPrefetchingMaps() {
+    List.copyOf(mapPrefetches.values()).forEach(Disposable::dispose);
+    mapPrefetches.clear();
+  }
+
   private void leaveQueue(MatchmakerQueueInfo queue) {
+    stopPrefetchingMaps(queue);
     fafServerAccessor.gameMatchmaking(queue, MatchmakerState.STOP);
   }
 
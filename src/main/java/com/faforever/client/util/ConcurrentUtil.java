@@ -2,7 +2,15 @@ package com.faforever.client.util;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Slf4j
 public final class ConcurrentUtil {
@@ -15,4 +23,44 @@ public final class ConcurrentUtil {
     return throwable instanceof CompletionException completionException ? completionException : new CompletionException(
         throwable);
   }
+
+  /**
+   * Applies the function to all items on a work-stealing pool with as many threads as there are cores. Results are
+   * collected in the order of the items and handed to the batch consumer on the calling thread, so that consumers can
+   * publish many results at once. {@code null} results are skipped. Progress is reported in item order as well.
+   *
+   * @param progressConsumer receives the number of processed items and the total number of items
+   */
+  public static <T, R> void processInParallel(List<T> items, Function<T, R> function, int batchSize,
+                                              Consumer<List<R>> batchConsumer,
+                                              BiConsumer<Integer, Integer> progressConsumer) throws InterruptedException {
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    try {
+      List<Future<R>> futures = items.stream().map(item -> pool.submit(() -> function.apply(item))).toList();
+
+      List<R> batch = new ArrayList<>(batchSize);
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          R result = futures.get(i).get();
+          if (result != null) {
+            batch.add(result);
+          }
+        } catch (ExecutionException e) {
+          log.warn("Could not process `{}`", items.get(i), e.getCause());
+        }
+
+        progressConsumer.accept(i + 1, futures.size());
+        if (batch.size() >= batchSize) {
+          batchConsumer.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        batchConsumer.accept(batch);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
 }
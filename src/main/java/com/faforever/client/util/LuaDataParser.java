@@ -0,0 +1,338 @@
+package com.faforever.client.util;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+import java.text.ParseException;
+import java.util.Set;
+
+/**
+ * Parses Lua files that only assign constant values to global variables, like the {@code _scenario.lua} of maps or the
+ * {@code mod_info.lua} of mods. Unlike {@link LuaUtil#load(java.io.InputStream)}, nothing is compiled or executed and
+ * no Lua globals are set up, the values are read straight into {@link LuaTable}s.
+ * <p>
+ * Supported are assignments of strings, numbers, booleans, {@code nil} and (nested) tables, as well as the identity
+ * functions {@code STRING}, {@code FLOAT} and {@code BOOLEAN} used by scenario files. Anything else is rejected with a
+ * {@link ParseException}, in which case the file needs to be run by LuaJ instead.
+ */
+public final class LuaDataParser {
+
+  private static final Set<String> IDENTITY_FUNCTIONS = Set.of("STRING", "FLOAT", "BOOLEAN");
+
+  private final String source;
+  private int position;
+
+  private LuaDataParser(String source) {
+    this.source = source;
+  }
+
+  /**
+   * @return a table containing the assigned global variables
+   */
+  public static LuaTable parse(String source) throws ParseException {
+    return new LuaDataParser(source).parseChunk();
+  }
+
+  private LuaTable parseChunk() throws ParseException {
+    LuaTable globals = new LuaTable();
+    skipWhitespaceAndComments();
+    while (position < source.length()) {
+      String name = readName();
+      expect('=');
+      LuaValue value = parseExpression();
+      if (!value.isnil()) {
+        globals.set(name, value);
+      }
+      skipWhitespaceAndComments();
+      if (position < source.length() && source.charAt(position) == ';') {
+        position++;
+        skipWhitespaceAndComments();
+      }
+    }
+    return globals;
+  }
+
+  private LuaValue parseExpression() throws ParseException {
+    skipWhitespaceAndComments();
+    char next = peek();
+    if (next == '{') {
+      return parseTable();
+    }
+    if (next == '"' || next == '\'') {
+      return LuaValue.valueOf(readQuotedString());
+    }
+    if (next == '[' && isLongBracket()) {
+      return LuaValue.valueOf(readLongBracket());
+    }
+    if (next == '-' || next == '.' || Character.isDigit(next)) {
+      return parseNumber();
+    }
+    if (isNameStart(next)) {
+      String name = readName();
+      return switch (name) {
+        case "true" -> LuaValue.TRUE;
+        case "false" -> LuaValue.FALSE;
+        case "nil" -> LuaValue.NIL;
+        default -> parseIdentityFunctionCall(name);
+      };
+    }
+    throw new ParseException("Unexpected character '" + next + "'", position);
+  }
+
+  private LuaValue parseIdentityFunctionCall(String name) throws ParseException {
+    int start = position;
+    if (!IDENTITY_FUNCTIONS.contains(name)) {
+      throw new ParseException("Unsupported expression: " + name, start);
+    }
+    expect('(');
+    LuaValue value = parseExpression();
+    expect(')');
+    return value;
+  }
+
+  private LuaTable parseTable() throws ParseException {
+    expect('{');
+    LuaTable table = new LuaTable();
+    int arrayIndex = 1;
+    while (true) {
+      skipWhitespaceAndComments();
+      char next = peek();
+      if (next == '}') {
+        position++;
+        return table;
+      }
+
+      LuaValue key;
+      LuaValue value;
+      if (next == '[' && !isLongBracket()) {
+        position++;
+        key = parseExpression();
+        expect(']');
+        expect('=');
+        value = parseExpression();
+      } else if (isNameStart(next) && isFieldAssignment()) {
+        key = LuaValue.valueOf(readName());
+        expect('=');
+        value = parseExpression();
+      } else {
+        key = LuaValue.valueOf(arrayIndex++);
+        value = parseExpression();
+      }
+
+      if (key.isnil()) {
+        throw new ParseException("Table index is nil", position);
+      }
+      if (!value.isnil()) {
+        table.set(key, value);
+      }
+
+      skipWhitespaceAndComments();
+      next = peek();
+      if (next == ',' || next == ';') {
+        position++;
+      } else if (next != '}') {
+        throw new ParseException("Expected ',' or '}' but got '" + next + "'", position);
+      }
+    }
+  }
+
+  /**
+   * Whether the name at the current position is followed by a single {@code =}, i.e. is a field name rather than the
+   * beginning of a value like {@code true} or {@code STRING(...)}.
+   */
+  private boolean isFieldAssignment() throws ParseException {
+    int start = position;
+    readName();
+    skipWhitespaceAndComments();
+    boolean isFieldAssignment = position + 1 < source.length() && source.charAt(position) == '='
+        && source.charAt(position + 1) != '=';
+    position = start;
+    return isFieldAssignment;
+  }
+
+  private LuaValue parseNumber() throws ParseException {
+    int start = position;
+    boolean negative = false;
+    while (peek() == '-') {
+      if (position + 1 < source.length() && source.charAt(position + 1) == '-') {
+        throw new ParseException("Unexpected comment", position);
+      }
+      negative = !negative;
+      position++;
+      skipWhitespaceAndComments();
+    }
+
+    int numberStart = position;
+    double value;
+    if (source.startsWith("0x", position) || source.startsWith("0X", position)) {
+      position += 2;
+      while (position < source.length() && Character.digit(source.charAt(position), 16) != -1) {
+        position++;
+      }
+      try {
+        value = Long.parseLong(source.substring(numberStart + 2, position), 16);
+      } catch (NumberFormatException e) {
+        throw new ParseException("Invalid hex number", start);
+      }
+    } else {
+      while (position < source.length() && isNumberPart(source.charAt(position))) {
+        char current = source.charAt(position++);
+        if ((current == 'e' || current == 'E') && position < source.length()
+            && (source.charAt(position) == '-' || source.charAt(position) == '+')) {
+          position++;
+        }
+      }
+      try {
+        value = Double.parseDouble(source.substring(numberStart, position));
+      } catch (NumberFormatException e) {
+        throw new ParseException("Invalid number", start);
+      }
+    }
+
+    // Integral values become integers, just like when LuaJ parses them
+    return LuaValue.valueOf(negative ? -value : value);
+  }
+
+  private static boolean isNumberPart(char c) {
+    return Character.isDigit(c) || c == '.' || c == 'e' || c == 'E';
+  }
+
+  private String readQuotedString() throws ParseException {
+    int start = position;
+    char quote = source.charAt(position++);
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      if (position >= source.length()) {
+        throw new ParseException("Unfinished string", start);
+      }
+      char current = source.charAt(position++);
+      if (current == quote) {
+        return builder.toString();
+      }
+      if (current == '\n') {
+        throw new ParseException("Unfinished string", start);
+      }
+      if (current != '\\') {
+        builder.append(current);
+        continue;
+      }
+
+      if (position >= source.length()) {
+        throw new ParseException("Unfinished string", start);
+      }
+      char escaped = source.charAt(position++);
+      switch (escaped) {
+        case 'n', '\n' -> builder.append('\n');
+        case 't' -> builder.append('\t');
+        case 'r' -> builder.append('\r');
+        case 'a' -> builder.append('\u0007');
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'v' -> builder.append('\u000B');
+        case '\\', '"', '\'' -> builder.append(escaped);
+        default -> {
+          if (!Character.isDigit(escaped)) {
+            throw new ParseException("Invalid escape sequence \\" + escaped, position - 2);
+          }
+          int code = escaped - '0';
+          for (int i = 0; i < 2 && position < source.length() && Character.isDigit(source.charAt(position)); i++) {
+            code = code * 10 + source.charAt(position++) - '0';
+          }
+          builder.append((char) code);
+        }
+      }
+    }
+  }
+
+  private boolean isLongBracket() {
+    int index = position + 1;
+    while (index < source.length() && source.charAt(index) == '=') {
+      index++;
+    }
+    return index < source.length() && source.charAt(index) == '[';
+  }
+
+  /**
+   * Reads a long string like {@code [[text]]} or {@code [==[text]==]}, which is also the syntax of long comments.
+   */
+  private String readLongBracket() throws ParseException {
+    int start = position;
+    position++;
+    int level = 0;
+    while (source.charAt(position) == '=') {
+      level++;
+      position++;
+    }
+    position++;
+
+    String closingBracket = "]" + "=".repeat(level) + "]";
+    int end = source.indexOf(closingBracket, position);
+    if (end == -1) {
+      throw new ParseException("Unfinished long string or comment", start);
+    }
+
+    int contentStart = position;
+    // A newline directly following the opening bracket is not part of the string
+    if (source.startsWith("\r\n", contentStart)) {
+      contentStart += 2;
+    } else if (contentStart < end && source.charAt(contentStart) == '\n') {
+      contentStart++;
+    }
+    position = end + closingBracket.length();
+    return source.substring(Math.min(contentStart, end), end);
+  }
+
+  private String readName() throws ParseException {
+    skipWhitespaceAndComments();
+    int start = position;
+    if (position >= source.length() || !isNameStart(source.charAt(position))) {
+      throw new ParseException("Expected a name", position);
+    }
+    while (position < source.length() && isNamePart(source.charAt(position))) {
+      position++;
+    }
+    return source.substring(start, position);
+  }
+
+  private static boolean isNameStart(char c) {
+    return Character.isLetter(c) || c == '_';
+  }
+
+  private static boolean isNamePart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+
+  private void expect(char expected) throws ParseException {
+    skipWhitespaceAndComments();
+    if (peek() != expected) {
+      throw new ParseException("Expected '" + expected + "'", position);
+    }
+    position++;
+  }
+
+  private char peek() throws ParseException {
+    if (position >= source.length()) {
+      throw new ParseException("Unexpected end of file", position);
+    }
+    return source.charAt(position);
+  }
+
+  private void skipWhitespaceAndComments() throws ParseException {
+    while (position < source.length()) {
+      char current = source.charAt(position);
+      if (Character.isWhitespace(current) || current == '\uFEFF') {
+        position++;
+      } else if (source.startsWith("--", position)) {
+        position += 2;
+        if (position < source.length() && source.charAt(position) == '[' && isLongBracket()) {
+          readLongBracket();
+        } else {
+          int lineEnd = source.indexOf('\n', position);
+          position = lineEnd == -1 ? source.length() : lineEnd + 1;
+        }
+      } else {
+        return;
+      }
+    }
+  }
+}
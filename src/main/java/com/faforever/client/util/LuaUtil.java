@@ -1,18 +1,22 @@
 package com.faforever.client.util;
 
 import com.google.common.io.CharStreams;
+import lombok.extern.slf4j.Slf4j;
 import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.jse.JsePlatform;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParseException;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+@Slf4j
 public final class LuaUtil {
 
   private LuaUtil() {
@@ -25,6 +29,20 @@ public final class LuaUtil {
     }
   }
 
+  /**
+   * Reads a Lua file that only assigns constant values, like a map scenario, with the {@link LuaDataParser}. Files that
+   * need to be interpreted are loaded with {@link #loadFile(Path)} instead.
+   */
+  public static LuaValue loadData(Path file) throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    try {
+      return LuaDataParser.parse(new String(bytes, UTF_8));
+    } catch (ParseException e) {
+      log.debug("Could not parse `{}` without interpreting it, loading it with LuaJ ({})", file, e.getMessage());
+      return load(new ByteArrayInputStream(bytes));
+    }
+  }
+
   public static LuaValue load(InputStream inputStream) throws IOException {
     Globals globals = JsePlatform.standardGlobals();
     globals.baselib.load(globals.load(CharStreams.toString(new InputStreamReader(LuaUtil.class.getResourceAsStream("/lua/faf.lua"), UTF_8))));
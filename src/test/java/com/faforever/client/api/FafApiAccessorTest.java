@@ -27,19 +27,20 @@ import org.instancio.Instancio;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.io.TempDir;
 import org.mapstruct.factory.Mappers;
 import org.mockito.Spy;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.testfx.util.WaitForAsyncUtils;
+import reactor.core.publisher.Flux;
 import reactor.netty.http.client.HttpClient;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
@@ -54,8 +55,6 @@ public class FafApiAccessorTest extends ServiceTest {
 
   private FafApiAccessor instance;
 
-  @TempDir
-  public Path tempDirectory;
   private ClientProperties clientProperties;
   private ResourceConverter resourceConverter;
   private MockWebServer mockApi;
@@ -143,10 +142,13 @@ public class FafApiAccessorTest extends ServiceTest {
 
   @Test
   public void testUploadFile() throws Exception {
-    Path tempFile = Files.createFile(tempDirectory.resolve("temp"));
     prepareVoidResponse();
-    StepVerifier.create(instance.uploadFile("/", tempFile, (written, total) -> {
-    }, Map.of())).verifyComplete();
+    DataBuffer content = DefaultDataBufferFactory.sharedInstance.wrap("content".getBytes(StandardCharsets.UTF_8));
+    StepVerifier.create(instance.uploadFile("/", "test.zip", Flux.just(content), Map.of())).verifyComplete();
+
+    String body = mockApi.takeRequest().getBody().readUtf8();
+    assertThat(body, containsString("filename=\"test.zip\""));
+    assertThat(body, containsString("content"));
   }
 
   @Test
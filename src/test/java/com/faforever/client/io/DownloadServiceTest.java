@@ -1,14 +1,35 @@
 package com.faforever.client.io;
 
 import com.faforever.client.test.ServiceTest;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.springframework.core.io.ClassPathResource;
 
+import java.io.IOException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -16,11 +37,25 @@ public class DownloadServiceTest extends ServiceTest {
   private static final ClassPathResource SAMPLE_FILE = new ClassPathResource("/io/sample-file.txt");
   private static final String SAMPLE_FILE_CHECKSUM = "b53227da4280f0e18270f21dd77c91d0";
 
+  @TempDir
+  public Path tempDirectory;
 
+  private MockWebServer server;
 
   @InjectMocks
   private DownloadService instance;
 
+  @BeforeEach
+  public void setUp() throws Exception {
+    server = new MockWebServer();
+    server.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
   @Test
   public void testDownloadFile() throws Exception {
     Path temp = Files.createTempFile("download", ".dat");
@@ -36,4 +71,105 @@ public class DownloadServiceTest extends ServiceTest {
     assertThrows(ChecksumMismatchException.class, () -> instance.downloadFile(SAMPLE_FILE.getURL(), Map.of(), temp, (processed, total) -> {
     }, "00000000000000000000000000000000"));
   }
+
+  @Test
+  public void testResumeDownload() throws Exception {
+    Path target = tempDirectory.resolve("sample-file.txt");
+    Files.writeString(tempDirectory.resolve("sample-file.txt.part"), "Some ");
+    Files.writeString(tempDirectory.resolve("sample-file.txt.part.validator"), "\"v1\"");
+    server.enqueue(new MockResponse().setResponseCode(206).setHeader("ETag", "\"v1\"").setBody("content"));
+
+    instance.downloadFile(getUrl(), Map.of(), target, (processed, total) -> {}, SAMPLE_FILE_CHECKSUM);
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Range"), is("bytes=5-"));
+    assertThat(request.getHeader("If-Range"), is("\"v1\""));
+    assertThat(Files.readString(target), is("Some content"));
+    assertThat(Files.exists(tempDirectory.resolve("sample-file.txt.part")), is(false));
+    assertThat(Files.exists(tempDirectory.resolve("sample-file.txt.part.validator")), is(false));
+  }
+
+  @Test
+  public void testResumeDownloadOfChangedFile() throws Exception {
+    Path target = tempDirectory.resolve("sample-file.txt");
+    Files.writeString(tempDirectory.resolve("sample-file.txt.part"), "Other");
+    Files.writeString(tempDirectory.resolve("sample-file.txt.part.validator"), "\"v1\"");
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody("Some content"));
+
+    instance.downloadFile(getUrl(), Map.of(), target, (processed, total) -> {}, SAMPLE_FILE_CHECKSUM);
+
+    assertThat(Files.readString(target), is("Some content"));
+  }
+
+  @Test
+  public void testDownloadIsRetried() throws Exception {
+    Path target = tempDirectory.resolve("sample-file.txt");
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Some content"));
+
+    instance.downloadFile(getUrl(), Map.of(), target, (processed, total) -> {});
+
+    assertThat(server.getRequestCount(), is(2));
+    assertThat(Files.readString(target), is("Some content"));
+  }
+
+  @Test
+  public void testMissingFileIsNotRetried() throws Exception {
+    Path target = tempDirectory.resolve("sample-file.txt");
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    assertThrows(IOException.class, () -> instance.downloadFile(getUrl(), Map.of(), target, (processed, total) -> {}));
+
+    assertThat(server.getRequestCount(), is(1));
+    assertThat(Files.exists(target), is(false));
+  }
+
+  @Test
+  public void testConcurrentDownloadsOfSameTarget() throws Exception {
+    Path target = tempDirectory.resolve("sample-file.txt");
+    server.enqueue(new MockResponse().setBody("Some content").throttleBody(4, 50, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("Some content").throttleBody(4, 50, TimeUnit.MILLISECONDS));
+
+    List<String> contents = new CopyOnWriteArrayList<>();
+    Callable<Void> download = () -> {
+      instance.downloadTemporaryFile(getUrl(), Map.of(), target, (processed, total) -> {}, file -> {
+        contents.add(Files.readString(file));
+      });
+      return null;
+    };
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      for (Future<Void> future : executorService.invokeAll(List.of(download, download))) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    assertThat(contents, contains("Some content", "Some content"));
+    assertThat(Files.exists(target), is(false));
+    assertThat(Files.exists(tempDirectory.resolve("sample-file.txt.part")), is(false));
+  }
+
+  @Test
+  public void testAbandonedPartialFilesArePruned() throws Exception {
+    Path abandonedPartialFile = Files.writeString(tempDirectory.resolve("other-file.txt.part"), "Some");
+    Path abandonedValidatorFile = Files.writeString(tempDirectory.resolve("other-file.txt.part.validator"), "\"v1\"");
+    Path recentPartialFile = Files.writeString(tempDirectory.resolve("recent-file.txt.part"), "Some");
+    FileTime lastWeek = FileTime.from(Instant.now().minus(Duration.ofDays(8)));
+    Files.setLastModifiedTime(abandonedPartialFile, lastWeek);
+    Files.setLastModifiedTime(abandonedValidatorFile, lastWeek);
+    server.enqueue(new MockResponse().setBody("Some content"));
+
+    instance.downloadFile(getUrl(), Map.of(), tempDirectory.resolve("sample-file.txt"), (processed, total) -> {});
+
+    assertThat(Files.exists(abandonedPartialFile), is(false));
+    assertThat(Files.exists(abandonedValidatorFile), is(false));
+    assertThat(Files.exists(recentPartialFile), is(true));
+  }
+
+  private URL getUrl() {
+    return server.url("/sample-file.txt").url();
+  }
 }
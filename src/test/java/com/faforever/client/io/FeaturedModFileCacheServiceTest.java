@@ -8,16 +8,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class FeaturedModFileCacheServiceTest extends ServiceTest {
 
@@ -29,6 +36,8 @@ public class FeaturedModFileCacheServiceTest extends ServiceTest {
   private DataPrefs dataPrefs;
   @Spy
   private Preferences preferences;
+  @Mock
+  private FileHashCache fileHashCache;
 
   @InjectMocks
   private FeaturedModFileCacheService instance;
@@ -74,5 +83,26 @@ public class FeaturedModFileCacheServiceTest extends ServiceTest {
 
     assertTrue(Files.isRegularFile(targetPath));
     assertEquals(hashNewFile, instance.readHashFromFile(targetPath));
+    verify(fileHashCache).invalidate(targetPath);
+    verify(fileHashCache).put(eq(targetPath), any(), eq(fakeHashOfNewFile));
+  }
+
+  @Test
+  public void testReadHashFromFileCachesHash() throws IOException {
+    Path file = Files.writeString(targetDirectory.resolve("test.faf"), "Some content");
+
+    assertThat(instance.readHashFromFile(file), is("b53227da4280f0e18270f21dd77c91d0"));
+
+    verify(fileHashCache).put(eq(file), any(), eq("b53227da4280f0e18270f21dd77c91d0"));
+  }
+
+  @Test
+  public void testReadHashFromFileUsesCachedHash() throws IOException {
+    Path file = Files.writeString(targetDirectory.resolve("test.faf"), "Some content");
+    when(fileHashCache.get(eq(file), any())).thenReturn(Optional.of("cached"));
+
+    assertThat(instance.readHashFromFile(file), is("cached"));
+
+    verify(fileHashCache, never()).put(any(), any(), any());
   }
 }
\ No newline at end of file
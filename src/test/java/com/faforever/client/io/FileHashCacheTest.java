@@ -0,0 +1,67 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FileHashCacheTest extends ServiceTest {
+
+  private static final String HASH = "b53227da4280f0e18270f21dd77c91d0";
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private DataPrefs dataPrefs;
+
+  @InjectMocks
+  private FileHashCache instance;
+
+  private Path file;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    file = Files.writeString(Files.createDirectories(tempDirectory.resolve("gamedata")).resolve("units.nx2"), "units");
+  }
+
+  private BasicFileAttributes readAttributes() throws Exception {
+    return Files.readAttributes(file, BasicFileAttributes.class);
+  }
+
+  @Test
+  public void testCacheIsPersisted() throws Exception {
+    instance.put(file, readAttributes(), HASH);
+    instance.save();
+
+    FileHashCache reloadedCache = new FileHashCache(dataPrefs);
+
+    assertThat(reloadedCache.get(file, readAttributes()), is(Optional.of(HASH)));
+  }
+
+  @Test
+  public void testSaveDropsDeletedFiles() throws Exception {
+    instance.put(file, readAttributes(), HASH);
+    BasicFileAttributes attributes = readAttributes();
+    Files.delete(file);
+    instance.save();
+    Files.writeString(file, "units");
+    Files.setLastModifiedTime(file, attributes.lastModifiedTime());
+
+    FileHashCache reloadedCache = new FileHashCache(dataPrefs);
+
+    assertThat(reloadedCache.get(file, attributes), is(Optional.empty()));
+  }
+}
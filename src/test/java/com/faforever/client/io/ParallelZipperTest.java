@@ -0,0 +1,101 @@
+package com.faforever.client.io;
+
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class ParallelZipperTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  private ExecutorService executor;
+  private Path folder;
+  private byte[] largeFileContent;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+
+    folder = Files.createDirectories(tempDirectory.resolve("some_map.v0001"));
+    Files.writeString(folder.resolve("some_map_scenario.lua"), "ScenarioInfo = {}");
+    Files.writeString(Files.createDirectories(folder.resolve("env")).resolve("decal.dds"), "decal".repeat(100));
+    largeFileContent = new byte[64 * 1024];
+    new Random(0).nextBytes(largeFileContent);
+    Files.write(folder.resolve("some_map.scmap"), largeFileContent);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testZipSequentially() throws Exception {
+    assertContent(zip(new ParallelZipper(folder, executor)));
+  }
+
+  @Test
+  public void testZipInParallel() throws Exception {
+    assertContent(zip(new ParallelZipper(folder, executor, 0, 1024)));
+  }
+
+  @Test
+  public void testListenerReportsUncompressedBytes() throws Exception {
+    AtomicLong bytesDone = new AtomicLong();
+    AtomicLong totalBytes = new AtomicLong();
+
+    new ParallelZipper(folder, executor, 0, 1024).zip(OutputStream.nullOutputStream(), (written, total) -> {
+      bytesDone.set(written);
+      totalBytes.set(total);
+    });
+
+    long expectedBytes = 17 + 500 + largeFileContent.length;
+    assertThat(bytesDone.get(), is(expectedBytes));
+    assertThat(totalBytes.get(), is(expectedBytes));
+  }
+
+  private byte[] zip(ParallelZipper zipper) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    zipper.zip(outputStream, (written, total) -> {});
+    return outputStream.toByteArray();
+  }
+
+  private void assertContent(byte[] zip) throws Exception {
+    Map<String, byte[]> entries = new HashMap<>();
+    try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        entries.put(entry.getName(), zipInputStream.readAllBytes());
+      }
+    }
+
+    assertThat(entries.keySet().size(), is(5));
+    assertThat(entries.get("some_map.v0001/").length, is(0));
+    assertThat(entries.get("some_map.v0001/env/").length, is(0));
+    assertThat(new String(entries.get("some_map.v0001/some_map_scenario.lua"), StandardCharsets.UTF_8), is("ScenarioInfo = {}"));
+    assertThat(new String(entries.get("some_map.v0001/env/decal.dds"), StandardCharsets.UTF_8), is("decal".repeat(100)));
+    assertArrayEquals(largeFileContent, entries.get("some_map.v0001/some_map.scmap"));
+  }
+}
@@ -0,0 +1,119 @@
+package com.faforever.client.io;
+
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class PersistentFileCacheTest extends ServiceTest {
+
+  private static final String VALUE = "b53227da4280f0e18270f21dd77c91d0";
+
+  @TempDir
+  public Path tempDirectory;
+
+  private TestCache instance;
+  private Path file;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    instance = new TestCache(1);
+    file = Files.writeString(Files.createDirectories(tempDirectory.resolve("gamedata")).resolve("units.nx2"), "units");
+  }
+
+  private BasicFileAttributes readAttributes() throws Exception {
+    return Files.readAttributes(file, BasicFileAttributes.class);
+  }
+
+  @Test
+  public void testGetCachedValue() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+
+    assertThat(instance.getValue(file, readAttributes()), is(Optional.of(VALUE)));
+  }
+
+  @Test
+  public void testGetChangedFile() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+
+    Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+
+    assertThat(instance.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  @Test
+  public void testGetReplacedFile() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+
+    Files.writeString(file, "other");
+
+    assertThat(instance.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+
+    instance.invalidate(file);
+
+    assertThat(instance.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  @Test
+  public void testCacheIsPersisted() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+    instance.save(retainedFile -> true);
+
+    TestCache reloadedCache = new TestCache(1);
+
+    assertThat(reloadedCache.getValue(file, readAttributes()), is(Optional.of(VALUE)));
+  }
+
+  @Test
+  public void testSaveDropsFilesThatAreNotRetained() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+    instance.save(retainedFile -> !retainedFile.equals(file.toAbsolutePath()));
+
+    TestCache reloadedCache = new TestCache(1);
+
+    assertThat(reloadedCache.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  @Test
+  public void testCacheOfOtherVersionIsDiscarded() throws Exception {
+    instance.putValue(file, readAttributes(), VALUE);
+    instance.save(retainedFile -> true);
+
+    TestCache reloadedCache = new TestCache(2);
+
+    assertThat(reloadedCache.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  @Test
+  public void testCorruptCacheIsDiscarded() throws Exception {
+    Files.writeString(tempDirectory.resolve("cache.json"), "{\"version\": 1, \"entries\": [");
+
+    assertThat(instance.getValue(file, readAttributes()), is(Optional.empty()));
+  }
+
+  private class TestCache extends PersistentFileCache<String> {
+
+    TestCache(int version) {
+      super(version, String.class);
+    }
+
+    @Override
+    protected Path getCacheFile() {
+      return tempDirectory.resolve("cache.json");
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.faforever.client.io;
+
+import com.faforever.client.api.FafApiAccessor;
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class UploadServiceTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Mock
+  private FafApiAccessor fafApiAccessor;
+  @Captor
+  private ArgumentCaptor<Publisher<DataBuffer>> contentCaptor;
+
+  private ExecutorService taskExecutor;
+  private UploadService instance;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    taskExecutor = Executors.newCachedThreadPool();
+    instance = new UploadService(fafApiAccessor, taskExecutor);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    taskExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testUploadFolder() throws Exception {
+    Path folder = Files.createDirectories(tempDirectory.resolve("test-mod"));
+    Files.writeString(folder.resolve("mod_info.lua"), "name = 'Test'");
+
+    AtomicReference<byte[]> uploadedContent = new AtomicReference<>();
+    when(fafApiAccessor.uploadFile(eq("/mods/upload"), eq("test-mod.zip"), contentCaptor.capture(), eq(Map.of())))
+        .thenAnswer(invocation -> DataBufferUtils.join(contentCaptor.getValue())
+            .doOnNext(dataBuffer -> {
+              byte[] bytes = new byte[dataBuffer.readableByteCount()];
+              dataBuffer.read(bytes);
+              DataBufferUtils.release(dataBuffer);
+              uploadedContent.set(bytes);
+            })
+            .then());
+
+    AtomicLong bytesSent = new AtomicLong();
+    AtomicLong totalBytes = new AtomicLong();
+    instance.uploadFolder("/mods/upload", folder, (written, total) -> {
+      bytesSent.set(written);
+      totalBytes.set(total);
+    }, Map.of()).block();
+
+    byte[] zip = uploadedContent.get();
+    assertThat((long) zip.length, is(bytesSent.get()));
+    assertThat(totalBytes.get(), is(bytesSent.get()));
+
+    try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      assertThat(zipInputStream.getNextEntry().getName(), is("test-mod/"));
+      ZipEntry entry = zipInputStream.getNextEntry();
+      assertThat(entry.getName(), is("test-mod/mod_info.lua"));
+      assertThat(new String(zipInputStream.readAllBytes(), StandardCharsets.UTF_8), is("name = 'Test'"));
+    }
+  }
+
+  @Test
+  public void testResubscribedUploadReportsProgressFromStart() throws Exception {
+    Path folder = Files.createDirectories(tempDirectory.resolve("test-mod"));
+    Files.writeString(folder.resolve("mod_info.lua"), "name = 'Test'");
+
+    AtomicReference<byte[]> uploadedContent = new AtomicReference<>();
+    when(fafApiAccessor.uploadFile(eq("/mods/upload"), eq("test-mod.zip"), contentCaptor.capture(), eq(Map.of())))
+        .thenAnswer(invocation -> DataBufferUtils.join(contentCaptor.getValue())
+            .doOnNext(dataBuffer -> {
+              byte[] bytes = new byte[dataBuffer.readableByteCount()];
+              dataBuffer.read(bytes);
+              DataBufferUtils.release(dataBuffer);
+              uploadedContent.set(bytes);
+            })
+            .repeat(1)
+            .then());
+
+    AtomicLong bytesSent = new AtomicLong();
+    AtomicLong totalBytes = new AtomicLong();
+    instance.uploadFolder("/mods/upload", folder, (written, total) -> {
+      bytesSent.set(written);
+      totalBytes.set(total);
+    }, Map.of()).block();
+
+    assertThat((long) uploadedContent.get().length, is(bytesSent.get()));
+    assertThat(totalBytes.get(), is(bytesSent.get()));
+  }
+}
@@ -1,6 +1,8 @@
 package com.faforever.client.map;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.test.PlatformTest;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -28,13 +31,18 @@ public class DownloadMapTaskTest extends PlatformTest {
   @Mock
   private I18n i18n;
   @Spy
+  private DataPrefs dataPrefs;
+  @Spy
   private ForgedAlliancePrefs forgedAlliancePrefs;
+  @Spy
+  private DownloadService downloadService;
 
   private Path mapsDirectory;
 
   @BeforeEach
   public void setUp() throws Exception {
-    instance = new DownloadMapTask(i18n, forgedAlliancePrefs);
+    instance = new DownloadMapTask(i18n, dataPrefs, forgedAlliancePrefs, downloadService);
+    dataPrefs.setBaseDataDirectory(tempDirectory);
     forgedAlliancePrefs.setVaultBaseDirectory(tempDirectory);
     mapsDirectory = Files.createDirectory(tempDirectory.resolve("maps"));
   }
@@ -58,5 +66,6 @@ public class DownloadMapTaskTest extends PlatformTest {
     instance.call();
 
     assertTrue(Files.exists(mapsDirectory.resolve("theta_passage_5.v0001").resolve("theta_passage_5_scenario.lua")));
+    assertFalse(Files.exists(dataPrefs.getDownloadCacheDirectory().resolve(".zip")));
   }
 }
@@ -0,0 +1,79 @@
+package com.faforever.client.map;
+
+import com.faforever.client.domain.api.Map;
+import com.faforever.client.domain.api.MapType;
+import com.faforever.client.domain.api.MapVersion;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.ServiceTest;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class InstalledMapsCacheTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private DataPrefs dataPrefs;
+
+  @InjectMocks
+  private InstalledMapsCache instance;
+
+  private Path mapFolder;
+  private Path scenarioFile;
+  private MapVersion mapVersion;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    mapFolder = Files.createDirectories(tempDirectory.resolve("maps").resolve("some_map.v0002"));
+    scenarioFile = Files.writeString(mapFolder.resolve("some_map_scenario.lua"), "ScenarioInfo = {}");
+    Map map = new Map(null, "Some Map", 0, null, false, MapType.SKIRMISH, null);
+    mapVersion = new MapVersion(null, "some_map.v0002", 0, "Description", 4, new MapSize(512, 512),
+                                new ComparableVersion("2"), false, false, null, null, null, map, null);
+  }
+
+  private BasicFileAttributes readAttributes() throws Exception {
+    return Files.readAttributes(scenarioFile, BasicFileAttributes.class);
+  }
+
+  @Test
+  public void testGetCachedMap() throws Exception {
+    instance.put(scenarioFile, readAttributes(), mapVersion);
+
+    assertThat(instance.get(scenarioFile, readAttributes()), is(Optional.of(mapVersion)));
+  }
+
+  @Test
+  public void testCacheIsPersisted() throws Exception {
+    instance.put(scenarioFile, readAttributes(), mapVersion);
+    instance.save(List.of(mapFolder));
+
+    InstalledMapsCache reloadedCache = new InstalledMapsCache(dataPrefs);
+
+    assertThat(reloadedCache.get(scenarioFile, readAttributes()), is(Optional.of(mapVersion)));
+  }
+
+  @Test
+  public void testSaveDropsRemovedMapFolders() throws Exception {
+    instance.put(scenarioFile, readAttributes(), mapVersion);
+    instance.save(List.of());
+
+    InstalledMapsCache reloadedCache = new InstalledMapsCache(dataPrefs);
+
+    assertThat(reloadedCache.get(scenarioFile, readAttributes()), is(Optional.empty()));
+  }
+}
@@ -59,6 +59,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -79,6 +80,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -116,6 +118,8 @@ public class MapServiceTest extends PlatformTest {
   private ObjectFactory<UninstallMapTask> uninstallMapTaskFactory;
   @Mock
   private FileSizeReader fileSizeReader;
+  @Mock
+  private InstalledMapsCache installedMapsCache;
   @Spy
   private MapMapper mapMapper = Mappers.getMapper(MapMapper.class);
   @Spy
@@ -150,8 +154,9 @@ public class MapServiceTest extends PlatformTest {
     instance = new MapService(notificationService, taskService, fafApiAccessor, assetService, i18n,
                               themeService, mapGeneratorService, playerService, mapMapper, matchmakerMapper, fileSizeReader,
                               clientProperties, forgedAlliancePrefs, preferences, mapUploadTaskFactory,
-                              downloadMapTaskFactory, uninstallMapTaskFactory, fxApplicationThreadExecutor);
-    instance.officialMaps = Set.of();
+                              downloadMapTaskFactory, uninstallMapTaskFactory, fxApplicationThreadExecutor,
+                              installedMapsCache);
+    instance.setOfficialMaps(Set.of());
     instance.afterPropertiesSet();
   }
 
@@ -163,7 +168,7 @@ public class MapServiceTest extends PlatformTest {
   @Test
   @Disabled("Unstable test: Map could not be read")
   public void testGetLocalMapsOfficialMap() throws Exception {
-    instance.officialMaps = Set.of("SCMP_001");
+    instance.setOfficialMaps(Set.of("SCMP_001"));
 
     Path scmp001 = Files.createDirectory(mapsDirectory.resolve("SCMP_001"));
     Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
@@ -203,11 +208,24 @@ public class MapServiceTest extends PlatformTest {
     assertThat(mapBean.size(), is(new MapSize(1024, 1024)));
     assertThat(mapBean.version(), is(new ComparableVersion("1")));
     assertThat(mapBean.folderName(), is("SCMP_001"));
+    verify(installedMapsCache).put(any(), any(), eq(mapBean));
+  }
+
+  @Test
+  public void testReadMapFromCache() throws Exception {
+    Path cachedMap = Files.createDirectory(mapsDirectory.resolve("cachedMap"));
+    Files.writeString(cachedMap.resolve("cachedMap_scenario.lua"), "{\"This is invalid\", \"}");
+    MapVersion mapVersion = Instancio.create(MapVersion.class);
+    when(installedMapsCache.get(eq(cachedMap.resolve("cachedMap_scenario.lua")), any())).thenReturn(
+        Optional.of(mapVersion));
+
+    assertThat(instance.readMap(cachedMap), is(mapVersion));
+    verify(installedMapsCache, never()).put(any(), any(), any());
   }
 
   @Test
   public void testInstalledOfficialMapIgnoreCase() throws Exception {
-    instance.officialMaps = Set.of("SCMP_001");
+    instance.setOfficialMaps(Set.of("SCMP_001"));
 
     Path scmp001 = Files.createDirectory(mapsDirectory.resolve("SCMP_001"));
     Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
@@ -217,6 +235,38 @@ public class MapServiceTest extends PlatformTest {
     assertThat(instance.isInstalled("ScMp_001"), is(true));
   }
 
+  @Test
+  public void testGetPathForMapCaseInsensitive() throws Exception {
+    Path customMap = Files.createDirectory(mapsDirectory.resolve("Some_Map.v0001"));
+
+    instance.afterPropertiesSet();
+
+    assertThat(instance.getPathForMapCaseInsensitive("some_map.V0001"), is(customMap));
+    assertThat(instance.getPathForMapCaseInsensitive("other_map.v0001"), nullValue());
+  }
+
+  @Test
+  public void testGetPathForOfficialMapCaseInsensitive() throws Exception {
+    instance.setOfficialMaps(Set.of("SCMP_001"));
+    Path installationPath = Files.createDirectory(tempDirectory.resolve("installation"));
+    Path officialMap = Files.createDirectories(installationPath.resolve("maps").resolve("scmp_001"));
+    forgedAlliancePrefs.setInstallationPath(installationPath);
+
+    assertThat(instance.getPathForMapCaseInsensitive("SCMP_001"), is(officialMap));
+    assertThat(instance.getPathForMapCaseInsensitive("SCMP_002"), nullValue());
+  }
+
+  @Test
+  public void testGetPathForMapCaseInsensitiveOfNewMap() throws Exception {
+    Path customMap = Files.createDirectory(mapsDirectory.resolve("Some_Map.v0001"));
+
+    assertThat(instance.getPathForMapCaseInsensitive("Some_Map.v0001"), is(customMap));
+
+    Files.delete(customMap);
+
+    assertThat(instance.getPathForMapCaseInsensitive("Some_Map.v0001"), nullValue());
+  }
+
   @Test
   public void testLoadPreview() {
     for (PreviewSize previewSize : PreviewSize.values()) {
@@ -282,7 +332,7 @@ public class MapServiceTest extends PlatformTest {
   public void testIsOfficialMap() {
     MapVersion officialMap = Instancio.create(MapVersion.class);
     MapVersion customMap = Instancio.create(MapVersion.class);
-    instance.officialMaps = Set.of(officialMap.folderName());
+    instance.setOfficialMaps(Set.of(officialMap.folderName()));
 
     assertThat(instance.isOfficialMap(officialMap), is(true));
     assertThat(instance.isOfficialMap(officialMap.folderName()), is(true));
@@ -294,7 +344,7 @@ public class MapServiceTest extends PlatformTest {
   public void testIsCustomMap() {
     MapVersion officialMap = Instancio.create(MapVersion.class);
     MapVersion customMap = Instancio.create(MapVersion.class);
-    instance.officialMaps = Set.of(officialMap.folderName());
+    instance.setOfficialMaps(Set.of(officialMap.folderName()));
 
     assertThat(instance.isCustomMap(customMap), is(true));
     assertThat(instance.isCustomMap(officialMap), is(false));
@@ -355,7 +405,7 @@ public class MapServiceTest extends PlatformTest {
   @Test
   public void testUpdateMapToLatestVersionIfOfficalMap() throws Exception {
     MapVersion offical = Instancio.create(MapVersion.class);
-    instance.officialMaps = Set.of(offical.folderName());
+    instance.setOfficialMaps(Set.of(offical.folderName()));
 
     StepVerifier.create(instance.updateLatestVersionIfNecessary(offical)).expectNext(offical).verifyComplete();
 
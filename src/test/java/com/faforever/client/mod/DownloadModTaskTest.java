@@ -1,6 +1,7 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.test.PlatformTest;
@@ -12,6 +13,7 @@ import org.mockito.Spy;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -32,10 +34,12 @@ public class DownloadModTaskTest extends PlatformTest {
   private DataPrefs dataPrefs;
   @Spy
   private ForgedAlliancePrefs forgedAlliancePrefs;
+  @Spy
+  private DownloadService downloadService;
 
   @BeforeEach
   public void setUp() throws Exception {
-    instance = new DownloadModTask(i18n, dataPrefs, forgedAlliancePrefs);
+    instance = new DownloadModTask(i18n, dataPrefs, forgedAlliancePrefs, downloadService);
     dataPrefs.setBaseDataDirectory(tempDirectory);
     forgedAlliancePrefs.setVaultBaseDirectory(tempDirectory);
 
@@ -59,5 +63,8 @@ public class DownloadModTaskTest extends PlatformTest {
 
     assertThat(Files.exists(modTargetDirectory.resolve("mod_info.lua")), is(true));
     assertThat(Files.exists(fileThatShouldBeDeletedByInstall), is(false));
+    try (Stream<Path> stagedFiles = Files.list(modsDirectory.resolve(DownloadModTask.STAGING_DIRECTORY_NAME))) {
+      assertThat(stagedFiles.count(), is(0L));
+    }
   }
 }
@@ -0,0 +1,80 @@
+package com.faforever.client.mod;
+
+import com.faforever.client.domain.api.Mod;
+import com.faforever.client.domain.api.ModType;
+import com.faforever.client.domain.api.ModVersion;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.ServiceTest;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class InstalledModsCacheTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private DataPrefs dataPrefs;
+
+  @InjectMocks
+  private InstalledModsCache instance;
+
+  private Path modFolder;
+  private Path modInfoFile;
+  private ModVersion modVersion;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    modFolder = Files.createDirectories(tempDirectory.resolve("mods").resolve("SomeMod"));
+    modInfoFile = Files.writeString(modFolder.resolve("mod_info.lua"), "name = \"Some Mod\"");
+    Mod mod = new Mod(null, "Some Mod", false, "Someone", null, null);
+    modVersion = new ModVersion(null, "b2cde810-15d0-4bfa-af66-ec2d6ecd561b", "Description",
+                                new ComparableVersion("3"), modFolder.resolve("icon.png").toUri().toURL(), null,
+                                ModType.SIM, false, false, mod, null, null);
+  }
+
+  private BasicFileAttributes readAttributes() throws Exception {
+    return Files.readAttributes(modInfoFile, BasicFileAttributes.class);
+  }
+
+  @Test
+  public void testGetCachedMod() throws Exception {
+    instance.put(modInfoFile, readAttributes(), modVersion);
+
+    assertThat(instance.get(modInfoFile, readAttributes()), is(Optional.of(modVersion)));
+  }
+
+  @Test
+  public void testCacheIsPersisted() throws Exception {
+    instance.put(modInfoFile, readAttributes(), modVersion);
+    instance.save(List.of(modFolder));
+
+    InstalledModsCache reloadedCache = new InstalledModsCache(dataPrefs);
+
+    assertThat(reloadedCache.get(modInfoFile, readAttributes()), is(Optional.of(modVersion)));
+  }
+
+  @Test
+  public void testSaveDropsRemovedModFolders() throws Exception {
+    instance.put(modInfoFile, readAttributes(), modVersion);
+    instance.save(List.of());
+
+    InstalledModsCache reloadedCache = new InstalledModsCache(dataPrefs);
+
+    assertThat(reloadedCache.get(modInfoFile, readAttributes()), is(Optional.empty()));
+  }
+}
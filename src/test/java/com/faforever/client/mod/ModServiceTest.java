@@ -6,6 +6,7 @@ import com.faforever.client.domain.api.ModVersion;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.game.GamePrefsService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.mapstruct.MapperSetup;
 import com.faforever.client.mapstruct.ModMapper;
 import com.faforever.client.notification.NotificationService;
@@ -39,10 +40,12 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.TaskScheduler;
 import org.testfx.util.WaitForAsyncUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -53,11 +56,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -67,13 +74,18 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -112,7 +124,13 @@ public class ModServiceTest extends PlatformTest {
   @Mock
   private ObjectFactory<DownloadModTask> downloadModTaskFactory;
   @Mock
+  private ObjectFactory<DownloadModsTask> downloadModsTaskFactory;
+  @Mock
   private ObjectFactory<UninstallModTask> uninstallModTaskFactory;
+  @Mock
+  private InstalledModsCache installedModsCache;
+  @Mock
+  private TaskScheduler taskScheduler;
   @Spy
   private ModMapper modMapper = Mappers.getMapper(ModMapper.class);
   @Spy
@@ -131,8 +149,9 @@ public class ModServiceTest extends PlatformTest {
     instance = new ModService(fafApiAccessor, gamePrefsService, taskService, notificationService, i18n, platformService,
                               assetService,
                               themeService, fileSizeReader, modMapper, forgedAlliancePrefs, preferences,
-                              modUploadTaskFactory, downloadModTaskFactory, uninstallModTaskFactory,
-                              fxApplicationThreadExecutor);
+                              modUploadTaskFactory, downloadModTaskFactory, downloadModsTaskFactory,
+                              uninstallModTaskFactory,
+                              fxApplicationThreadExecutor, installedModsCache, taskScheduler);
     MapperSetup.injectMappers(modMapper);
     modsDirectory = tempDirectory.resolve("mods");
     Files.createDirectories(modsDirectory);
@@ -224,6 +243,18 @@ public class ModServiceTest extends PlatformTest {
     assertThat(modVersion.id(), is(nullValue()));
     assertThat(modVersion.uid(), is("9e8ea941-c306-4751-b367-a11000000502"));
     assertThat(modVersion.modType(), equalTo(ModType.SIM));
+    verify(installedModsCache).put(any(), any(), eq(modVersion));
+  }
+
+  @Test
+  public void testExtractModInfoFromCache() throws Exception {
+    Path cachedMod = Files.createDirectory(modsDirectory.resolve("cachedMod"));
+    Files.writeString(cachedMod.resolve("mod_info.lua"), "{\"This is invalid\", \"}");
+    ModVersion modVersion = Instancio.create(ModVersion.class);
+    when(installedModsCache.get(eq(cachedMod.resolve("mod_info.lua")), any())).thenReturn(Optional.of(modVersion));
+
+    assertThat(instance.extractModInfo(cachedMod), is(modVersion));
+    verify(installedModsCache, never()).put(any(), any(), any());
   }
 
   @Test
@@ -284,7 +315,57 @@ public class ModServiceTest extends PlatformTest {
   public void testLoadThumbnail() throws MalformedURLException {
     ModVersion modVersion = Instancio.create(ModVersion.class);
     instance.loadThumbnail(modVersion);
-    verify(assetService).loadAndCacheImage(eq(modVersion.thumbnailUrl()), eq(Path.of("mods")), any());
+    verify(assetService).loadAndCacheImage(eq(modVersion.thumbnailUrl()), eq(Path.of("mods")), any(), eq(128), eq(128));
+  }
+
+  @Test
+  public void testModsAddedByWatcherAreCachedOnceDelayed() throws Exception {
+    clearInvocations(installedModsCache);
+
+    for (String modDirectoryName : List.of("First", "Second")) {
+      Path stagedMod = Files.createDirectories(tempDirectory.resolve("staged").resolve(modDirectoryName));
+      try (InputStream inputStream = BLACKOPS_UNLEASHED_MOD_INFO.getInputStream()) {
+        Files.copy(inputStream, stagedMod.resolve("mod_info.lua"));
+      }
+      Files.move(stagedMod, modsDirectory.resolve(modDirectoryName));
+    }
+
+    verify(installedModsCache, timeout(10_000).times(2)).put(any(), any(), any());
+    ArgumentCaptor<Runnable> saveCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler, after(500)).schedule(saveCaptor.capture(), any(Instant.class));
+    verify(installedModsCache, never()).save(any());
+
+    saveCaptor.getValue().run();
+
+    verify(installedModsCache).save(argThat(modFolders -> modFolders.containsAll(
+        List.of(modsDirectory.resolve("First"), modsDirectory.resolve("Second")))));
+  }
+
+  @Test
+  public void testDownloadAndEnableMods() throws Exception {
+    ModVersion firstModVersion = Instancio.create(ModVersion.class);
+    ModVersion secondModVersion = Instancio.create(ModVersion.class);
+    String installedModUid = "9e8ea941-c306-4751-b367-a11000000502";
+    when(fafApiAccessor.getMany(any())).thenReturn(
+        Flux.just(modMapper.map(firstModVersion), modMapper.map(secondModVersion)));
+    when(downloadModTaskFactory.getObject()).thenAnswer(invocation -> stubDownloadModTask());
+    DownloadModsTask downloadModsTask = new DownloadModsTask(i18n, downloadModTaskFactory);
+    when(downloadModsTaskFactory.getObject()).thenReturn(downloadModsTask);
+
+    StepVerifier.create(
+                    instance.downloadAndEnableMods(Set.of(firstModVersion.uid(), secondModVersion.uid(), installedModUid)))
+                .verifyComplete();
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(fafApiAccessor).getMany(any());
+    verify(taskService).submitTask(downloadModsTask);
+    verify(taskService, never()).submitTask(any(DownloadModTask.class));
+    verify(downloadModTaskFactory, times(2)).getObject();
+    assertThat(downloadModsTask.getUrls().stream().map(URL::toString).toList(),
+               containsInAnyOrder(firstModVersion.downloadUrl().toString(), secondModVersion.downloadUrl().toString()));
+    assertThat(downloadModsTask.getProgress(), is(1.0));
+    verify(gamePrefsService).writeActiveModUIDs(
+        Set.of(firstModVersion.uid(), secondModVersion.uid(), installedModUid));
   }
 
   @Test
@@ -334,7 +415,7 @@ public class ModServiceTest extends PlatformTest {
   }
 
   private DownloadModTask stubDownloadModTask() {
-    return new DownloadModTask(i18n, dataPrefs, forgedAlliancePrefs) {
+    return new DownloadModTask(i18n, dataPrefs, forgedAlliancePrefs, new DownloadService()) {
       @Override
       protected Void call() {
         return null;
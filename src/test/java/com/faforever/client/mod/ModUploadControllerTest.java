@@ -1,10 +1,10 @@
 package com.faforever.client.mod;
 
-import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.domain.api.ModVersion;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.DataPrefs;
 import com.faforever.client.reporting.ReportingService;
@@ -60,7 +60,7 @@ public class ModUploadControllerTest extends PlatformTest {
   private I18n i18n;
 
   @Mock
-  private FafApiAccessor fafApiAccessor;
+  private UploadService uploadService;
 
   @BeforeEach
   public void setUp() throws Exception {
@@ -69,7 +69,7 @@ public class ModUploadControllerTest extends PlatformTest {
       return null;
     }).when(executorService).execute(any());
 
-    modUploadTask = new ModUploadTask(fafApiAccessor, i18n, dataPrefs) {
+    modUploadTask = new ModUploadTask(uploadService, i18n) {
       @Override
       protected Void call() {
         return null;
@@ -1,23 +1,27 @@
 package com.faforever.client.mod;
 
-import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.test.PlatformTest;
+import com.faforever.commons.io.ByteCountListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import org.mockito.Spy;
+import org.testfx.util.WaitForAsyncUtils;
 import reactor.core.publisher.Mono;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.collection.IsArrayWithSize.emptyArray;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 
@@ -29,20 +33,17 @@ public class ModUploadTaskTest extends PlatformTest {
   private ModUploadTask instance;
 
   @Mock
-  private FafApiAccessor fafApiAccessor;
+  private UploadService uploadService;
   @Mock
   private I18n i18n;
-  @Spy
-  private DataPrefs dataPrefs;
 
   @BeforeEach
   public void setUp() throws Exception {
-    instance = new ModUploadTask(fafApiAccessor, i18n, dataPrefs);
-    dataPrefs.setBaseDataDirectory(tempDirectory);
+    instance = new ModUploadTask(uploadService, i18n);
 
-    Files.createDirectories(dataPrefs.getCacheDirectory());
     lenient().when(i18n.get(any())).thenReturn("");
-    lenient().when(fafApiAccessor.uploadFile(any(), any(), any(), any())).thenReturn(Mono.empty());
+    lenient().when(i18n.getUserSpecificLocale()).thenReturn(Locale.US);
+    lenient().when(uploadService.uploadFolder(any(), any(), any(), any())).thenReturn(Mono.empty());
   }
 
   @Test
@@ -51,19 +52,27 @@ public class ModUploadTaskTest extends PlatformTest {
   }
 
   @Test
-  public void testProgressListenerNull() throws Exception {
-    instance.setModPath(Path.of("."));
-    assertThrows(NullPointerException.class, () -> instance.call());
+  public void testCall() throws Exception {
+    Path modPath = Files.createDirectories(tempDirectory.resolve("test-mod"));
+    instance.setModPath(modPath);
+
+    instance.call();
+
+    verify(uploadService).uploadFolder(eq("/mods/upload"), eq(modPath), any(), eq(Map.of()));
   }
 
   @Test
-  public void testCall() throws Exception {
+  public void testProgressIsBasedOnBytesSent() throws Exception {
     instance.setModPath(Files.createDirectories(tempDirectory.resolve("test-mod")));
 
     instance.call();
 
-    verify(fafApiAccessor).uploadFile(any(), any(), any(), any());
+    ArgumentCaptor<ByteCountListener> listenerCaptor = ArgumentCaptor.forClass(ByteCountListener.class);
+    verify(uploadService).uploadFolder(any(), any(), listenerCaptor.capture(), any());
+    listenerCaptor.getValue().updateBytesProcessed(25, 100);
+    WaitForAsyncUtils.waitForFxEvents();
 
-    assertThat(Files.list(dataPrefs.getCacheDirectory()).toArray(), emptyArray());
+    assertThat(instance.getWorkDone(), is(25.0));
+    assertThat(instance.getTotalWork(), is(100.0));
   }
 }
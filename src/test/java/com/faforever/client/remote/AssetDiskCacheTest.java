@@ -0,0 +1,271 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.remote.AssetDiskCache.Metadata;
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+
+import java.io.OutputStream;
+import java.net.CacheRequest;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+public class AssetDiskCacheTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private ClientProperties clientProperties;
+  @Spy
+  private DataPrefs dataPrefs;
+
+  @InjectMocks
+  private AssetDiskCache instance;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+  }
+
+  @Test
+  public void testCacheFilesOfSameFileNameDoNotCollide() {
+    Path first = instance.getCacheFile("https://content.example.com/maps/previews/large/map.png", Path.of("maps"));
+    Path second = instance.getCacheFile("https://content.example.com/maps/previews/small/map.png", Path.of("maps"));
+
+    assertThat(first, not(is(second)));
+    assertThat(first.startsWith(dataPrefs.getAssetCacheDirectory().resolve("maps")), is(true));
+    assertThat(first.getFileName().toString(), endsWith(".png"));
+  }
+
+  @Test
+  public void testCacheFileWithoutExtension() {
+    Path cacheFile = instance.getCacheFile("https://content.example.com/avatar?id=1.2/3", Path.of("avatars"));
+
+    assertThat(cacheFile.getFileName().toString().contains("."), is(false));
+  }
+
+  @Test
+  public void testStoredWritesMetadata() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+
+    assertThat(instance.readMetadata(cacheFile), nullValue());
+
+    instance.stored(url, cacheFile, "\"etag\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+    Metadata metadata = instance.readMetadata(cacheFile);
+    assertThat(metadata.url(), is(url));
+    assertThat(metadata.eTag(), is("\"etag\""));
+    assertThat(metadata.lastModified(), is("Wed, 21 Oct 2015 07:28:00 GMT"));
+  }
+
+  @Test
+  public void testCacheDownloadWritesResponse() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+
+    CacheRequest cacheRequest = instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK));
+    try (OutputStream body = cacheRequest.getBody()) {
+      body.write(new byte[]{1, 2});
+      assertThat(Files.exists(cacheFile), is(false));
+      body.write(3);
+    }
+
+    assertThat(Files.readAllBytes(cacheFile), is(new byte[]{1, 2, 3}));
+    assertThat(instance.readMetadata(cacheFile).eTag(), is("\"etag\""));
+  }
+
+  @Test
+  public void testAbortedDownloadIsDiscarded() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+
+    CacheRequest cacheRequest = instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK));
+    cacheRequest.getBody().write(new byte[]{1, 2});
+    cacheRequest.abort();
+
+    assertThat(Files.exists(cacheFile), is(false));
+    try (Stream<Path> files = Files.list(cacheFile.getParent())) {
+      assertThat(files.count(), is(0L));
+    }
+  }
+
+  @Test
+  public void testOnlyPendingDownloadsAreCached() throws Exception {
+    String url = "https://content.example.com/map.png";
+
+    assertThat(instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK)), nullValue());
+
+    instance.cacheDownload(url, instance.getCacheFile(url, Path.of("maps")));
+
+    assertThat(instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_NOT_FOUND)), nullValue());
+  }
+
+  @Test
+  public void testRedirectedDownloadIsCachedForRequestedUrl() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+
+    instance.requested(url);
+    instance.requested("https://cdn.example.com/map.png");
+    CacheRequest cacheRequest = instance.createCacheRequest(
+        mockConnection("https://cdn.example.com/map.png", HttpURLConnection.HTTP_OK));
+    try (OutputStream body = cacheRequest.getBody()) {
+      body.write(new byte[]{1, 2, 3});
+    }
+
+    assertThat(Files.readAllBytes(cacheFile), is(new byte[]{1, 2, 3}));
+    assertThat(instance.readMetadata(cacheFile).url(), is(url));
+  }
+
+  @Test
+  public void testUnrelatedRequestAfterCachedDownloadIsNotCached() throws Exception {
+    String url = "https://content.example.com/map.png";
+    instance.cacheDownload(url, instance.getCacheFile(url, Path.of("maps")));
+
+    instance.requested(url);
+    assertThat(instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_NOT_FOUND)), nullValue());
+
+    instance.requested("https://content.example.com/other.png");
+    assertThat(instance.createCacheRequest(
+        mockConnection("https://content.example.com/other.png", HttpURLConnection.HTTP_OK)), nullValue());
+  }
+
+  @Test
+  public void testForgottenDownloadIsNotCached() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+
+    instance.forgetDownload(url, cacheFile);
+
+    assertThat(instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK)), nullValue());
+  }
+
+  @Test
+  public void testUnrelatedRequestAfterFailedDownloadIsNotCached() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+    instance.requested(url);
+    // The request failed before a response was stored, so the loader forgets the download and it is queued again
+    instance.forgetDownload(url, cacheFile);
+    instance.cacheDownload(url, cacheFile);
+
+    instance.requested("https://content.example.com/other.png");
+    assertThat(instance.createCacheRequest(
+        mockConnection("https://content.example.com/other.png", HttpURLConnection.HTTP_OK)), nullValue());
+    assertThat(Files.exists(cacheFile), is(false));
+
+    instance.requested(url);
+    CacheRequest cacheRequest = instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK));
+    assertThat(cacheRequest, notNullValue());
+    cacheRequest.abort();
+  }
+
+  @Test
+  public void testUnrelatedRequestAfterFailedDownloadQueuedAgainIsNotCached() throws Exception {
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+    instance.requested(url);
+    instance.cacheDownload(url, cacheFile);
+
+    instance.requested("https://content.example.com/other.png");
+
+    assertThat(instance.createCacheRequest(
+        mockConnection("https://content.example.com/other.png", HttpURLConnection.HTTP_OK)), nullValue());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    clientProperties.getAssetCache().setCacheSizeBytes(250);
+    Path oldest = writeCachedAsset("https://content.example.com/1.png", 0);
+    Path newest = writeCachedAsset("https://content.example.com/2.png", 2000);
+    Path middle = writeCachedAsset("https://content.example.com/3.png", 1000);
+
+    instance.evictIfNecessary();
+
+    assertThat(Files.exists(oldest), is(false));
+    assertThat(Files.exists(middle), is(true));
+    assertThat(Files.exists(newest), is(true));
+    assertThat(instance.getCacheSize(), is(200L));
+  }
+
+  @Test
+  public void testNoEvictionWithinBudget() throws Exception {
+    Path cachedAsset = writeCachedAsset("https://content.example.com/1.png", 0);
+
+    instance.evictIfNecessary();
+
+    assertThat(Files.exists(cachedAsset), is(true));
+    assertThat(instance.getCacheSize(), is(100L));
+  }
+
+  @Test
+  public void testCacheSizeIsTrackedWithoutListingCache() throws Exception {
+    writeCachedAsset("https://content.example.com/1.png", 0);
+    instance.evictIfNecessary();
+
+    String url = "https://content.example.com/map.png";
+    Path cacheFile = instance.getCacheFile(url, Path.of("maps"));
+    instance.cacheDownload(url, cacheFile);
+    CacheRequest cacheRequest = instance.createCacheRequest(mockConnection(url, HttpURLConnection.HTTP_OK));
+    try (OutputStream body = cacheRequest.getBody()) {
+      body.write(new byte[50]);
+    }
+
+    long metadataSize = Files.size(cacheFile.resolveSibling(cacheFile.getFileName() + ".meta"));
+    assertThat(instance.getCacheSize(), is(150 + metadataSize));
+  }
+
+  @Test
+  public void testUsedTouchesValidAsset() throws Exception {
+    String url = "https://content.example.com/1.png";
+    Path cachedAsset = writeCachedAsset(url, 0);
+    instance.stored(url, cachedAsset, "\"etag\"", null);
+
+    instance.used(url, cachedAsset);
+
+    assertThat(Files.getLastModifiedTime(cachedAsset).toMillis() > 0, is(true));
+    assertThat(instance.readMetadata(cachedAsset).eTag(), is("\"etag\""));
+  }
+
+  private HttpURLConnection mockConnection(String url, int responseCode) throws Exception {
+    HttpURLConnection connection = mock(HttpURLConnection.class);
+    lenient().when(connection.getURL()).thenReturn(new URL(url));
+    lenient().when(connection.getResponseCode()).thenReturn(responseCode);
+    lenient().when(connection.getHeaderField("ETag")).thenReturn("\"etag\"");
+    return connection;
+  }
+
+  private Path writeCachedAsset(String url, long lastUsed) throws Exception {
+    Path cacheFile = instance.getCacheFile(url, Path.of("test"));
+    Files.createDirectories(cacheFile.getParent());
+    Files.write(cacheFile, new byte[100]);
+    Files.setLastModifiedTime(cacheFile, FileTime.fromMillis(lastUsed));
+    return cacheFile;
+  }
+}
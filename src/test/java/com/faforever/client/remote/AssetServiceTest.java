@@ -0,0 +1,119 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.remote.AssetService.ImageCacheStatistics;
+import com.faforever.client.test.PlatformTest;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AssetServiceTest extends PlatformTest {
+
+  private static final URL FLAG_URL = AssetServiceTest.class.getResource("/images/flags/de.png");
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Mock
+  private AssetDiskCache assetDiskCache;
+  @Spy
+  private ClientProperties clientProperties;
+
+  @InjectMocks
+  private AssetService instance;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    instance.afterPropertiesSet();
+  }
+
+  @Test
+  public void testLoadImageIsCachedInMemory() {
+    Image image = instance.loadImage(FLAG_URL, 0, 0);
+
+    assertThat(instance.loadImage(FLAG_URL, 0, 0), sameInstance(image));
+
+    ImageCacheStatistics statistics = instance.getImageCacheStatistics();
+    assertThat(statistics.hitCount(), is(1L));
+    assertThat(statistics.missCount(), is(1L));
+    assertThat(statistics.imageCount(), is(1L));
+  }
+
+  @Test
+  public void testImageIsDecodedAtRequestedSize() throws Exception {
+    Image image = instance.loadImage(FLAG_URL, 8, 8);
+    waitUntilLoaded(image);
+
+    assertThat(image.getWidth() <= 8 && image.getHeight() <= 8, is(true));
+    assertThat(instance.getImageCacheStatistics().memoryBytes(),
+               is((long) (image.getWidth() * image.getHeight() * 4)));
+  }
+
+  @Test
+  public void testLoadAndCacheImageFromDiskCache() throws Exception {
+    URL url = new URL("https://content.example.com/flag.png");
+    Path cacheFile = tempDirectory.resolve("flag.png");
+    try (InputStream inputStream = FLAG_URL.openStream()) {
+      Files.copy(inputStream, cacheFile);
+    }
+    when(assetDiskCache.getCacheFile(url.toString(), Path.of("flags"))).thenReturn(cacheFile);
+
+    Image image = instance.loadAndCacheImage(url, Path.of("flags"));
+    waitUntilLoaded(image);
+
+    assertThat(image.isError(), is(false));
+    assertThat(instance.loadAndCacheImage(url, Path.of("flags")), sameInstance(image));
+    verify(assetDiskCache, times(1)).markUsed(url.toString(), cacheFile);
+    verify(assetDiskCache, never()).stored(any(), any(), any(), any());
+  }
+
+  @Test
+  public void testFailedDownloadIsForgotten() throws Exception {
+    URL url = tempDirectory.resolve("missing.png").toUri().toURL();
+    Path cacheFile = tempDirectory.resolve("cache").resolve("missing.png");
+    when(assetDiskCache.getCacheFile(url.toString(), Path.of("flags"))).thenReturn(cacheFile);
+
+    Image image = instance.loadAndCacheImage(url, Path.of("flags"));
+    waitUntilLoaded(image);
+
+    assertThat(image.isError(), is(true));
+    verify(assetDiskCache).cacheDownload(url.toString(), cacheFile);
+    verify(assetDiskCache).forgetDownload(url.toString(), cacheFile);
+  }
+
+  @Test
+  public void testFailedImageIsNotCached() throws Exception {
+    URL url = tempDirectory.resolve("missing.png").toUri().toURL();
+
+    Image image = instance.loadImage(url, 0, 0);
+    waitUntilLoaded(image);
+
+    assertThat(image.isError(), is(true));
+    assertThat(instance.getImageCacheStatistics().imageCount(), is(0L));
+  }
+
+  private void waitUntilLoaded(Image image) throws Exception {
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> image.getProgress() >= 1 || image.isError());
+    WaitForAsyncUtils.waitForFxEvents();
+  }
+}
@@ -0,0 +1,251 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.mapstruct.MapperSetup;
+import com.faforever.client.mapstruct.ReplayMapper;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class LocalReplayIndexTest extends ServiceTest {
+
+  private static final String REPLAY_FILE_GLOB = "*.fafreplay";
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private ReplayFileReaderImpl replayFileReader;
+  @Spy
+  private ReplayMapper replayMapper = Mappers.getMapper(ReplayMapper.class);
+  @Spy
+  private DataPrefs dataPrefs;
+  @Mock
+  private TaskScheduler taskScheduler;
+
+  @InjectMocks
+  private LocalReplayIndex instance;
+
+  private Path replaysDirectory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    MapperSetup.injectMappers(replayMapper);
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    replaysDirectory = Files.createDirectories(dataPrefs.getReplaysDirectory());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  private Path copyTestReplay(String fileName) throws Exception {
+    Path replayFile = replaysDirectory.resolve(fileName);
+    try (InputStream inputStream = getClass().getResourceAsStream("/replay/test.fafreplay")) {
+      Files.copy(inputStream, replayFile);
+    }
+    return replayFile;
+  }
+
+  @Test
+  public void testUpdateIndexesNewReplays() throws Exception {
+    copyTestReplay("1.fafreplay");
+
+    List<Path> unreadableFiles = instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    assertThat(unreadableFiles, is(empty()));
+    List<LocalReplayIndexEntry> entries = instance.getEntries();
+    assertThat(entries, hasSize(1));
+    LocalReplayIndexEntry entry = entries.getFirst();
+    assertThat(entry.fileName(), is("1.fafreplay"));
+    assertThat(entry.uid(), is(5670811));
+    assertThat(entry.title(), is("fun"));
+    assertThat(entry.mapFolderName(), is("scmp_009"));
+    assertThat(entry.featuredMod(), is("faf"));
+  }
+
+  @Test
+  public void testUpdateSkipsUnchangedReplays() throws Exception {
+    copyTestReplay("1.fafreplay");
+
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    verify(replayFileReader, times(1)).readReplayHeader(any());
+  }
+
+  @Test
+  public void testUpdateRemovesDeletedReplays() throws Exception {
+    Path replayFile = copyTestReplay("1.fafreplay");
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    Files.delete(replayFile);
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    assertThat(instance.getEntries(), is(empty()));
+  }
+
+  @Test
+  public void testUpdateReturnsUnreadableReplays() throws Exception {
+    Path brokenFile = Files.writeString(replaysDirectory.resolve("broken.fafreplay"), "not a replay");
+
+    List<Path> unreadableFiles = instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    assertThat(unreadableFiles, is(List.of(brokenFile)));
+    assertThat(instance.getEntries(), is(empty()));
+  }
+
+  @Test
+  public void testIndexIsPersisted() throws Exception {
+    copyTestReplay("1.fafreplay");
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+    instance.destroy();
+
+    LocalReplayIndex reloadedIndex = new LocalReplayIndex(replayFileReader, replayMapper, dataPrefs, taskScheduler);
+    reloadedIndex.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    assertThat(reloadedIndex.getEntries(), is(instance.getEntries()));
+    verify(replayFileReader, times(1)).readReplayHeader(any());
+  }
+
+  @Test
+  public void testChangesAreSavedOnceDelayed() throws Exception {
+    Path replayFile = copyTestReplay("1.fafreplay");
+    instance.add(replayFile);
+    instance.addChatMessages(replayFile, List.of("Good game, well played!"));
+    instance.add(copyTestReplay("2.fafreplay"));
+
+    ArgumentCaptor<Runnable> saveCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler).schedule(saveCaptor.capture(), any(Instant.class));
+    assertThat(Files.exists(dataPrefs.getLocalReplayIndexFile()), is(false));
+
+    saveCaptor.getValue().run();
+
+    LocalReplayIndex reloadedIndex = new LocalReplayIndex(replayFileReader, replayMapper, dataPrefs, taskScheduler);
+    assertThat(reloadedIndex.getEntries(), is(instance.getEntries()));
+    assertThat(reloadedIndex.search(new LocalReplayQuery(null, null, null, null, null, "well PLAY")), hasSize(1));
+  }
+
+  @Test
+  public void testEntriesAreSortedNewestFirst() throws Exception {
+    Path oldReplay = copyTestReplay("1.fafreplay");
+    Path newReplay = copyTestReplay("2.fafreplay");
+    Path middleReplay = copyTestReplay("3.fafreplay");
+    Files.setLastModifiedTime(oldReplay, FileTime.fromMillis(1000));
+    Files.setLastModifiedTime(newReplay, FileTime.fromMillis(3000));
+    Files.setLastModifiedTime(middleReplay, FileTime.fromMillis(2000));
+
+    instance.add(oldReplay);
+    instance.add(newReplay);
+    instance.add(middleReplay);
+    List<LocalReplayIndexEntry> entries = instance.getEntries();
+    Files.setLastModifiedTime(oldReplay, FileTime.fromMillis(4000));
+    instance.add(oldReplay);
+
+    assertThat(entries.stream().map(LocalReplayIndexEntry::fileName).toList(),
+               is(List.of("2.fafreplay", "3.fafreplay", "1.fafreplay")));
+    assertThat(instance.getEntries().stream().map(LocalReplayIndexEntry::fileName).toList(),
+               is(List.of("1.fafreplay", "2.fafreplay", "3.fafreplay")));
+  }
+
+  @Test
+  public void testAddIndexesSingleReplay() throws Exception {
+    Path replayFile = copyTestReplay("1.fafreplay");
+
+    instance.add(replayFile);
+
+    assertThat(instance.getEntries(), hasSize(1));
+  }
+
+  @Test
+  public void testSearch() throws Exception {
+    copyTestReplay("1.fafreplay");
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    assertThat(instance.search(new LocalReplayQuery("sandworm", null, null, null, null, null)), hasSize(1));
+    assertThat(instance.search(new LocalReplayQuery(null, "SCMP_0", "faf", null, null, null)), hasSize(1));
+    assertThat(instance.search(new LocalReplayQuery("sandworm", null, "ladder1v1", null, null, null)), is(empty()));
+    assertThat(instance.search(new LocalReplayQuery("nobody", null, null, null, null, null)), is(empty()));
+    assertThat(instance.search(new LocalReplayQuery(null, null, null, OffsetDateTime.now(), null, null)), is(empty()));
+    assertThat(instance.search(new LocalReplayQuery(null, null, null, null, null, null)), hasSize(1));
+  }
+
+  @Test
+  public void testSearchChat() throws Exception {
+    Path replayFile = copyTestReplay("1.fafreplay");
+    instance.update(replaysDirectory, REPLAY_FILE_GLOB);
+
+    instance.addChatMessages(replayFile, List.of("Good game, well played!"));
+
+    assertThat(instance.search(new LocalReplayQuery(null, null, null, null, null, "well PLAY")), hasSize(1));
+    assertThat(instance.search(new LocalReplayQuery(null, null, null, null, null, "bad game")), is(empty()));
+  }
+
+  @Test
+  public void testWatchScansDirectoryOnlyOnce() throws Exception {
+    copyTestReplay("1.fafreplay");
+
+    assertThat(instance.watch(replaysDirectory, REPLAY_FILE_GLOB), is(empty()));
+    Files.writeString(replaysDirectory.resolve("unrelated.txt"), "not a replay");
+    assertThat(instance.watch(replaysDirectory, REPLAY_FILE_GLOB), is(empty()));
+
+    assertThat(instance.getEntries(), hasSize(1));
+    verify(replayFileReader, times(1)).readReplayHeader(any());
+  }
+
+  @Test
+  public void testWatchAppliesChangesOfDirectory() throws Exception {
+    Path replayFile = copyTestReplay("1.fafreplay");
+    instance.watch(replaysDirectory, REPLAY_FILE_GLOB);
+
+    Path newReplayFile = tempDirectory.resolve("2.fafreplay");
+    try (InputStream inputStream = getClass().getResourceAsStream("/replay/test.fafreplay")) {
+      Files.copy(inputStream, newReplayFile);
+    }
+    Files.move(newReplayFile, replaysDirectory.resolve("2.fafreplay"), StandardCopyOption.ATOMIC_MOVE);
+    verify(replayFileReader, timeout(5000).times(2)).readReplayHeader(any());
+    assertThat(instance.getEntries(), hasSize(2));
+
+    Files.delete(replayFile);
+    for (int i = 0; i < 50 && instance.getEntries().size() != 1; i++) {
+      Thread.sleep(100);
+    }
+    assertThat(instance.getEntries(), hasSize(1));
+    assertThat(instance.getEntries().getFirst().fileName(), is("2.fafreplay"));
+  }
+
+  @Test
+  public void testWatchReturnsUnreadableReplaysOnce() throws Exception {
+    Path brokenFile = Files.writeString(replaysDirectory.resolve("broken.fafreplay"), "not a replay");
+
+    assertThat(instance.watch(replaysDirectory, REPLAY_FILE_GLOB), is(List.of(brokenFile)));
+    assertThat(instance.watch(replaysDirectory, REPLAY_FILE_GLOB), is(empty()));
+  }
+}
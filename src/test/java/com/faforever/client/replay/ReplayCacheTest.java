@@ -0,0 +1,100 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.task.TaskService;
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class ReplayCacheTest extends ServiceTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Spy
+  private ClientProperties clientProperties;
+  @Spy
+  private DataPrefs dataPrefs;
+  @Mock
+  private TaskService taskService;
+  @Mock
+  private ObjectFactory<ReplayDownloadTask> replayDownloadTaskFactory;
+  @Mock
+  private ReplayDownloadTask replayDownloadTask;
+
+  @InjectMocks
+  private ReplayCache instance;
+
+  private Path replayCacheDirectory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    replayCacheDirectory = Files.createDirectories(dataPrefs.getReplayCacheDirectory());
+
+    lenient().when(replayDownloadTaskFactory.getObject()).thenReturn(replayDownloadTask);
+    lenient().doAnswer(invocation -> invocation.getArgument(0)).when(taskService).submitTask(any());
+  }
+
+  @Test
+  public void testCachedReplayIsNotDownloaded() throws Exception {
+    Path replayFile = Files.writeString(replayCacheDirectory.resolve("123.fafreplay"), "replay");
+
+    assertThat(instance.getReplayFile(123).join(), is(replayFile));
+    verifyNoInteractions(taskService);
+  }
+
+  @Test
+  public void testConcurrentDownloadsAreShared() throws Exception {
+    CompletableFuture<Path> download = new CompletableFuture<>();
+    when(replayDownloadTask.getFuture()).thenReturn(download);
+
+    CompletableFuture<Path> first = instance.getReplayFile(123);
+    CompletableFuture<Path> second = instance.getReplayFile(123);
+
+    assertThat(first, sameInstance(second));
+    verify(taskService, times(1)).submitTask(replayDownloadTask);
+    verify(replayDownloadTask).setTargetFile(replayCacheDirectory.resolve("123.fafreplay"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedReplaysAreEvicted() throws Exception {
+    clientProperties.getReplay().setCacheSizeBytes(10);
+    Path oldReplay = Files.write(replayCacheDirectory.resolve("1.fafreplay"), new byte[6]);
+    Files.setLastModifiedTime(oldReplay, FileTime.fromMillis(1000));
+    Path newReplay = Files.write(replayCacheDirectory.resolve("2.fafreplay"), new byte[6]);
+    Files.setLastModifiedTime(newReplay, FileTime.fromMillis(2000));
+    Path downloadedReplay = replayCacheDirectory.resolve("3.fafreplay");
+    when(replayDownloadTask.getFuture()).thenAnswer(invocation -> {
+      Files.write(downloadedReplay, new byte[2]);
+      return CompletableFuture.completedFuture(downloadedReplay);
+    });
+
+    instance.getReplayFile(3).join();
+
+    assertThat(Files.exists(oldReplay), is(false));
+    assertThat(Files.exists(newReplay), is(true));
+    assertThat(Files.exists(downloadedReplay), is(true));
+  }
+}
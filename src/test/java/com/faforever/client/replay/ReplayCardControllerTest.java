@@ -110,7 +110,7 @@ public class ReplayCardControllerTest extends PlatformTest {
                            .ignore(field(Replay::validity))
                            .create();
     lenient().when(uiService.loadFxml("theme/player_card.fxml")).thenReturn(playerCardController);
-    lenient().when(replayService.loadReplayDetails(any())).thenReturn(new ReplayDetails(List.of(), List.of(), mapBean));
+    lenient().when(replayService.loadReplayDetails(any())).thenReturn(new ReplayDetails(List.of(), List.of(), mapBean, null));
     lenient().when(mapService.isInstalledBinding(Mockito.<MapVersion>any())).thenReturn(installed);
     lenient().when(mapService.loadPreview(anyString(), eq(PreviewSize.LARGE)))
              .thenReturn(new Image(InputStream.nullInputStream()));
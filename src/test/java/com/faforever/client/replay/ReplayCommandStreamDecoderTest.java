@@ -0,0 +1,89 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReplayCommandStreamDecoderTest extends ServiceTest {
+
+  @Test
+  public void testDecodeOperations() throws Exception {
+    ReplayCommandStreamDecoder instance = decoderOf(commandStream());
+
+    assertThat(instance.commandSource(), is(-1));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.operationType(), is(ReplayCommandStreamDecoder.SET_COMMAND_SOURCE));
+    assertThat(instance.commandSource(), is(2));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.operationType(), is(ReplayCommandStreamDecoder.ADVANCE));
+    assertThat(instance.tick(), is(5));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.operationType(), is(ReplayCommandStreamDecoder.ISSUE_COMMAND));
+    assertThat(instance.tick(), is(5));
+    assertThat(instance.commandSource(), is(2));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.operationType(), is(ReplayCommandStreamDecoder.ADVANCE));
+    assertThat(instance.tick(), is(12));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.operationType(), is(ReplayCommandStreamDecoder.COMMAND_SOURCE_TERMINATED));
+
+    assertThat(instance.next(), is(false));
+  }
+
+  @Test
+  public void testTruncatedOperation() throws Exception {
+    byte[] commandStream = commandStream();
+    ReplayCommandStreamDecoder instance = decoderOf(Arrays.copyOf(commandStream, commandStream.length - 5));
+
+    assertThat(instance.next(), is(true));
+    assertThat(instance.next(), is(true));
+    assertThat(instance.next(), is(true));
+    assertThrows(EOFException.class, instance::next);
+    assertThat(instance.tick(), is(5));
+  }
+
+  @Test
+  public void testInvalidOperationLength() {
+    ByteBuffer buffer = ByteBuffer.allocate(3).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put((byte) ReplayCommandStreamDecoder.ADVANCE).putShort((short) 3);
+
+    assertThrows(IOException.class, decoderOf(buffer.array())::next);
+  }
+
+  @Test
+  public void testIsPlayerCommand() {
+    assertThat(ReplayCommandStreamDecoder.isPlayerCommand(ReplayCommandStreamDecoder.ISSUE_COMMAND), is(true));
+    assertThat(ReplayCommandStreamDecoder.isPlayerCommand(ReplayCommandStreamDecoder.LUA_SIM_CALLBACK), is(true));
+    assertThat(ReplayCommandStreamDecoder.isPlayerCommand(ReplayCommandStreamDecoder.ADVANCE), is(false));
+    assertThat(ReplayCommandStreamDecoder.isPlayerCommand(ReplayCommandStreamDecoder.VERIFY_CHECKSUM), is(false));
+  }
+
+  private static ReplayCommandStreamDecoder decoderOf(byte[] commandStream) {
+    return new ReplayCommandStreamDecoder(new ByteArrayInputStream(commandStream));
+  }
+
+  private static byte[] commandStream() {
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 7 + 13 + 7 + 4).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put((byte) ReplayCommandStreamDecoder.SET_COMMAND_SOURCE).putShort((short) 4).put((byte) 2);
+    buffer.put((byte) ReplayCommandStreamDecoder.ADVANCE).putShort((short) 7).putInt(5);
+    buffer.put((byte) ReplayCommandStreamDecoder.ISSUE_COMMAND).putShort((short) 13).put(new byte[10]);
+    buffer.put((byte) ReplayCommandStreamDecoder.ADVANCE).putShort((short) 7).putInt(7);
+    buffer.put((byte) ReplayCommandStreamDecoder.COMMAND_SOURCE_TERMINATED).putShort((short) 4).put((byte) 0);
+    return buffer.array();
+  }
+}
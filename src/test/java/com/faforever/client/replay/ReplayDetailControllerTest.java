@@ -17,6 +17,7 @@ import com.faforever.client.map.generator.MapGeneratorService;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.rating.RatingService;
+import com.faforever.client.replay.ReplayStatistics.PlayerStatistics;
 import com.faforever.client.reporting.ReportDialogController;
 import com.faforever.client.test.FakeTestException;
 import com.faforever.client.test.PlatformTest;
@@ -141,7 +142,7 @@ public class ReplayDetailControllerTest extends PlatformTest {
                            .create();
 
     lenient().when(i18n.get(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
-    lenient().when(replayService.loadReplayDetails(any())).thenReturn(new ReplayDetails(List.of(), List.of(), mapBean));
+    lenient().when(replayService.loadReplayDetails(any())).thenReturn(new ReplayDetails(List.of(), List.of(), mapBean, null));
     lenient().when(mapService.isInstalledBinding(Mockito.<MapVersion>any())).thenReturn(installed);
     lenient().when(imageViewHelper.createPlaceholderImageOnErrorObservable(any()))
              .thenAnswer(invocation -> new SimpleObjectProperty<>(invocation.getArgument(0)));
@@ -223,7 +224,7 @@ public class ReplayDetailControllerTest extends PlatformTest {
   @Test
   public void setReplayLocal() throws Exception {
     when(replayService.loadReplayDetails(any())).thenReturn(
-        new ReplayDetails(localReplay.chatMessages(), localReplay.gameOptions(), mapBean));
+        new ReplayDetails(localReplay.chatMessages(), localReplay.gameOptions(), mapBean, null));
 
     runOnFxThreadAndWait(() -> instance.setReplay(localReplay));
 
@@ -242,6 +243,34 @@ public class ReplayDetailControllerTest extends PlatformTest {
     assertEquals("test", instance.titleLabel.textProperty().get());
   }
 
+  @Test
+  public void setReplayWithStatistics() {
+    PlayerStatistics playerStatistics = new PlayerStatistics("Player", 71, 16.3);
+    Replay replay = Instancio.of(Replay.class)
+                             .set(field(Replay::statistics), new ReplayStatistics(2607, List.of(playerStatistics)))
+                             .ignore(field(Replay::replayFile))
+                             .create();
+
+    runOnFxThreadAndWait(() -> instance.setReplay(replay));
+
+    assertTrue(instance.playerStatisticsTable.isVisible());
+    assertTrue(instance.moreInformationPane.isVisible());
+    assertEquals(List.of(playerStatistics), instance.playerStatisticsTable.getItems());
+  }
+
+  @Test
+  public void setReplayWithoutStatistics() {
+    Replay replay = Instancio.of(Replay.class)
+                             .ignore(field(Replay::statistics))
+                             .ignore(field(Replay::replayFile))
+                             .create();
+
+    runOnFxThreadAndWait(() -> instance.setReplay(replay));
+
+    assertFalse(instance.playerStatisticsTable.isVisible());
+    assertFalse(instance.playerStatisticsLabel.isVisible());
+  }
+
   @Test
   public void setReplayNoEndTime() {
     Replay onlineReplay = Instancio.of(Replay.class).ignore(field(Replay::endTime)).create();
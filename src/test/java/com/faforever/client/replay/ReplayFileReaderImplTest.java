@@ -1,6 +1,7 @@
 package com.faforever.client.replay;
 
 
+import com.faforever.client.replay.ReplayStatistics.PlayerStatistics;
 import com.faforever.client.test.ServiceTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -10,9 +11,20 @@ import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 
 public class ReplayFileReaderImplTest extends ServiceTest {
 
@@ -30,4 +42,67 @@ public class ReplayFileReaderImplTest extends ServiceTest {
     }
     assertThat(instance.parseReplay(tempFile).getData().length, is(197007));
   }
+
+  @Test
+  public void readReplayHeader() throws Exception {
+    Path tempFile = temporaryFolder.resolve("replay.fafreplay");
+    try (InputStream inputStream = new BufferedInputStream(getClass().getResourceAsStream("/replay/test.fafreplay"))) {
+      Files.copy(inputStream, tempFile);
+    }
+
+    ReplayHeader replayHeader = instance.readReplayHeader(tempFile);
+
+    assertThat(replayHeader.metadata().getUid(), is(5670811));
+    assertThat(replayHeader.replayPatchFieldId(), startsWith("Supreme Commander"));
+    assertThat(replayHeader.map(), endsWith(".scmap"));
+    assertThat(replayHeader.armies(), is(not(empty())));
+  }
+
+  @Test
+  public void extractReplayData() throws Exception {
+    Path tempFile = temporaryFolder.resolve("replay.fafreplay");
+    try (InputStream inputStream = new BufferedInputStream(getClass().getResourceAsStream("/replay/test.fafreplay"))) {
+      Files.copy(inputStream, tempFile);
+    }
+    Path targetFile = temporaryFolder.resolve("replay.scfareplay");
+
+    ReplayHeader replayHeader = instance.extractReplayData(tempFile, targetFile);
+
+    assertThat(Files.size(targetFile), is(197007L));
+    assertThat(Files.readAllBytes(targetFile), is(instance.parseReplay(tempFile).getData()));
+    assertThat(replayHeader.metadata().getUid(), is(5670811));
+    assertThat(replayHeader.map(), endsWith(".scmap"));
+  }
+
+  @Test
+  public void readReplayStatistics() throws Exception {
+    Path tempFile = temporaryFolder.resolve("replay.fafreplay");
+    try (InputStream inputStream = new BufferedInputStream(getClass().getResourceAsStream("/replay/test.fafreplay"))) {
+      Files.copy(inputStream, tempFile);
+    }
+
+    ReplayStatistics replayStatistics = instance.readReplayStatistics(instance.parseReplay(tempFile).getData());
+
+    assertThat(replayStatistics.ticks(), is(2607));
+    assertThat(replayStatistics.duration(), is(Duration.ofMillis(260700)));
+    assertThat(replayStatistics.players(), hasSize(10));
+    PlayerStatistics playerStatistics = replayStatistics.players().getFirst();
+    assertThat(playerStatistics.playerName(), is("sandwormsurfer"));
+    assertThat(playerStatistics.commandCount(), is(71));
+    assertThat(playerStatistics.actionsPerMinute(), closeTo(16.34, 0.01));
+  }
+
+  @Test
+  public void readReplayStatisticsOfIncompleteReplay() throws Exception {
+    Path tempFile = temporaryFolder.resolve("replay.fafreplay");
+    try (InputStream inputStream = new BufferedInputStream(getClass().getResourceAsStream("/replay/test.fafreplay"))) {
+      Files.copy(inputStream, tempFile);
+    }
+    byte[] replayData = Arrays.copyOf(instance.parseReplay(tempFile).getData(), 100_001);
+
+    ReplayStatistics replayStatistics = instance.readReplayStatistics(replayData);
+
+    assertThat(replayStatistics.ticks(), is(both(greaterThan(0)).and(lessThan(2607))));
+    assertThat(replayStatistics.players(), is(not(empty())));
+  }
 }
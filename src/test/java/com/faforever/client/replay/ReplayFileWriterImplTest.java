@@ -12,11 +12,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ReplayFileWriterImplTest extends ServiceTest {
@@ -42,11 +51,11 @@ public class ReplayFileWriterImplTest extends ServiceTest {
   @Spy
   private ClientProperties clientProperties;
   @Mock
-  private ByteArrayOutputStream replayData;
-  @Mock
   private ClientProperties.Replay replay;
   @Spy
   private DataPrefs dataPrefs;
+  @Mock
+  private LocalReplayIndex localReplayIndex;
 
   @InjectMocks
   private ReplayFileWriterImpl instance;
@@ -63,15 +72,27 @@ public class ReplayFileWriterImplTest extends ServiceTest {
     when(replay.getReplayFileFormat()).thenReturn(replayFileFormat);
   }
 
+  private static byte[] readReplayData(Path replayFile) throws Exception {
+    List<String> lines = Files.readAllLines(replayFile);
+    assertThat(lines, hasSize(2));
+    byte[] compressedData = Base64.getDecoder().decode(lines.get(1));
+    assertThat(ByteBuffer.wrap(compressedData).getInt(), is(replayBytes.length));
+    try (InputStream inputStream = new InflaterInputStream(
+        new ByteArrayInputStream(compressedData, 4, compressedData.length - 4))) {
+      return inputStream.readAllBytes();
+    }
+  }
+
   @Test
-  public void writeReplayData() throws Exception {
-    when(replayData.toByteArray()).thenReturn(replayBytes);
+  public void writeReplayDataFromFile() throws Exception {
+    Path replayDataFile = Files.write(tempDirectory.resolve("1234.replaydata"), replayBytes);
     ReplayMetadata replayInfo = new ReplayMetadata();
     replayInfo.setUid(UID);
     replayInfo.setRecorder(RECORDER);
-    instance.writeReplayDataToFile(replayData, replayInfo);
+    instance.writeReplayDataToFile(replayDataFile, replayInfo);
     assertTrue(Files.exists(replaysDirectory.resolve(REPLAY_FILE_NAME)));
-    Files.deleteIfExists(replaysDirectory.resolve(REPLAY_FILE_NAME));
+    assertThat(readReplayData(replaysDirectory.resolve(REPLAY_FILE_NAME)), is(replayBytes));
+    assertTrue(Files.exists(replayDataFile));
+    verify(localReplayIndex).add(replaysDirectory.resolve(REPLAY_FILE_NAME));
   }
 }
-
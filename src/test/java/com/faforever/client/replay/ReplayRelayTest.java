@@ -0,0 +1,98 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayRelayTest extends ServiceTest {
+
+  private static final byte[] REPLAY_DATA = new byte[]{0x53, 0x75, 0x70, 0x72, 0x65, 0x6D, 0x65};
+
+  @Test
+  public void testRelaysQueuedChunks() throws Exception {
+    try (ServerSocket fakeReplayServer = new ServerSocket(0)) {
+      ReplayRelay instance = new ReplayRelay(1, "localhost", fakeReplayServer.getLocalPort(), 16);
+      Thread relayThread = instance.start(() -> {});
+
+      instance.offer(REPLAY_DATA, 0, 3);
+      instance.offer(REPLAY_DATA, 3, REPLAY_DATA.length - 3);
+      instance.close();
+
+      try (Socket socket = fakeReplayServer.accept(); InputStream inputStream = socket.getInputStream()) {
+        assertThat(inputStream.readAllBytes(), is(REPLAY_DATA));
+      }
+      relayThread.join(TimeUnit.SECONDS.toMillis(10));
+
+      ReplayRelayStatistics statistics = instance.getStatistics();
+      assertThat(statistics.bytesReceived(), is((long) REPLAY_DATA.length));
+      assertThat(statistics.bytesRelayed(), is((long) REPLAY_DATA.length));
+      assertThat(statistics.backlogBytes(), is(0L));
+      assertThat(statistics.relaying(), is(true));
+    }
+  }
+
+  @Test
+  public void testRelaysChunksOfferedWhileIdle() throws Exception {
+    try (ServerSocket fakeReplayServer = new ServerSocket(0)) {
+      ReplayRelay instance = new ReplayRelay(1, "localhost", fakeReplayServer.getLocalPort(), 16);
+      Thread relayThread = instance.start(() -> {});
+
+      try (Socket socket = fakeReplayServer.accept(); InputStream inputStream = socket.getInputStream()) {
+        instance.offer(REPLAY_DATA, 0, 3);
+        assertThat(inputStream.readNBytes(3), is(Arrays.copyOfRange(REPLAY_DATA, 0, 3)));
+
+        // Let the relay run into poll timeouts before the rest of the stream arrives along with the close
+        Thread.sleep(750);
+        instance.offer(REPLAY_DATA, 3, REPLAY_DATA.length - 3);
+        instance.close();
+
+        assertThat(inputStream.readAllBytes(), is(Arrays.copyOfRange(REPLAY_DATA, 3, REPLAY_DATA.length)));
+      }
+      relayThread.join(TimeUnit.SECONDS.toMillis(10));
+
+      assertThat(instance.getStatistics().bytesRelayed(), is((long) REPLAY_DATA.length));
+    }
+  }
+
+  @Test
+  public void testUnreachableReplayServerStopsRelaying() throws Exception {
+    int unusedPort;
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      unusedPort = serverSocket.getLocalPort();
+    }
+
+    CountDownLatch connectionFailedLatch = new CountDownLatch(1);
+    ReplayRelay instance = new ReplayRelay(1, "localhost", unusedPort, 16);
+    instance.start(connectionFailedLatch::countDown);
+
+    assertTrue(connectionFailedLatch.await(10, TimeUnit.SECONDS));
+    instance.offer(REPLAY_DATA, 0, REPLAY_DATA.length);
+
+    ReplayRelayStatistics statistics = instance.getStatistics();
+    assertThat(statistics.relaying(), is(false));
+    assertThat(statistics.bytesReceived(), is((long) REPLAY_DATA.length));
+    assertThat(statistics.backlogChunks(), is(0));
+  }
+
+  @Test
+  public void testFullBacklogStopsRelaying() {
+    ReplayRelay instance = new ReplayRelay(1, "localhost", 0, 1);
+
+    instance.offer(REPLAY_DATA, 0, REPLAY_DATA.length);
+    instance.offer(REPLAY_DATA, 0, REPLAY_DATA.length);
+
+    ReplayRelayStatistics statistics = instance.getStatistics();
+    assertThat(statistics.relaying(), is(false));
+    assertThat(statistics.backlogChunks(), is(0));
+  }
+}
@@ -0,0 +1,166 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.builders.GameInfoBuilder;
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.game.GameService;
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.notification.NotificationService;
+import com.faforever.client.notification.PersistentNotification;
+import com.faforever.client.player.PlayerService;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.ServiceTest;
+import com.faforever.client.user.LoginService;
+import com.faforever.commons.replay.ReplayMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class ReplayServerTest extends ServiceTest {
+
+  private static final byte[] REPLAY_DATA = new byte[]{0x53, 0x75, 0x70, 0x72, 0x65, 0x6D, 0x65};
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Mock
+  private ClientProperties clientProperties;
+  @Mock
+  private NotificationService notificationService;
+  @Mock
+  private I18n i18n;
+  @Mock
+  private LoginService loginService;
+  @Mock
+  private ReplayFileWriter replayFileWriter;
+  @Mock
+  private PlayerService playerService;
+  @Mock
+  private GameService gameService;
+  @Spy
+  private DataPrefs dataPrefs;
+  @Mock
+  private ExecutorService taskExecutor;
+
+  @InjectMocks
+  private ReplayServer instance;
+
+  private Path recordingsDirectory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    recordingsDirectory = Files.createDirectories(dataPrefs.getReplayRecordingsDirectory());
+  }
+
+  @Test
+  public void testRelayStatisticsOfRecordedGame() throws Exception {
+    try (ServerSocket fakeReplayServer = new ServerSocket(0)) {
+      ClientProperties.Replay replayProperties = new ClientProperties.Replay();
+      replayProperties.setRemoteHost("localhost");
+      replayProperties.setRemotePort(fakeReplayServer.getLocalPort());
+      when(clientProperties.getReplay()).thenReturn(replayProperties);
+      when(gameService.getByUid(123)).thenReturn(Optional.of(GameInfoBuilder.create().defaultValues().id(123).get()));
+
+      int port = instance.start(123).get(10, TimeUnit.SECONDS);
+
+      try (Socket fakeReplayServerSocket = fakeReplayServer.accept();
+           InputStream relayedStream = fakeReplayServerSocket.getInputStream()) {
+        try (Socket game = new Socket("localhost", port); OutputStream outputStream = game.getOutputStream()) {
+          outputStream.write(REPLAY_DATA);
+          outputStream.flush();
+          assertThat(relayedStream.readNBytes(REPLAY_DATA.length), is(REPLAY_DATA));
+
+          ReplayRelayStatistics statistics = instance.getRelayStatistics(123).orElseThrow();
+          assertThat(statistics.gameId(), is(123));
+          assertThat(statistics.bytesReceived(), is((long) REPLAY_DATA.length));
+          assertThat(statistics.relaying(), is(true));
+        }
+        assertThat(relayedStream.read(), is(-1));
+      }
+
+      verify(replayFileWriter, timeout(10_000)).writeReplayDataToFile(eq(recordingsDirectory.resolve("123.replaydata")),
+                                                                     any());
+    }
+  }
+
+  private void writeMetadata(Path file, ReplayMetadata replayMetadata) throws Exception {
+    new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                      .writeValue(file.toFile(), replayMetadata);
+  }
+
+  @Test
+  public void testRecoverPartialReplays() throws Exception {
+    ReplayMetadata replayMetadata = new ReplayMetadata();
+    replayMetadata.setUid(123);
+    replayMetadata.setTitle("Test");
+    writeMetadata(recordingsDirectory.resolve("123.json"), replayMetadata);
+    Path replayDataFile = Files.write(recordingsDirectory.resolve("123.replaydata"), REPLAY_DATA);
+
+    instance.recoverPartialReplays();
+
+    ArgumentCaptor<ReplayMetadata> captor = ArgumentCaptor.forClass(ReplayMetadata.class);
+    verify(replayFileWriter).writeReplayDataToFile(eq(replayDataFile), captor.capture());
+    assertThat(captor.getValue().getUid(), is(123));
+    assertThat(captor.getValue().getTitle(), is("Test"));
+    assertThat(Files.exists(replayDataFile), is(false));
+    assertThat(Files.exists(recordingsDirectory.resolve("123.json")), is(false));
+    verify(notificationService).addNotification(any(PersistentNotification.class));
+  }
+
+  @Test
+  public void testPartialReplaysAreRecoveredOnStartup() throws Exception {
+    ReplayMetadata replayMetadata = new ReplayMetadata();
+    replayMetadata.setUid(123);
+    writeMetadata(recordingsDirectory.resolve("123.json"), replayMetadata);
+    Path replayDataFile = Files.write(recordingsDirectory.resolve("123.replaydata"), REPLAY_DATA);
+    doAnswer(invocation -> {
+      invocation.getArgument(0, Runnable.class).run();
+      return null;
+    }).when(taskExecutor).execute(any());
+
+    instance.onApplicationReady();
+
+    verify(replayFileWriter).writeReplayDataToFile(eq(replayDataFile), any());
+  }
+
+  @Test
+  public void testRecoverPartialReplaysDiscardsEmptyRecordings() throws Exception {
+    ReplayMetadata replayMetadata = new ReplayMetadata();
+    replayMetadata.setUid(123);
+    writeMetadata(recordingsDirectory.resolve("123.json"), replayMetadata);
+    Files.createFile(recordingsDirectory.resolve("123.replaydata"));
+
+    instance.recoverPartialReplays();
+
+    verifyNoInteractions(replayFileWriter);
+    verifyNoInteractions(notificationService);
+    assertThat(Files.exists(recordingsDirectory.resolve("123.replaydata")), is(false));
+    assertThat(Files.exists(recordingsDirectory.resolve("123.json")), is(false));
+  }
+}
@@ -56,6 +56,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
@@ -75,6 +76,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -127,8 +129,6 @@ public class ReplayServiceTest extends ServiceTest {
   @Mock
   private NotificationService notificationService;
   @Mock
-  private TaskService taskService;
-  @Mock
   private GameService gameService;
   @Mock
   private PlayerService playerService;
@@ -151,7 +151,13 @@ public class ReplayServiceTest extends ServiceTest {
   @Mock
   private FileSizeReader fileSizeReader;
   @Mock
-  private ObjectFactory<ReplayDownloadTask> replayDownloadTaskFactory;
+  private ReplayCache replayCache;
+  @Mock
+  private TaskService taskService;
+  @Mock
+  private ObjectFactory<ReplayVerificationTask> replayVerificationTaskFactory;
+  @Mock
+  private LocalReplayIndex localReplayIndex;
   @Spy
   private ReplayMapper replayMapper = Mappers.getMapper(ReplayMapper.class);
   @Spy
@@ -188,7 +194,10 @@ public class ReplayServiceTest extends ServiceTest {
     lenient().when(replayDataParser.getMods()).thenReturn(Map.of());
     lenient().when(replayDataParser.getMap()).thenReturn(TEST_MAP_PATH);
     lenient().when(replayDataParser.getReplayPatchFieldId()).thenReturn(TEST_VERSION_STRING);
-    lenient().doAnswer(invocation -> invocation.getArgument(0)).when(taskService).submitTask(any());
+    lenient().when(replayFileReader.extractReplayData(any(), any())).thenReturn(
+        new ReplayHeader(replayMetadata, TEST_VERSION_STRING, TEST_MAP_PATH, Map.of(), Set.of(), List.of()));
+    lenient().when(replayFileReader.readReplayHeader(any())).thenReturn(
+        new ReplayHeader(null, TEST_VERSION_STRING, TEST_MAP_PATH, Map.of(), Set.of(), List.of()));
   }
 
   @Test
@@ -215,6 +224,15 @@ public class ReplayServiceTest extends ServiceTest {
     assertEquals(COOP_MAP_NAME, mapName);
   }
 
+  @Test
+  public void testParseMapFolderNameFromHeaderPrefersScenarioFile() throws Exception {
+    ReplayHeader replayHeader = new ReplayHeader(null, TEST_VERSION_STRING, BAD_MAP_PATH,
+                                                 Map.of("ScenarioFile", COOP_MAP_PATH), Set.of(), List.of());
+
+    assertEquals(COOP_MAP_NAME, ReplayService.parseMapFolderName(replayHeader));
+    assertEquals((Integer) 3599, ReplayService.parseSupComVersion(replayHeader));
+  }
+
   @Test
   public void testParseBadFolderNameThrowsException() throws Exception {
     when(replayDataParser.getMap()).thenReturn(BAD_MAP_PATH);
@@ -240,27 +258,42 @@ public class ReplayServiceTest extends ServiceTest {
     Path file1 = Files.createFile(replayDirectory.resolve("replay.fafreplay"));
     Path file2 = Files.createFile(replayDirectory.resolve("replay2.fafreplay"));
 
-    doThrow(new FakeTestException()).when(replayFileReader).parseReplay(file1);
-    doThrow(new FakeTestException()).when(replayFileReader).parseReplay(file2);
+    when(localReplayIndex.watch(replayDirectory, "*.fafreplay")).thenReturn(List.of(file1, file2));
+    when(localReplayIndex.getEntries()).thenReturn(List.of());
 
-    StepVerifier.create(instance.loadLocalReplayPage(2, 1)).expectNext(Tuples.of(List.of(), 0));
+    StepVerifier.create(instance.loadLocalReplayPage(2, 1)).expectNext(Tuples.of(List.of(), 0)).verifyComplete();
 
-    verify(notificationService, times(2)).addNotification(any(PersistentNotification.class));
+    verify(notificationService).addNotification(any(PersistentNotification.class));
 
     assertThat(Files.exists(file1), is(false));
     assertThat(Files.exists(file2), is(false));
   }
 
   @Test
-  public void testLoadLocalReplays() throws Exception {
+  public void testVerifyLocalReplaysMovesCorruptFiles() throws Exception {
     Path file1 = Files.createFile(replayDirectory.resolve("replay.fafreplay"));
+    Path file2 = Files.createFile(replayDirectory.resolve("replay2.fafreplay"));
 
-    ReplayMetadata replayMetadata = new ReplayMetadata();
-    replayMetadata.setUid(123);
-    replayMetadata.setTitle("title");
+    ReplayVerificationTask replayVerificationTask = mock(ReplayVerificationTask.class);
+    when(replayVerificationTask.getFuture()).thenReturn(CompletableFuture.completedFuture(List.of(file1, file2)));
+    when(replayVerificationTaskFactory.getObject()).thenReturn(replayVerificationTask);
+    when(taskService.submitTask(replayVerificationTask)).thenReturn(replayVerificationTask);
+
+    assertThat(instance.verifyLocalReplays().join(), is(2));
+
+    verify(notificationService).addNotification(any(PersistentNotification.class));
+    assertThat(Files.exists(file1), is(false));
+    assertThat(Files.exists(dataPrefs.getCorruptedReplaysDirectory().resolve("replay2.fafreplay")), is(true));
+  }
+
+  @Test
+  public void testLoadLocalReplays() throws Exception {
+    LocalReplayIndexEntry indexEntry = new LocalReplayIndexEntry("replay.fafreplay", 0, 0, 123, "title", TEST_MAP_NAME,
+                                                                 "faf", 0, 0, List.of(
+        new LocalReplayIndexEntry.Player(1, "Player", "DE", (byte) 2, 1, 1500d, 500d)), Set.of());
 
-    when(replayDataParser.getMetadata()).thenReturn(replayMetadata);
-    when(replayFileReader.parseReplay(file1)).thenReturn(replayDataParser);
+    when(localReplayIndex.watch(any(), any())).thenReturn(List.of());
+    when(localReplayIndex.getEntries()).thenReturn(List.of(indexEntry));
     when(featuredModService.getFeaturedMod(any())).thenReturn(Mono.empty());
     when(mapService.findByMapFolderName(any())).thenReturn(Mono.just(Instancio.create(MapVersion.class)));
 
@@ -269,7 +302,33 @@ public class ReplayServiceTest extends ServiceTest {
       assertThat(localReplays, hasSize(1));
       assertThat(localReplays.getFirst().id(), is(123));
       assertThat(localReplays.getFirst().title(), is("title"));
+      assertThat(localReplays.getFirst().replayFile(), is(replayDirectory.resolve("replay.fafreplay")));
+      assertThat(localReplays.getFirst().teams(), is(Map.of("2", List.of("Player"))));
+      assertThat(result.getT2(), is(1));
     }).verifyComplete();
+
+    verifyNoInteractions(replayFileReader);
+  }
+
+  @Test
+  public void testSearchLocalReplays() throws Exception {
+    LocalReplayIndexEntry indexEntry = new LocalReplayIndexEntry("replay.fafreplay", 0, 0, 123, "title", TEST_MAP_NAME,
+                                                                 "faf", 0, 0, List.of(
+        new LocalReplayIndexEntry.Player(1, "Player", "DE", (byte) 2, 1, 1500d, 500d)), Set.of());
+    LocalReplayQuery query = new LocalReplayQuery("play", null, "faf", null, null, "gg");
+
+    when(localReplayIndex.watch(any(), any())).thenReturn(List.of());
+    when(localReplayIndex.search(query)).thenReturn(List.of(indexEntry));
+    when(featuredModService.getFeaturedMod(any())).thenReturn(Mono.empty());
+    when(mapService.findByMapFolderName(any())).thenReturn(Mono.just(Instancio.create(MapVersion.class)));
+
+    StepVerifier.create(instance.searchLocalReplays(query, 1, 1)).assertNext(result -> {
+      assertThat(result.getT1(), hasSize(1));
+      assertThat(result.getT1().getFirst().id(), is(123));
+      assertThat(result.getT2(), is(1));
+    }).verifyComplete();
+
+    verify(localReplayIndex, never()).getEntries();
   }
 
   @Test
@@ -291,7 +350,12 @@ public class ReplayServiceTest extends ServiceTest {
 
     Replay replay = Instancio.of(Replay.class).set(field(Replay::replayFile), replayFile).create();
 
-    when(replayDataParser.getMap()).thenReturn(TEST_MAP_PATH_GENERATED);
+    ReplayMetadata replayMetadata = new ReplayMetadata();
+    replayMetadata.setUid(123);
+    replayMetadata.setFeaturedModVersions(emptyMap());
+    replayMetadata.setFeaturedMod("faf");
+    when(replayFileReader.extractReplayData(eq(replayFile), any())).thenReturn(
+        new ReplayHeader(replayMetadata, TEST_VERSION_STRING, TEST_MAP_PATH_GENERATED, Map.of(), Set.of(), List.of()));
 
     instance.runReplay(replay);
 
@@ -306,12 +370,11 @@ public class ReplayServiceTest extends ServiceTest {
 
     Replay replay = Instancio.of(Replay.class).set(field(Replay::replayFile), replayFile).create();
 
-    when(replayFileReader.parseReplay(replayFile)).thenReturn(replayDataParser);
-
     instance.runReplay(replay);
 
     verify(replayRunner).runWithReplay(any(), eq(null), eq("faf"), eq(3599), eq(emptyMap()), eq(emptySet()),
                                        eq(TEST_MAP_NAME));
+    verify(replayFileReader, never()).parseReplay(any());
     verifyNoInteractions(notificationService);
   }
 
@@ -319,7 +382,7 @@ public class ReplayServiceTest extends ServiceTest {
   public void testRunReplayFileExceptionTriggersNotification() throws Exception {
     Path replayFile = Files.createFile(replayDirectory.resolve("replay.fafreplay"));
 
-    doThrow(new FakeTestException()).when(replayFileReader).parseReplay(replayFile);
+    doThrow(new FakeTestException()).when(replayFileReader).extractReplayData(eq(replayFile), any());
 
     Replay replay = Instancio.of(Replay.class).set(field(Replay::replayFile), replayFile).create();
 
@@ -331,7 +394,7 @@ public class ReplayServiceTest extends ServiceTest {
   public void testRunFafReplayFileExceptionTriggersNotification() throws Exception {
     Path replayFile = Files.createFile(replayDirectory.resolve("replay.fafreplay"));
 
-    doThrow(new FakeTestException()).when(replayFileReader).parseReplay(replayFile);
+    doThrow(new FakeTestException()).when(replayFileReader).extractReplayData(eq(replayFile), any());
 
     Replay replay = Instancio.of(Replay.class).set(field(Replay::replayFile), replayFile).create();
 
@@ -363,9 +426,7 @@ public class ReplayServiceTest extends ServiceTest {
   public void testRunFafOnlineReplay() throws Exception {
     Path replayFile = Files.createFile(replayDirectory.resolve("replay.fafreplay"));
 
-    ReplayDownloadTask replayDownloadTask = mock(ReplayDownloadTask.class);
-    when(replayDownloadTask.getFuture()).thenReturn(CompletableFuture.completedFuture(replayFile));
-    when(replayDownloadTaskFactory.getObject()).thenReturn(replayDownloadTask);
+    when(replayCache.getReplayFile(anyInt())).thenReturn(CompletableFuture.completedFuture(replayFile));
     Replay replay = Instancio.of(Replay.class).ignore(field(Replay::replayFile)).create();
 
     ReplayMetadata replayMetadata = new ReplayMetadata();
@@ -375,12 +436,12 @@ public class ReplayServiceTest extends ServiceTest {
     replayMetadata.setFeaturedMod("faf");
     replayMetadata.setMapname(TEST_MAP_NAME);
 
-    when(replayFileReader.parseReplay(replayFile)).thenReturn(replayDataParser);
-    when(replayDataParser.getMetadata()).thenReturn(replayMetadata);
+    when(replayFileReader.extractReplayData(eq(replayFile), any())).thenReturn(
+        new ReplayHeader(replayMetadata, TEST_VERSION_STRING, TEST_MAP_PATH, Map.of(), Set.of(), List.of()));
 
     instance.runReplay(replay);
 
-    verify(taskService).submitTask(replayDownloadTask);
+    verify(replayCache).getReplayFile(replay.id());
     verify(replayRunner).runWithReplay(any(), eq(123), eq("faf"), eq(3599), eq(emptyMap()), eq(emptySet()),
                                        eq(TEST_MAP_NAME));
     verifyNoInteractions(notificationService);
@@ -390,17 +451,12 @@ public class ReplayServiceTest extends ServiceTest {
   public void testRunScFaOnlineReplay() throws Exception {
     Path replayFile = Files.createFile(replayDirectory.resolve("replay.scfareplay"));
 
-    ReplayDownloadTask replayDownloadTask = mock(ReplayDownloadTask.class);
-    when(replayDownloadTask.getFuture()).thenReturn(CompletableFuture.completedFuture(replayFile));
-
-    when(replayDownloadTaskFactory.getObject()).thenReturn(replayDownloadTask);
+    when(replayCache.getReplayFile(anyInt())).thenReturn(CompletableFuture.completedFuture(replayFile));
     Replay replay = Instancio.of(Replay.class).ignore(field(Replay::replayFile)).create();
 
-    when(replayFileReader.parseReplay(replayFile)).thenReturn(replayDataParser);
-
     instance.runReplay(replay);
 
-    verify(taskService).submitTask(replayDownloadTask);
+    verify(replayCache).getReplayFile(replay.id());
     verify(replayRunner).runWithReplay(replayFile, null, "faf", 3599, emptyMap(), emptySet(), TEST_MAP_NAME);
     verifyNoInteractions(notificationService);
   }
@@ -408,11 +464,9 @@ public class ReplayServiceTest extends ServiceTest {
   @Test
   public void testRunScFaOnlineReplayExceptionTriggersNotification() throws Exception {
     Path replayFile = Files.createFile(replayDirectory.resolve("replay.scfareplay"));
-    doThrow(new FakeTestException()).when(replayFileReader).parseReplay(replayFile);
+    doThrow(new FakeTestException()).when(replayFileReader).readReplayHeader(replayFile);
 
-    ReplayDownloadTask replayDownloadTask = mock(ReplayDownloadTask.class);
-    when(replayDownloadTask.getFuture()).thenReturn(CompletableFuture.completedFuture(replayFile));
-    when(replayDownloadTaskFactory.getObject()).thenReturn(replayDownloadTask);
+    when(replayCache.getReplayFile(anyInt())).thenReturn(CompletableFuture.completedFuture(replayFile));
     Replay replay = Instancio.of(Replay.class).ignore(field(Replay::replayFile)).create();
 
     instance.runReplay(replay);
@@ -428,8 +482,13 @@ public class ReplayServiceTest extends ServiceTest {
 
     instance.loadReplayDetails(path);
 
+    verify(replayFileReader).parseReplay(path);
+
     verify(replayDataParser).getChatMessages();
     verify(replayDataParser, times(2)).getGameOptions();
+    verify(localReplayIndex).addChatMessages(path, List.of());
+    verify(replayFileReader).readReplayStatistics(REPLAY_FIRST_BYTES);
+    verifyNoMoreInteractions(replayFileReader);
   }
 
   @Test
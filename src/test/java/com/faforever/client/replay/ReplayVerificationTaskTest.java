@@ -0,0 +1,55 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.preferences.DataPrefs;
+import com.faforever.client.test.PlatformTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ReplayVerificationTaskTest extends PlatformTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Mock
+  private I18n i18n;
+  @Spy
+  private ClientProperties clientProperties;
+  @Spy
+  private DataPrefs dataPrefs;
+  @Spy
+  private ReplayFileReaderImpl replayFileReader;
+
+  private ReplayVerificationTask instance;
+  private Path replaysDirectory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    dataPrefs.setBaseDataDirectory(tempDirectory);
+    replaysDirectory = Files.createDirectories(dataPrefs.getReplaysDirectory());
+
+    instance = new ReplayVerificationTask(i18n, clientProperties, dataPrefs, replayFileReader);
+  }
+
+  @Test
+  public void testCallReturnsCorruptedReplays() throws Exception {
+    try (InputStream inputStream = getClass().getResourceAsStream("/replay/test.fafreplay")) {
+      Files.copy(inputStream, replaysDirectory.resolve("valid.fafreplay"));
+    }
+    Path brokenFile = Files.writeString(replaysDirectory.resolve("broken.fafreplay"), "not a replay");
+
+    assertThat(instance.call(), is(List.of(brokenFile)));
+  }
+}
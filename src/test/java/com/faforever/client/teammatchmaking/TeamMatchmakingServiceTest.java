@@ -6,6 +6,8 @@ import com.faforever.client.builders.GameInfoBuilder;
 import com.faforever.client.builders.GameLaunchMessageBuilder;
 import com.faforever.client.builders.PartyInfoBuilder.PartyMemberBuilder;
 import com.faforever.client.builders.PlayerInfoBuilder;
+import com.faforever.client.domain.api.MapVersion;
+import com.faforever.client.domain.api.MatchmakerQueueMapPool;
 import com.faforever.client.domain.server.MatchmakerQueueInfo;
 import com.faforever.client.domain.server.PartyInfo.PartyMember;
 import com.faforever.client.domain.server.PlayerInfo;
@@ -50,6 +52,7 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import org.instancio.Instancio;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -69,8 +72,10 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.faforever.client.notification.Severity.INFO;
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
@@ -78,6 +83,8 @@ import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -470,7 +477,8 @@ public class TeamMatchmakingServiceTest extends ServiceTest {
   public void testJoinLeaveQueues() {
     matchmakerInfoTestPublisher.next(createMatchmakerInfoMessage());
 
-    when(mapService.downloadAllMatchmakerMaps(any())).thenReturn(Mono.empty());
+    when(mapService.getMatchmakerBrackets(any())).thenReturn(Mono.just(Map.of()));
+    when(mapService.downloadMatchmakerMaps(any())).thenReturn(Mono.empty());
     when(featuredModService.updateFeaturedModToLatest(anyString(), anyBoolean())).thenReturn(
         CompletableFuture.completedFuture(null));
 
@@ -488,6 +496,65 @@ public class TeamMatchmakingServiceTest extends ServiceTest {
     verify(fafServerAccessor, times(2)).gameMatchmaking(any(), eq(MatchmakerState.STOP));
   }
 
+  @Test
+  public void testGetMapsByPriority() {
+    MatchmakerQueueMapPool lowPool = new MatchmakerQueueMapPool(1, null, 800d, null);
+    MatchmakerQueueMapPool middlePool = new MatchmakerQueueMapPool(2, 800d, 1400d, null);
+    MatchmakerQueueMapPool highPool = new MatchmakerQueueMapPool(3, 1400d, null, null);
+    MapVersion lowMap = Instancio.create(MapVersion.class);
+    MapVersion middleMap = Instancio.create(MapVersion.class);
+    MapVersion highMap = Instancio.create(MapVersion.class);
+    Map<MatchmakerQueueMapPool, List<MapVersion>> brackets = Map.of(lowPool, List.of(lowMap), middlePool,
+                                                                    List.of(middleMap, lowMap), highPool,
+                                                                    List.of(highMap));
+
+    List<List<MapVersion>> mapsByPriority = TeamMatchmakingService.getMapsByPriority(brackets, 1000);
+
+    assertThat(mapsByPriority.getFirst(), contains(middleMap, lowMap));
+    assertThat(mapsByPriority.getLast(), contains(highMap));
+  }
+
+  @Test
+  public void testGetMapsByPriorityWithoutPlayerBracket() {
+    MatchmakerQueueMapPool lowPool = new MatchmakerQueueMapPool(1, null, 800d, null);
+    MatchmakerQueueMapPool highPool = new MatchmakerQueueMapPool(2, 1400d, null, null);
+    MapVersion lowMap = Instancio.create(MapVersion.class);
+    MapVersion highMap = Instancio.create(MapVersion.class);
+    Map<MatchmakerQueueMapPool, List<MapVersion>> brackets = Map.of(lowPool, List.of(lowMap), highPool,
+                                                                    List.of(highMap));
+
+    List<List<MapVersion>> mapsByPriority = TeamMatchmakingService.getMapsByPriority(brackets, 1000);
+
+    assertThat(mapsByPriority.getFirst(), contains(lowMap, highMap));
+    assertThat(mapsByPriority.getLast(), empty());
+  }
+
+  @Test
+  public void testMapPrefetchStopsOnMatchFound() {
+    matchmakerInfoTestPublisher.next(createMatchmakerInfoMessage());
+    instance.getQueues()
+            .forEach(queue -> queue.setLeaderboard(
+                new com.faforever.client.domain.api.Leaderboard(1, null, null, "ladder1v1")));
+
+    MapVersion mapVersion = Instancio.create(MapVersion.class);
+    MatchmakerQueueMapPool pool = new MatchmakerQueueMapPool(1, 5000d, null, null);
+    AtomicBoolean prefetchCancelled = new AtomicBoolean();
+    when(mapService.getMatchmakerBrackets(any())).thenReturn(
+        Mono.just(Map.of(new MatchmakerQueueMapPool(2, null, 5000d, null), List.of(), pool, List.of(mapVersion))));
+    when(mapService.downloadMatchmakerMaps(List.of())).thenReturn(Mono.empty());
+    when(mapService.prefetchMatchmakerMaps(List.of(mapVersion))).thenReturn(
+        Mono.<Void>never().doOnCancel(() -> prefetchCancelled.set(true)));
+    when(featuredModService.updateFeaturedModToLatest(anyString(), anyBoolean())).thenReturn(
+        CompletableFuture.completedFuture(null));
+
+    assertThat(instance.joinQueues().join(), is(true));
+    assertThat(prefetchCancelled.get(), is(false));
+
+    matchmakerFoundTestPublisher.next(new MatchmakerMatchFoundResponse("queue1"));
+
+    assertThat(prefetchCancelled.get(), is(true));
+  }
+
   @Test
   public void testJoinLeaveQueuesUnselectedQueues() {
     matchmakerPrefs.getUnselectedQueueIds().add(1);
@@ -548,7 +615,8 @@ public class TeamMatchmakingServiceTest extends ServiceTest {
   public void testJoinQueuesPartyJoinQueueFails() {
     matchmakerInfoTestPublisher.next(createMatchmakerInfoMessage());
 
-    when(mapService.downloadAllMatchmakerMaps(any())).thenReturn(Mono.error(new Exception()));
+    when(mapService.getMatchmakerBrackets(any())).thenReturn(Mono.just(Map.of()));
+    when(mapService.downloadMatchmakerMaps(any())).thenReturn(Mono.error(new Exception()));
     when(featuredModService.updateFeaturedModToLatest(anyString(), anyBoolean())).thenReturn(
         CompletableFuture.completedFuture(null));
 
@@ -589,7 +657,8 @@ public class TeamMatchmakingServiceTest extends ServiceTest {
     matchmakerInfoTestPublisher.next(createMatchmakerInfoMessage());
     instance.setSearching(true);
 
-    when(mapService.downloadAllMatchmakerMaps(any())).thenReturn(Mono.empty());
+    when(mapService.getMatchmakerBrackets(any())).thenReturn(Mono.just(Map.of()));
+    when(mapService.downloadMatchmakerMaps(any())).thenReturn(Mono.empty());
 
     SearchInfo message1 = new SearchInfo("queue1", MatchmakerState.START);
     SearchInfo message2 = new SearchInfo("queue2", MatchmakerState.START);
@@ -4,9 +4,12 @@ import com.faforever.client.test.FakeTestException;
 import com.faforever.client.test.ServiceTest;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -28,4 +31,26 @@ public class ConcurrentUtilTest extends ServiceTest {
         .exceptionally(handler)
         .get();
   }
+
+  @Test
+  public void testProcessInParallel() throws Exception {
+    List<Integer> items = IntStream.rangeClosed(1, 100).boxed().toList();
+    List<List<Integer>> batches = new ArrayList<>();
+    List<Integer> progress = new ArrayList<>();
+
+    ConcurrentUtil.processInParallel(items, item -> {
+      if (item == 50) {
+        throw new FakeTestException();
+      }
+      return item % 10 == 0 ? null : item * 2;
+    }, 30, batches::add, (processed, total) -> {
+      assertEquals(100, total);
+      progress.add(processed);
+    });
+
+    List<Integer> expectedResults = items.stream().filter(item -> item % 10 != 0).map(item -> item * 2).toList();
+    assertEquals(expectedResults, batches.stream().flatMap(List::stream).toList());
+    assertEquals(List.of(30, 30, 30), batches.stream().limit(3).map(List::size).toList());
+    assertEquals(items, progress);
+  }
 }
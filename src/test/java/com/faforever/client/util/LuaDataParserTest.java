@@ -0,0 +1,64 @@
+package com.faforever.client.util;
+
+import com.faforever.client.test.ServiceTest;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.LuaValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LuaDataParserTest extends ServiceTest {
+
+  @Test
+  public void testParseScenario() throws Exception {
+    Path scenarioFile = Path.of(getClass().getResource("/maps/SCMP_001/SCMP_001_scenario.lua").toURI());
+
+    LuaValue scenarioInfo = LuaDataParser.parse(Files.readString(scenarioFile, UTF_8)).get("ScenarioInfo");
+
+    assertThat(scenarioInfo.get("name").tojstring(), is("Burial Mounds"));
+    assertThat(scenarioInfo.get("type").tojstring(), is("skirmish"));
+    assertThat(scenarioInfo.get("size").get(1).toint(), is(1024));
+    assertThat(scenarioInfo.get("map_version").tojstring(), is("1"));
+    assertThat(scenarioInfo.get("Configurations").get("standard").get("teams").get(1).get("armies").length(), is(8));
+    assertThat(scenarioInfo.get("Configurations").get("standard").get("customprops").get("ExtraArmies").tojstring(),
+               is("ARMY_9 NEUTRAL_CIVILIAN"));
+  }
+
+  @Test
+  public void testParseValues() throws Exception {
+    LuaValue globals = LuaDataParser.parse("""
+        -- comment
+        long = [[
+        text]] --[==[ long
+        comment ]==]
+        escaped = "a\\"b\\65\\n";
+        numbers = { -1, 0x10, 1.5e1, [5] = .5 }
+        flags = { on = true, off = false, missing = nil }
+        """);
+
+    assertThat(globals.get("long").tojstring(), is("text"));
+    assertThat(globals.get("escaped").tojstring(), is("a\"bA\n"));
+    assertThat(globals.get("numbers").get(1).toint(), is(-1));
+    assertThat(globals.get("numbers").get(2).toint(), is(16));
+    assertThat(globals.get("numbers").get(3).toint(), is(15));
+    assertThat(globals.get("numbers").get(5).todouble(), is(0.5));
+    assertThat(globals.get("flags").get("on").toboolean(), is(true));
+    assertThat(globals.get("flags").get("off").toboolean(), is(false));
+    assertThat(globals.get("flags").get("missing").isnil(), is(true));
+  }
+
+  @Test
+  public void testRejectsCode() {
+    assertThrows(ParseException.class, () -> LuaDataParser.parse("x = 1 + 2"));
+    assertThrows(ParseException.class, () -> LuaDataParser.parse("local x = 1"));
+    assertThrows(ParseException.class, () -> LuaDataParser.parse("x = y"));
+    assertThrows(ParseException.class, () -> LuaDataParser.parse("function f() end"));
+    assertThrows(ParseException.class, () -> LuaDataParser.parse("x = { 1, 2"));
+  }
+}